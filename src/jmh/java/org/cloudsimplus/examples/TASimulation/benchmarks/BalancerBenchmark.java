@@ -0,0 +1,139 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.benchmarks;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.distributions.UniformDistr;
+import org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancer;
+import org.cloudsimplus.examples.TASimulation.PLAC.PLACLoadBalancer;
+import org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingIncrementalSimulatedAnnealing;
+import org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingParallelTempering;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of a single invocation of each TASimulation load balancer,
+ * with the parameters of the E1 experiments:
+ * {@link MarkovLoadBalancer#getAllocatedNewCloudlets(List, List, Integer)},
+ * {@link PLACLoadBalancer#implement(List, List, int, List)},
+ * {@link CloudletToVmMappingIncrementalSimulatedAnnealing#solve()} and
+ * {@link CloudletToVmMappingParallelTempering#solve()} with {@link CloudletToVmMappingParallelTempering#DEFAULT_REPLICAS} replicas.
+ *
+ * <p>The benchmarks are parameterized by the number of VMs, the number of new tasks
+ * and the {@link BalancerWorkload.TaskMix task-length mix}, whose values can be changed
+ * with the JMH {@code -p} option. They report throughput and average time.
+ * The allocation rate is reported when the GC profiler is enabled (the {@code -prof gc} option),
+ * which the {@link #main(String[])} method does by default.</p>
+ *
+ * <p>A workload is created before each iteration and shared by its invocations,
+ * since a setup before each invocation would distort the times of the faster balancers.
+ * PLAC and SA only read the workload. Markov removes and adds Cloudlets to the list it's given,
+ * so it gets a copy of the new Cloudlets; it binds them to the same VMs on every invocation.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BalancerBenchmark {
+    @Param({"5", "20"})
+    public int vms;
+
+    @Param({"10", "100"})
+    public int tasks;
+
+    @Param({"E1", "E2", "UNIFORM"})
+    public String mix;
+
+    private BalancerWorkload workload;
+
+    public static void main(String[] args) throws RunnerException {
+        final var options = new OptionsBuilder()
+            .include(BalancerBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Iteration)
+    public void createWorkload() {
+        workload = new BalancerWorkload(vms, tasks, BalancerWorkload.TaskMix.valueOf(mix));
+    }
+
+    @Benchmark
+    public List<Cloudlet> markov() throws FileNotFoundException {
+        return new MarkovLoadBalancer().getAllocatedNewCloudlets(
+            new ArrayList<>(workload.getNewCloudlets()), workload.getVmList(), workload.getInitialCloudlets().size());
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> plac() throws FileNotFoundException {
+        final var plac = new PLACLoadBalancer(8, 1, 3, 2, 8, 0.01).setSeed(tasks);
+        return plac.implement(workload.getNewCloudlets(), workload.getVmList(), 50, workload.getInitialExecutionTimes());
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution simulatedAnnealing() {
+        return solve(new CloudletToVmMappingIncrementalSimulatedAnnealing(1.0, new UniformDistr(0, 1, tasks)));
+    }
+
+    @Benchmark
+    public CloudletToVmMappingSolution parallelTempering() {
+        return solve(new CloudletToVmMappingParallelTempering(1.0, new UniformDistr(0, 1, tasks)));
+    }
+
+    private CloudletToVmMappingSolution solve(final CloudletToVmMappingIncrementalSimulatedAnnealing heuristic) {
+        heuristic.setColdTemperature(0.0001)
+                 .setCoolingRate(0.003)
+                 .setSearchesByIteration(50);
+        heuristic.getCostModel().setBacklog(workload.getInitialCloudlets());
+        heuristic.setVmList(workload.getVmList());
+        heuristic.setCloudletList(workload.getNewCloudlets());
+        return heuristic.solve();
+    }
+}
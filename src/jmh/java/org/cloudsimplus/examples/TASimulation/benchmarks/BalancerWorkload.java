@@ -0,0 +1,134 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.benchmarks;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.examples.TASimulation.scenario.ScenarioFactory;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates the VMs and Cloudlets given to the load balancers by the benchmarks,
+ * with the {@link ScenarioFactory} the scenario runners use, so that the balancers get the same entities.
+ *
+ * <p>The VM MIPS cycle through the MIPS of the E2 experiment and each VM
+ * has {@value #INITIAL_TASKS_BY_VM} initial tasks of 1000 MI bound to it, as in the E1 experiment.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+final class BalancerWorkload {
+    static final int INITIAL_TASKS_BY_VM = 4;
+    private static final int INITIAL_TASK_LENGTH = 1000;
+
+    /** The PEs of each VM and Cloudlet, as in the experiments. */
+    private static final int PES = 1;
+    private static final int[] VM_MIPS = {962, 933, 875, 847, 803, 789, 725, 615, 607, 568, 447, 436, 341, 305, 248, 203, 196, 176, 157, 155};
+
+    /**
+     * The mixes of new task lengths.
+     */
+    enum TaskMix {
+        /** The lengths of the E1 experiment, in equal parts. */
+        E1(6000, 5000, 4000, 3000, 2000, 1000),
+        /** The lengths of the E2 experiment, in equal parts. */
+        E2(9449, 8772, 4951, 4574, 2858, 2741),
+        /** Lengths uniformly distributed between 1000 and 10000, from a fixed seed. */
+        UNIFORM;
+
+        private final long[] lengths;
+
+        TaskMix(final long... lengths) {
+            this.lengths = lengths;
+        }
+
+        long getLength(final int task, final Random random) {
+            return lengths.length == 0 ? 1000 + random.nextInt(9001) : lengths[task % lengths.length];
+        }
+    }
+
+    private final List<Vm> vmList;
+    private final List<Cloudlet> initialCloudlets;
+    private final List<Cloudlet> newCloudlets;
+
+    /**
+     * Creates a workload.
+     * @param vms the number of VMs
+     * @param tasks the number of new tasks to map
+     * @param mix the mix of new task lengths
+     */
+    BalancerWorkload(final int vms, final int tasks, final TaskMix mix) {
+        final var factory = new ScenarioFactory(new CloudSimPlus());
+        final var mips = new ArrayList<Integer>(vms);
+        for (int i = 0; i < vms; i++) {
+            mips.add(VM_MIPS[i % VM_MIPS.length]);
+        }
+
+        this.vmList = factory.createVms(mips, PES);
+        this.initialCloudlets = factory.createCloudlets(INITIAL_TASK_LENGTH, vms * INITIAL_TASKS_BY_VM, PES);
+        for (int i = 0; i < initialCloudlets.size(); i++) {
+            initialCloudlets.get(i).setVm(vmList.get(i / INITIAL_TASKS_BY_VM));
+        }
+
+        final var random = new Random(tasks);
+        final var lengths = new ArrayList<Long>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            lengths.add(mix.getLength(i, random));
+        }
+
+        this.newCloudlets = factory.createCloudlets(lengths, PES);
+    }
+
+    List<Vm> getVmList() {
+        return vmList;
+    }
+
+    List<Cloudlet> getInitialCloudlets() {
+        return initialCloudlets;
+    }
+
+    /**
+     * Gets the new tasks to map, which the balancers may bind to VMs.
+     * @return
+     */
+    List<Cloudlet> getNewCloudlets() {
+        return newCloudlets;
+    }
+
+    /**
+     * Gets the time (in seconds) each VM takes to run its initial tasks, as required by PLAC.
+     * @return
+     */
+    List<Double> getInitialExecutionTimes() {
+        final var times = new ArrayList<Double>(vmList.size());
+        for (final var vm : vmList) {
+            times.add(INITIAL_TASKS_BY_VM * INITIAL_TASK_LENGTH / vm.getMips());
+        }
+
+        return times;
+    }
+}
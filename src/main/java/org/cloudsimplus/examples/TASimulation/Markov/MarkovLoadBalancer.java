@@ -31,9 +31,13 @@ import org.cloudsimplus.vms.Vm;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 public class MarkovLoadBalancer{
+	private static final Logger LOGGER = LoggerFactory.getLogger(MarkovLoadBalancer.class.getSimpleName());
+
 	protected double Q;
 	protected double alpha;
 	protected double beta;
@@ -75,24 +79,26 @@ public class MarkovLoadBalancer{
         List<Double> taskDistProbAfter = getTaskDistProbAfter(workloadPerVM, expProcCapLB);
         List<Double> expUtilVMAfter = getExpUtilVMAfter(expUtilLB,expProcCapLB,expProcCapAfter, taskDistProbAfter);
 
-        System.out.println("This is lk: " + lk);
-        System.out.println("This is expProCapLB: " + expProcCapLB);
-        System.out.println("This is maxComPow: " + maxComPow);
-        System.out.println("This is facProcCap: " + facProcCap);
-        System.out.println("This is maxProcCap: " + maxProcCap);
-        System.out.println("This is expProcCapVM: " + expProcCapVM);
-        System.out.println("This is distFac: " + distFac);
-        System.out.println("This is Fn: " + Fn);
-        System.out.println("This is Fn_1: " + Fn_1);
-        System.out.println("This is expUtilLB: " + expUtilLB);
-        System.out.println("This is values: " + values);
-        System.out.println("This is ratio: " + ratio);
-        System.out.println("This is loadBalanceFac: " + loadBalanceFac);
-        System.out.println("This is workloadPerVM: " + workloadPerVM);
-        System.out.println("This is expProcCapAfter: " + expProcCapAfter); 
-        System.out.println("This is taskDistProbAfter: " + taskDistProbAfter); 
-        System.out.println("This is expUtilVMAfter: " + expUtilVMAfter); 
-        System.out.println(loadBalanceAnalysis(expUtilVMs, expUtilVMAfter, removeVM));
+        if(LOGGER.isDebugEnabled()) {
+            LOGGER.debug("lk: {}", lk);
+            LOGGER.debug("expProCapLB: {}", expProcCapLB);
+            LOGGER.debug("maxComPow: {}", maxComPow);
+            LOGGER.debug("facProcCap: {}", facProcCap);
+            LOGGER.debug("maxProcCap: {}", maxProcCap);
+            LOGGER.debug("expProcCapVM: {}", expProcCapVM);
+            LOGGER.debug("distFac: {}", distFac);
+            LOGGER.debug("Fn: {}", Fn);
+            LOGGER.debug("Fn_1: {}", Fn_1);
+            LOGGER.debug("expUtilLB: {}", expUtilLB);
+            LOGGER.debug("values: {}", values);
+            LOGGER.debug("ratio: {}", ratio);
+            LOGGER.debug("loadBalanceFac: {}", loadBalanceFac);
+            LOGGER.debug("workloadPerVM: {}", workloadPerVM);
+            LOGGER.debug("expProcCapAfter: {}", expProcCapAfter);
+            LOGGER.debug("taskDistProbAfter: {}", taskDistProbAfter);
+            LOGGER.debug("expUtilVMAfter: {}", expUtilVMAfter);
+            LOGGER.debug("Balanced after the allocation: {}", loadBalanceAnalysis(expUtilVMs, expUtilVMAfter, removeVM));
+        }
 
         List<Cloudlet> allocatedNewCloudlets = allocateNewCloudlets(workloadPerVM, newCloudlets, vmList, expUtilVMs);
 
@@ -378,14 +384,14 @@ public class MarkovLoadBalancer{
             BigDecimal scaled = bigDecimalTotal.setScale(1, RoundingMode.HALF_UP);
 
             if(scaled.compareTo(BigDecimal.ZERO)==0) {
-            System.out.println("Case 1");
+            LOGGER.debug("Case 1");
             return true;
         }
         }else{
             Double Threshold = (expUtilVMAfter.size()-1)*Math.pow(loadImbalanceFact1,2) / expUtilVMAfter.size();
             // System.out.println(Threshold);
             if(Total <= Threshold) {
-            System.out.println("Case 2");
+            LOGGER.debug("Case 2");
             return true;
             }
         }
@@ -26,25 +26,19 @@ package org.cloudsimplus.examples.TASimulation.Markov;
 import org.apache.commons.math3.linear.Array2DRowFieldMatrix;
 import org.cloudsimplus.brokers.DatacenterBroker;
 import org.cloudsimplus.brokers.DatacenterBrokerSimple;
-import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
-import org.cloudsimplus.builders.tables.MarkdownTableColumn;
 import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.cloudlets.CloudletSimple;
 import org.cloudsimplus.core.CloudSimPlus;
 import org.cloudsimplus.datacenters.Datacenter;
-import org.cloudsimplus.datacenters.DatacenterSimple;
-import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.examples.TASimulation.scenario.ResultFormat;
+import org.cloudsimplus.examples.TASimulation.scenario.ResultSink;
+import org.cloudsimplus.examples.TASimulation.scenario.Scenario;
+import org.cloudsimplus.examples.TASimulation.scenario.ScenarioFactory;
+import org.cloudsimplus.examples.TASimulation.scenario.ScenarioResult;
 import org.cloudsimplus.resources.Pe;
-import org.cloudsimplus.resources.PeSimple;
-import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
 import org.cloudsimplus.vms.Vm;
-import org.cloudsimplus.vms.VmSimple;
 
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.*;
 import org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancer;
 import org.cloudsimplus.util.Log;
@@ -68,12 +62,12 @@ public class Markov_E2 {
     private static final long HOST_BW = 1000*20; //in Megabits/s
     private static final long HOST_STORAGE = 10_000*20; //in Megabytes
 
-    private static final int VMS = 20;
     private final List<Integer> mips = new ArrayList<>(Arrays.asList(962, 933, 875, 847, 803, 789, 725, 615, 607, 568, 447, 436, 341, 305, 248, 203, 196, 176, 157, 155));
     private static final int VM_PES = 1;
     private static final int CLOUDLET_PES = 1;
 
     private final CloudSimPlus simulation;
+    private final ScenarioFactory factory;
     private final DatacenterBroker broker0;
     private List<Vm> vmList;
     private List<Cloudlet> cloudletList_T0;
@@ -93,20 +87,21 @@ public class Markov_E2 {
         Log.setLevel(ch.qos.logback.classic.Level.WARN);
 
         simulation = new CloudSimPlus();
-        datacenter0 = createDatacenter();
+        factory = new ScenarioFactory(simulation);
+        datacenter0 = factory.createDatacenter(HOSTS, HOST_PES, HOST_MIPS, HOST_RAM, HOST_BW, HOST_STORAGE);
 
         List<Integer> newCloudlets = getNumberOfNewCloudlets();
         //Creates a broker that is a software acting on behalf of a cloud customer to manage his/her VMs and Cloudlets
         broker0 = new DatacenterBrokerSimple(simulation);
 
-        vmList = createVms(mips);
+        vmList = factory.createVms(mips, VM_PES);
 
         for(int i=0; i<100; i++){
             initialCloudlets.add(1000);
         }
 
-        cloudletList_T0 = createCloudlets(initialCloudlets, initialCloudlets.size());
-        cloudletList_T20 = createCloudlets(newCloudlets, newCloudlets.size());
+        cloudletList_T0 = factory.createCloudlets(initialCloudlets, CLOUDLET_PES);
+        cloudletList_T20 = factory.createCloudlets(newCloudlets, CLOUDLET_PES);
 
         MarkovLoadBalancer loadBalancer = new MarkovLoadBalancer();
         try {
@@ -123,146 +118,11 @@ public class Markov_E2 {
         System.out.println(getClass().getSimpleName() + " finished!");
     }
 
-     private void runSimulationAndPrintResults() {
+    private void runSimulationAndPrintResults() {
         simulation.start();
-        final var cloudletFinishedList = broker0.getCloudletFinishedList();
-        cloudletFinishedList.sort(Comparator.comparingLong(c -> c.getVm().getId()));
-        try {
-        // Specify the file path to export the output
-        String outputPath = "result/markov result/E2/MarkovE2_Outputtest.csv";
-
-        // Create a FileOutputStream to write the output to the file
-        FileOutputStream fileOutputStream = new FileOutputStream(outputPath);
-
-        // Create a PrintStream to write to the file
-        PrintStream printStream = new PrintStream(fileOutputStream);
-
-        // Redirect the standard output stream to the file
-        System.setOut(printStream);
-
-        // finding makespan for each VM
-        Double tmin = Double.MAX_VALUE;
-        Double tmax = 0.0;
-        
-        List<Double> makespanVM = new ArrayList<>();
-        Double makespan = 0.0;
-
-        for(int i = 0, j = 0; i < cloudletFinishedList.size(); i++){
-            Double value = cloudletFinishedList.get(i).getTotalExecutionTime();
-
-            if(value < tmin) tmin = value;
-            if(value > tmax) tmax = value;
-
-            if(cloudletFinishedList.get(i).getVm() == vmList.get(j)){
-                makespan += value;
-            }else{
-                makespanVM.add(makespan);
-                j++;
-                makespan = value;
-            }
-        }
-
-        makespanVM.add(makespan);
-        System.out.println("This is Makespan per vm " + makespanVM);
-        
-        //find total execution time
-        Double total = 0.0;
-        for(int i = 0; i < makespanVM.size(); i++){
-            total +=makespanVM.get(i);
-        }
-        System.out.println("This is Total Execution Time " + total);
-
-        Double maxMakespan = Collections.max(makespanVM); // max makespan
-        System.out.println("This is Maximum Makespan " + maxMakespan);
-
-        // Find Utilization per VM and  Average Utilization
-        List<Double> utilVM = new ArrayList<>();
-        Double total2 = 0.0;
-        for(int i=0; i<makespanVM.size(); i++){
-            Double utilVmValue = makespanVM.get(i)/maxMakespan;
-            utilVM.add(utilVmValue);
-            total2 += utilVmValue;
-        }
-        System.out.println("This is Utilization per VM " + utilVM);
-        System.out.println("This is Average Utilization " + total2 / utilVM.size());
-
-        // Find Degree of imbalance
-        System.out.println("This is Degree of Imbalance " + (tmax-tmin)/(total/cloudletFinishedList.size()));
-
-        new CloudletsTableBuilder(cloudletFinishedList)
-        .addColumn(new MarkdownTableColumn(" Vm ", "ID"), c -> c.getVm())
-        .build();
-        // Close the output stream
-        printStream.close();
-
-        System.out.println("Terminal output exported to " + outputPath);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Creates a Datacenter and its Hosts.
-     */
-    private Datacenter createDatacenter() {
-        final var hostList = new ArrayList<Host>(HOSTS);
-        for(int i = 0; i < HOSTS; i++) {
-            final var host = createHost();
-            hostList.add(host);
-        }
-
-        //Uses a VmAllocationPolicySimple by default to allocate VMs
-        return new DatacenterSimple(simulation, hostList);
-    }
-
-    private Host createHost() {
-        final var peList = new ArrayList<Pe>(HOST_PES);
-        //List of Host's CPUs (Processing Elements, PEs)
-        for (int i = 0; i < HOST_PES; i++) {
-            //Uses a PeProvisionerSimple by default to provision PEs for VMs
-            peList.add(new PeSimple(HOST_MIPS));
-        }
-
-        /*
-        Uses ResourceProvisionerSimple by default for RAM and BW provisioning
-        and VmSchedulerSpaceShared for VM scheduling.
-        */
-        return new HostSimple(HOST_RAM, HOST_BW, HOST_STORAGE, peList);
-    }
-
-    /**
-     * Creates a list of VMs.
-     */
-    private List<Vm> createVms(List<Integer> mips) {
-        final var vmList = new ArrayList<Vm>(VMS);
-        for (int i = 0; i < VMS; i++) {
-            //Uses a CloudletSchedulerTimeShared by default to schedule Cloudlets
-            final var vm = new VmSimple(mips.get(i), VM_PES);
-            vm.setRam(512).setBw(1000).setSize(10_000).setCloudletScheduler(new CloudletSchedulerSpaceShared());
-            vmList.add(vm);
-        }
-
-        return vmList;
-    }
-
-    /**
-     * Creates a list of Cloudlets.
-     */
-    private List<Cloudlet> createCloudlets(List<Integer> CLOUDLET_LENGTH, int CLOUDLETS_TOTAL) {
-        final var cloudletList = new ArrayList<Cloudlet>(CLOUDLETS_TOTAL);
-
-        //UtilizationModel defining the Cloudlets use only 50% of any resource all the time
-        final var utilizationModel = new UtilizationModelDynamic(1.0);
-        final var utilizationModelRam = new UtilizationModelDynamic(0.6);
-        final var utilizationModelBw = new UtilizationModelDynamic(0.7);
-
-        for (int i = 0; i < CLOUDLETS_TOTAL; i++) {
-            final var cloudlet = new CloudletSimple(CLOUDLET_LENGTH.get(i), CLOUDLET_PES, utilizationModel);
-            cloudlet.setSizes(300).setUtilizationModelRam(utilizationModelRam).setUtilizationModelBw(utilizationModelBw);
-            cloudletList.add(cloudlet);
-        }
+        final var result = ScenarioResult.of(getClass().getSimpleName(), Scenario.Algorithm.MARKOV, vmList, broker0.getCloudletFinishedList());
 
-        return cloudletList;
+        ResultSink.export(result, Path.of("result/markov result/E2/MarkovE2_Outputtest.csv"), ResultFormat.TABLE);
     }
 
     private List<Integer> getNumberOfNewCloudlets(){
@@ -164,6 +164,17 @@ public class PLACLoadBalancer{
 		r = new Random();
 	}
 
+	/**
+	 * Sets the seed of the random number generator used to choose VMs,
+	 * so that runs are reproducible.
+	 * @param seed the seed to set
+	 * @return
+	 */
+	public PLACLoadBalancer setSeed(long seed){
+		r = new Random(seed);
+		return this;
+	}
+
 	protected Map<Integer,Double> initializePheromone(Map<Integer,Double> cc){
 		Map<Integer, Double> pheromones = new HashMap<>();
 		
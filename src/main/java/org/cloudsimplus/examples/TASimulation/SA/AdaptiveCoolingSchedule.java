@@ -0,0 +1,236 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+/**
+ * Parameters of an adaptive cooling schedule for a {@link CloudletToVmMappingIncrementalSimulatedAnnealing},
+ * replacing hand-tuned initial temperature and cooling rate.
+ *
+ * <ul>
+ *   <li>The initial temperature is calibrated by sampling {@link #getCalibrationSamples() random neighbors}
+ *       of the initial solution, so that a mean uphill move is accepted with
+ *       the {@link #getInitialAcceptanceRatio() initial acceptance ratio}:
+ *       {@code T0 = -meanUphillDelta / ln(initialAcceptanceRatio)}.</li>
+ *   <li>The temperature follows the ratio of accepted neighbors, as in the Lam–Delosme schedule:
+ *       after each iteration, the search cools down when the ratio is above the
+ *       {@link #getTargetAcceptanceRatio(double) target for the search progress}
+ *       (the search is still too random) and reheats when it's below it (the search is getting stuck).
+ *       The target starts close to 1, stays at the {@link #getTargetAcceptanceRatio() plateau ratio}
+ *       from 15% to 65% of the search and then decays to almost 0.</li>
+ *   <li>The temperature changes by the cooling rate, which grows while the acceptance ratio stays on the same side
+ *       of the target and shrinks when it crosses it,
+ *       within [{@link #getMinCoolingRate() min}, {@link #getMaxCoolingRate() max}].</li>
+ *   <li>The search progress is the used fraction of the solve time or evaluations budget, when one is set.
+ *       Otherwise, it's the fraction of the {@link #getNominalIterations(double, double, double) iterations}
+ *       a geometric schedule would take to cool down to the cold temperature.
+ *       The search stops when the progress reaches 1 or when the best solution doesn't improve for
+ *       {@link #getStagnationIterations() a number of iterations}.</li>
+ * </ul>
+ *
+ * <p>Easy instances stagnate quickly and stop early, while hard ones spend the search
+ * at the temperatures that keep the acceptance ratio on target, whatever the scale of their costs.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class AdaptiveCoolingSchedule {
+    private double initialAcceptanceRatio = 0.8;
+    private int calibrationSamples = 200;
+    private double targetAcceptanceRatio = 0.44;
+    private double adjustmentFactor = 0.1;
+    private double minCoolingRate = 0.0005;
+    private double maxCoolingRate = 0.05;
+    private int stagnationIterations = 300;
+
+    /**
+     * Computes the initial temperature that accepts a mean uphill move
+     * with the {@link #getInitialAcceptanceRatio() initial acceptance ratio}.
+     * @param meanUphillDelta the mean cost increase of sampled neighbors worse than the initial solution
+     * @return the calibrated temperature
+     */
+    double calibrateTemperature(final double meanUphillDelta) {
+        return -meanUphillDelta / Math.log(initialAcceptanceRatio);
+    }
+
+    /**
+     * Computes the number of iterations a geometric schedule takes to cool down
+     * from an initial to a cold temperature, which defines the search progress when there is no budget.
+     * @param initialTemperature the temperature the search starts from
+     * @param coldTemperature the temperature the search stops at
+     * @param coolingRate the cooling rate of the geometric schedule
+     * @return the number of iterations (at least 1)
+     */
+    int getNominalIterations(final double initialTemperature, final double coldTemperature, final double coolingRate) {
+        if(initialTemperature <= coldTemperature || coolingRate <= 0 || coolingRate >= 1)
+            return 1;
+        return (int) Math.min(Integer.MAX_VALUE, Math.ceil(Math.log(coldTemperature / initialTemperature) / Math.log(1 - coolingRate)));
+    }
+
+    /**
+     * Gets the ratio of accepted neighbors the search aims at, for a given search progress,
+     * following the Lam–Delosme schedule scaled to the {@link #getTargetAcceptanceRatio() plateau ratio}.
+     * @param progress the search progress (between 0 and 1)
+     * @return the target acceptance ratio
+     */
+    public double getTargetAcceptanceRatio(final double progress) {
+        if(progress < 0.15)
+            return targetAcceptanceRatio + (1 - targetAcceptanceRatio) * Math.pow(560, -progress / 0.15);
+        if(progress < 0.65)
+            return targetAcceptanceRatio;
+        return targetAcceptanceRatio * Math.pow(440, -(progress - 0.65) / 0.35);
+    }
+
+    /**
+     * Adjusts the cooling rate: it grows while the acceptance ratio stays on the same side of the target,
+     * so that the temperature catches up, and shrinks when the ratio crosses the target, to stop oscillating.
+     * @param coolingRate the current cooling rate
+     * @param aboveTarget if the acceptance ratio of the last iteration is above the target
+     * @param wasAboveTarget if the acceptance ratio of the previous iteration was above the target
+     * @return the new cooling rate
+     */
+    double adjustCoolingRate(final double coolingRate, final boolean aboveTarget, final boolean wasAboveTarget) {
+        final double factor = aboveTarget == wasAboveTarget ? 1 + adjustmentFactor : 1 - adjustmentFactor;
+        return clampCoolingRate(coolingRate * factor);
+    }
+
+    /**
+     * Computes the temperature for the next iteration,
+     * cooling the search down when it accepts more neighbors than the target and reheating it otherwise.
+     * @param temperature the current temperature
+     * @param coolingRate the current cooling rate
+     * @param aboveTarget if the acceptance ratio of the last iteration is above the target
+     * @return the new temperature
+     */
+    double nextTemperature(final double temperature, final double coolingRate, final boolean aboveTarget) {
+        return aboveTarget ? temperature * (1 - coolingRate) : temperature / (1 - coolingRate);
+    }
+
+    /**
+     * Limits a cooling rate to the [{@link #getMinCoolingRate() min}, {@link #getMaxCoolingRate() max}] interval.
+     * @param coolingRate the cooling rate to limit
+     * @return
+     */
+    double clampCoolingRate(final double coolingRate) {
+        return Math.max(minCoolingRate, Math.min(maxCoolingRate, coolingRate));
+    }
+
+    public double getInitialAcceptanceRatio() {
+        return initialAcceptanceRatio;
+    }
+
+    public AdaptiveCoolingSchedule setInitialAcceptanceRatio(final double initialAcceptanceRatio) {
+        this.initialAcceptanceRatio = requireRatio(initialAcceptanceRatio, "Initial acceptance ratio");
+        return this;
+    }
+
+    public int getCalibrationSamples() {
+        return calibrationSamples;
+    }
+
+    public AdaptiveCoolingSchedule setCalibrationSamples(final int calibrationSamples) {
+        if(calibrationSamples <= 0)
+            throw new IllegalArgumentException("Calibration samples must be greater than 0.");
+        this.calibrationSamples = calibrationSamples;
+        return this;
+    }
+
+    /**
+     * Gets the target acceptance ratio in the middle of the search, between 15% and 65% of it.
+     * @return
+     */
+    public double getTargetAcceptanceRatio() {
+        return targetAcceptanceRatio;
+    }
+
+    /**
+     * Sets the target acceptance ratio in the middle of the search, between 15% and 65% of it.
+     * The Lam–Delosme schedule uses 0.44 (the default value).
+     * @param targetAcceptanceRatio the ratio to set (between 0 and 1, exclusive)
+     * @return
+     */
+    public AdaptiveCoolingSchedule setTargetAcceptanceRatio(final double targetAcceptanceRatio) {
+        this.targetAcceptanceRatio = requireRatio(targetAcceptanceRatio, "Target acceptance ratio");
+        return this;
+    }
+
+    public double getAdjustmentFactor() {
+        return adjustmentFactor;
+    }
+
+    /**
+     * Sets the fraction the cooling rate is increased or decreased after each iteration.
+     * @param adjustmentFactor the factor to set (between 0 and 1, exclusive)
+     * @return
+     */
+    public AdaptiveCoolingSchedule setAdjustmentFactor(final double adjustmentFactor) {
+        this.adjustmentFactor = requireRatio(adjustmentFactor, "Adjustment factor");
+        return this;
+    }
+
+    public double getMinCoolingRate() {
+        return minCoolingRate;
+    }
+
+    public double getMaxCoolingRate() {
+        return maxCoolingRate;
+    }
+
+    /**
+     * Sets the interval the cooling rate is adjusted within.
+     * @param minCoolingRate the minimum cooling rate
+     * @param maxCoolingRate the maximum cooling rate
+     * @return
+     */
+    public AdaptiveCoolingSchedule setCoolingRateInterval(final double minCoolingRate, final double maxCoolingRate) {
+        requireRatio(minCoolingRate, "Min cooling rate");
+        requireRatio(maxCoolingRate, "Max cooling rate");
+        if(minCoolingRate > maxCoolingRate)
+            throw new IllegalArgumentException("Min cooling rate cannot be greater than the max cooling rate.");
+        this.minCoolingRate = minCoolingRate;
+        this.maxCoolingRate = maxCoolingRate;
+        return this;
+    }
+
+    public int getStagnationIterations() {
+        return stagnationIterations;
+    }
+
+    /**
+     * Sets the number of consecutive iterations without improving the best solution
+     * after which the search stops.
+     * @param stagnationIterations the number of iterations to set
+     * @return
+     */
+    public AdaptiveCoolingSchedule setStagnationIterations(final int stagnationIterations) {
+        if(stagnationIterations <= 0)
+            throw new IllegalArgumentException("Stagnation iterations must be greater than 0.");
+        this.stagnationIterations = stagnationIterations;
+        return this;
+    }
+
+    private static double requireRatio(final double value, final String name) {
+        if(value <= 0 || value >= 1)
+            throw new IllegalArgumentException(name + " must be between 0 and 1 (exclusive).");
+        return value;
+    }
+}
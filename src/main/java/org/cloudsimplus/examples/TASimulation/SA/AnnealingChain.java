@@ -0,0 +1,231 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+import java.util.SplittableRandom;
+
+/**
+ * A Simulated Annealing Markov chain over a {@link CloudletToVmMappingIncrementalSolution}.
+ * Each neighbor is either a random Cloudlet moved to a random VM or the VMs of two random
+ * Cloudlets swapped. It's scored in O(1) and only applied to the current solution
+ * when accepted by the Metropolis criterion.
+ * A neighbor always changes the current solution: a Cloudlet is only moved to another VM
+ * and two Cloudlets on the same VM are not swapped (the first one is moved instead).
+ * Otherwise, such no-op neighbors would be accepted with no cost change and inflate the acceptance ratio
+ * an {@link AdaptiveCoolingSchedule} sets the temperature by, more so as the Cloudlets by VM grow.
+ * A single VM has no neighbors, so no neighbor is evaluated.
+ *
+ * <p>While the chain descends, almost every accepted neighbor is a new best solution.
+ * Instead of copying the current solution for each of them, the chain just records the best cost
+ * and copies the current solution into the best one when it's about to leave the best state:
+ * before applying a neighbor that doesn't improve the best cost, before its current solution is
+ * {@link #exchangeCurrent(AnnealingChain) exchanged} and when the {@link #getBest() best solution} is requested.
+ * That takes one O(n + V) copy for each sequence of improvements, instead of one for each improvement.</p>
+ *
+ * <p>When assertions are enabled, the cost incrementally updated by the chain is checked against
+ * a {@link CloudletToVmMappingIncrementalSolution#recomputeCost() full recomputation}
+ * at the end of each {@link #search(int, double) search}.</p>
+ *
+ * <p>A chain must be accessed by a single thread at a time.
+ * It uses its own random number generator, so that different chains can run in parallel.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+final class AnnealingChain {
+    private final SplittableRandom rand;
+    private CloudletToVmMappingIncrementalSolution current;
+    private final CloudletToVmMappingIncrementalSolution best;
+    private double bestCost;
+
+    /** Indicates if the current solution is a better one than {@link #best}, which wasn't copied yet. */
+    private boolean bestOutdated;
+
+    /** Attributes of the last proposed neighbor, used to apply it when accepted. */
+    private int proposedCloudlet1;
+    private int proposedCloudlet2;
+    private int proposedVm;
+
+    /**
+     * Creates a chain starting from a solution where each Cloudlet not mapped yet
+     * (for instance by a warm start) is mapped to a random VM.
+     *
+     * @param initialSolution the solution which becomes the chain's current solution
+     * @param rand the random number generator used only by this chain
+     */
+    AnnealingChain(final CloudletToVmMappingIncrementalSolution initialSolution, final SplittableRandom rand) {
+        this.rand = rand;
+        this.current = initialSolution;
+        for (int i = 0; i < current.getCloudletsNumber(); i++) {
+            if(current.getVmIndex(i) == CloudletToVmMappingIncrementalSolution.UNMAPPED) {
+                current.move(i, rand.nextInt(current.getVmsNumber()));
+            }
+        }
+
+        this.best = new CloudletToVmMappingIncrementalSolution(current);
+        this.bestCost = best.getCost();
+    }
+
+    /**
+     * Performs a number of neighborhood searches at a given temperature.
+     *
+     * @param searches the number of neighbors to evaluate
+     * @param temperature the temperature used to accept worse neighbors
+     * @return the number of accepted neighbors
+     */
+    int search(final int searches, final double temperature) {
+        int accepted = 0;
+        for (int i = 0; i < searches && hasNeighbors(); i++) {
+            final double delta = proposeNeighbor();
+            if (isAccepted(delta, temperature)) {
+                if (bestOutdated && current.getCost() + delta >= bestCost) {
+                    updateBest();
+                }
+
+                applyProposal();
+                accepted++;
+                if (current.getCost() < bestCost) {
+                    bestCost = current.getCost();
+                    bestOutdated = true;
+                }
+            }
+        }
+
+        assert current.isCostConsistent() : "Incremental cost %f differs from the recomputed cost %f".formatted(current.getCost(), current.recomputeCost());
+        return accepted;
+    }
+
+    /**
+     * Evaluates a number of random neighbors of the current solution, without changing it,
+     * to get the mean cost increase of the neighbors worse than the current solution.
+     *
+     * @param samples the number of neighbors to evaluate
+     * @return the mean cost increase or 0 if no evaluated neighbor is worse than the current solution
+     */
+    double getMeanUphillDelta(final int samples) {
+        double sum = 0;
+        int uphill = 0;
+        for (int i = 0; i < samples && hasNeighbors(); i++) {
+            final double delta = proposeNeighbor();
+            if (delta > 0) {
+                sum += delta;
+                uphill++;
+            }
+        }
+
+        return uphill == 0 ? 0 : sum / uphill;
+    }
+
+    /**
+     * Checks if the current solution has any neighbor, which requires at least one Cloudlet and two VMs.
+     */
+    private boolean hasNeighbors() {
+        return current.getCloudletsNumber() > 0 && current.getVmsNumber() > 1;
+    }
+
+    /**
+     * Randomly selects either a Cloudlet to move to another random VM
+     * or two Cloudlets on different VMs to swap their VMs.
+     * When the two Cloudlets selected to swap are on the same VM, the first one is moved instead.
+     * @return the cost difference if the proposed neighbor is applied
+     */
+    private double proposeNeighbor() {
+        final int cloudlets = current.getCloudletsNumber();
+        proposedCloudlet1 = rand.nextInt(cloudlets);
+        final int vm = current.getVmIndex(proposedCloudlet1);
+        if (cloudlets > 1 && rand.nextBoolean()) {
+            proposedCloudlet2 = rand.nextInt(cloudlets);
+            if (current.getVmIndex(proposedCloudlet2) != vm) {
+                return current.getSwapDelta(proposedCloudlet1, proposedCloudlet2);
+            }
+        }
+
+        proposedCloudlet2 = CloudletToVmMappingIncrementalSolution.UNMAPPED;
+        proposedVm = rand.nextInt(current.getVmsNumber() - 1);
+        if (proposedVm >= vm) {
+            proposedVm++;
+        }
+
+        return current.getMoveDelta(proposedCloudlet1, proposedVm);
+    }
+
+    /**
+     * Applies the last {@link #proposeNeighbor() proposed neighbor} to the current solution.
+     */
+    private void applyProposal() {
+        if (proposedCloudlet2 == CloudletToVmMappingIncrementalSolution.UNMAPPED) {
+            current.move(proposedCloudlet1, proposedVm);
+        } else {
+            current.swap(proposedCloudlet1, proposedCloudlet2);
+        }
+    }
+
+    /**
+     * Copies the current solution into the best one, if it's better.
+     */
+    private void updateBest() {
+        if (bestOutdated) {
+            best.copyFrom(current);
+            bestOutdated = false;
+        }
+    }
+
+    private boolean isAccepted(final double delta, final double temperature) {
+        return delta <= 0 || rand.nextDouble() < Math.exp(-delta / temperature);
+    }
+
+    /**
+     * Swaps the current solutions of two chains, as done by replica exchange.
+     * The best solution of each chain is kept.
+     * @param other the chain to swap the current solution with
+     */
+    void exchangeCurrent(final AnnealingChain other) {
+        this.updateBest();
+        other.updateBest();
+        final var solution = this.current;
+        this.current = other.current;
+        other.current = solution;
+    }
+
+    CloudletToVmMappingIncrementalSolution getCurrent() {
+        return current;
+    }
+
+    /**
+     * Gets the best solution found by the chain.
+     * The returned object is updated by later searches, so it must be copied to be kept.
+     * @return
+     */
+    CloudletToVmMappingIncrementalSolution getBest() {
+        updateBest();
+        return best;
+    }
+
+    /**
+     * Gets the cost of the best solution found by the chain, without copying it.
+     * @return
+     */
+    double getBestCost() {
+        return bestCost;
+    }
+}
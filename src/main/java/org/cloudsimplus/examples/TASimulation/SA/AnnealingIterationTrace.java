@@ -0,0 +1,43 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+/**
+ * The state of a {@link CloudletToVmMappingIncrementalSimulatedAnnealing} search
+ * at the end of one iteration, used to analyse how the search converges.
+ *
+ * @param iteration the iteration number (starting from 1)
+ * @param temperature the temperature the iteration ran at
+ * @param coolingRate the cooling rate applied after the iteration
+ * @param acceptanceRatio the ratio of evaluated neighbors that were accepted
+ * @param currentCost the cost of the current solution
+ * @param bestCost the cost of the best solution found so far
+ * @param evaluatedNeighbors the number of neighbors evaluated since the search started
+ * @since CloudSim Plus 8.5.0
+ */
+public record AnnealingIterationTrace(
+    int iteration, double temperature, double coolingRate, double acceptanceRatio,
+    double currentCost, double bestCost, long evaluatedNeighbors)
+{
+}
@@ -0,0 +1,550 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+import org.cloudsimplus.brokers.DatacenterBrokerHeuristic;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.distributions.ContinuousDistribution;
+import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSimulatedAnnealing;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+/**
+ * A {@link CloudletToVmMappingSimulatedAnnealing} that evaluates neighbor solutions
+ * incrementally using a {@link CloudletToVmMappingIncrementalSolution}.
+ *
+ * <p>The original heuristic copies the whole Cloudlet to VM map to create each neighbor
+ * and recomputes the cost of the entire mapping, taking O(n) time per neighborhood search
+ * for n Cloudlets. This one keeps a single current solution and scores each move or swap in O(1),
+ * changing the solution only when the neighbor is accepted.
+ * That allows many more {@link #getSearchesByIteration() neighborhood searches}
+ * in the same solve time for workloads with thousands of Cloudlets.</p>
+ *
+ * <p>It uses the same temperature, cooling rate and stop condition of the original heuristic,
+ * but neighbors are compared to the current solution (instead of the best one),
+ * as in the classic Metropolis criterion.
+ * The temperature is reset each time {@link #solve()} is called,
+ * so that the {@link DatacenterBrokerHeuristic} can map Cloudlets submitted later.
+ * It's accepted by {@link DatacenterBrokerHeuristic#setHeuristic(CloudletToVmMappingHeuristic)}.</p>
+ *
+ * <p>Solutions are scored by a {@link SpaceSharedCostModel}, which can be
+ * {@link #setCostModel(SpaceSharedCostModel) changed} to consider the Cloudlets already bound to VMs.</p>
+ *
+ * <p>The search can run in anytime mode, bounded by a {@link #setMaxSolveTime(double) solve time}
+ * and/or a {@link #setMaxEvaluations(long) number of evaluated neighbors}.
+ * When any budget is exhausted, the search stops before reaching the cold temperature
+ * and returns the best solution found so far.
+ * It can also be warm-started from a {@link #setWarmStart(Map) given mapping}
+ * or from the {@link #setWarmStartFromLastSolution(boolean) solution of the previous call},
+ * starting at a lower {@link #setWarmStartTemperature(double) temperature},
+ * so that re-planning a similar set of Cloudlets takes a fraction of the iterations.</p>
+ *
+ * <p>Instead of the fixed initial temperature and cooling rate,
+ * an {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling schedule} can be used.
+ * It calibrates the initial temperature to the scale of the cost function,
+ * cools or reheats the search to follow a target acceptance ratio that decreases along the search
+ * (and along the budget, when one is set) and stops when the search stagnates.
+ * The state of the search after each iteration can be {@link #setTraceEnabled(boolean) traced}
+ * for analysis.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class CloudletToVmMappingIncrementalSimulatedAnnealing extends CloudletToVmMappingSimulatedAnnealing {
+    private final double initialTemperature;
+    private final ContinuousDistribution random;
+    private SpaceSharedCostModel costModel;
+    private long evaluatedNeighbors;
+    private long searchStartNanos;
+
+    private double maxSolveTime;
+    private long maxEvaluations;
+    private Map<Cloudlet, Vm> warmStart;
+    private boolean warmStartFromLastSolution;
+    private double warmStartTemperature;
+    private boolean warmStarted;
+    private CloudletToVmMappingSolution lastSolution;
+
+    private AdaptiveCoolingSchedule adaptiveCooling;
+    private double adaptiveCoolingRate;
+    private boolean aboveTargetAcceptance;
+    private int nominalIterations;
+    private int iteration;
+    private int stagnantIterations;
+    private double lastBestCost;
+    private boolean traceEnabled;
+    private final List<AnnealingIterationTrace> iterationTraces;
+
+    /**
+     * Creates a Simulated Annealing heuristic with incremental neighbor evaluation.
+     *
+     * @param initialTemperature the system temperature when the search starts
+     * @param random a pseudo random number generator used to seed the chain generator
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing(final double initialTemperature, final ContinuousDistribution random) {
+        super(initialTemperature, random);
+        this.initialTemperature = initialTemperature;
+        this.random = Objects.requireNonNull(random);
+        this.costModel = new SpaceSharedCostModel();
+        this.warmStart = Map.of();
+        this.warmStartTemperature = initialTemperature;
+        this.iterationTraces = new ArrayList<>();
+    }
+
+    @Override
+    public CloudletToVmMappingSolution solve() {
+        startSearch();
+        final var initialSolution = createInitialSolution();
+        if(initialSolution.getCloudletsNumber() == 0 || initialSolution.getVmsNumber() == 0) {
+            return finishSearch(initialSolution);
+        }
+
+        final var chain = new AnnealingChain(initialSolution, createChainRandom());
+        calibrateTemperature(chain);
+        while (!isToStopSearch()) {
+            final int searches = getSearchesToRun(getSearchesByIteration());
+            final double temperature = getCurrentTemperature();
+            final int accepted = chain.search(searches, temperature);
+            addEvaluatedNeighbors(searches);
+            finishIteration(temperature, searches == 0 ? 0 : accepted / (double) searches, chain.getCurrent().getCost(), chain.getBestCost());
+        }
+
+        return finishSearch(chain.getBest());
+    }
+
+    /**
+     * {@inheritDoc}
+     * The search also stops when the {@link #setMaxSolveTime(double) solve time}
+     * or the {@link #setMaxEvaluations(long) number of evaluated neighbors} is exhausted,
+     * or when the {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling} detects stagnation
+     * or reaches the end of its schedule.
+     */
+    @Override
+    public boolean isToStopSearch() {
+        return super.isToStopSearch() || isBudgetExhausted() || isAdaptiveSearchFinished();
+    }
+
+    private boolean isAdaptiveSearchFinished() {
+        return adaptiveCooling != null &&
+               (stagnantIterations >= adaptiveCooling.getStagnationIterations() || getProgress() >= 1);
+    }
+
+    /**
+     * Gets how much of the search is done, which defines the target acceptance ratio of the
+     * {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling}.
+     * It's the used fraction of the solve time or evaluations budget, when one is set,
+     * or the fraction of the {@link AdaptiveCoolingSchedule#getNominalIterations(double, double, double) nominal iterations} otherwise.
+     * @return the search progress (between 0 and 1)
+     */
+    protected double getProgress() {
+        if(maxEvaluations == 0 && maxSolveTime == 0)
+            return Math.min(1, iteration / (double) nominalIterations);
+
+        final double evaluationsProgress = maxEvaluations == 0 ? 0 : evaluatedNeighbors / (double) maxEvaluations;
+        final double timeProgress = maxSolveTime == 0 ? 0 : getElapsedSeconds() / maxSolveTime;
+        return Math.min(1, Math.max(evaluationsProgress, timeProgress));
+    }
+
+    /**
+     * Sets the initial temperature from the mean cost increase of random neighbors of a chain's
+     * initial solution, if the {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling}
+     * is enabled and the search was not warm-started.
+     * Then, computes the number of iterations the adaptive search is expected to take when it has no budget.
+     * @param chain the chain to sample neighbors from
+     */
+    protected void calibrateTemperature(final AnnealingChain chain) {
+        if(adaptiveCooling == null)
+            return;
+
+        if(!warmStarted) {
+            final double meanUphillDelta = chain.getMeanUphillDelta(adaptiveCooling.getCalibrationSamples());
+            addEvaluatedNeighbors(adaptiveCooling.getCalibrationSamples());
+            if (meanUphillDelta > 0) {
+                setCurrentTemperature(adaptiveCooling.calibrateTemperature(meanUphillDelta));
+            }
+        }
+
+        nominalIterations = adaptiveCooling.getNominalIterations(getCurrentTemperature(), getColdTemperature(), getCoolingRate());
+    }
+
+    /**
+     * Updates the search state at the end of an iteration:
+     * tracks stagnation, cools down the system (or, if the cooling is adaptive,
+     * cools or reheats it according to the acceptance ratio) and records the iteration trace (if enabled).
+     *
+     * @param temperature the temperature the iteration ran at
+     * @param acceptanceRatio the ratio of evaluated neighbors that were accepted
+     * @param currentCost the cost of the current solution
+     * @param bestCost the cost of the best solution found so far
+     */
+    protected void finishIteration(final double temperature, final double acceptanceRatio, final double currentCost, final double bestCost) {
+        iteration++;
+        if(bestCost < lastBestCost) {
+            lastBestCost = bestCost;
+            stagnantIterations = 0;
+        } else stagnantIterations++;
+
+        if(adaptiveCooling == null) {
+            updateSystemState();
+        } else {
+            final boolean aboveTarget = acceptanceRatio > adaptiveCooling.getTargetAcceptanceRatio(getProgress());
+            adaptiveCoolingRate = adaptiveCooling.adjustCoolingRate(adaptiveCoolingRate, aboveTarget, aboveTargetAcceptance);
+            aboveTargetAcceptance = aboveTarget;
+            setCurrentTemperature(adaptiveCooling.nextTemperature(getCurrentTemperature(), adaptiveCoolingRate, aboveTarget));
+        }
+
+        if(traceEnabled) {
+            iterationTraces.add(new AnnealingIterationTrace(
+                iteration, temperature, getEffectiveCoolingRate(), acceptanceRatio,
+                currentCost, bestCost, evaluatedNeighbors));
+        }
+    }
+
+    /**
+     * Gets the cooling rate currently applied after each iteration,
+     * which is adjusted along the search when the
+     * {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling} is enabled.
+     * @return
+     */
+    protected double getEffectiveCoolingRate() {
+        return adaptiveCooling == null ? getCoolingRate() : adaptiveCoolingRate;
+    }
+
+    /**
+     * Checks if the solve time or the number of evaluations allowed for the current search is exhausted.
+     * @return
+     */
+    protected boolean isBudgetExhausted() {
+        return (maxEvaluations > 0 && evaluatedNeighbors >= maxEvaluations) || isSolveTimeExhausted();
+    }
+
+    /**
+     * Checks if the {@link #getMaxSolveTime() max solve time} is over.
+     * @return true if the solve time limit is enabled and reached, false otherwise
+     */
+    protected boolean isSolveTimeExhausted() {
+        return maxSolveTime > 0 && getElapsedSeconds() >= maxSolveTime;
+    }
+
+    /**
+     * Gets the number of neighborhood searches to run,
+     * so that the {@link #getMaxEvaluations() max evaluations} is not exceeded.
+     * @param searches the number of searches intended to run
+     * @return
+     */
+    protected int getSearchesToRun(final int searches) {
+        return maxEvaluations > 0 ? (int) Math.min(searches, maxEvaluations - evaluatedNeighbors) : searches;
+    }
+
+    /**
+     * Resets the temperature and the counters for a new search.
+     */
+    protected void startSearch() {
+        searchStartNanos = System.nanoTime();
+        evaluatedNeighbors = 0;
+        warmStarted = false;
+        iteration = 0;
+        stagnantIterations = 0;
+        lastBestCost = Double.MAX_VALUE;
+        iterationTraces.clear();
+        adaptiveCoolingRate = adaptiveCooling == null ? 0 : adaptiveCooling.clampCoolingRate(getCoolingRate());
+        aboveTargetAcceptance = true;
+        nominalIterations = 1;
+        setCurrentTemperature(initialTemperature);
+    }
+
+    /**
+     * Stores the best solution found by a search and the time spent on it.
+     * @param best the best solution found
+     * @return the best solution
+     */
+    protected CloudletToVmMappingSolution finishSearch(final CloudletToVmMappingSolution best) {
+        lastSolution = best;
+        setBestSolutionSoFar(best);
+        setSolveTime(getElapsedSeconds());
+        return best;
+    }
+
+    private double getElapsedSeconds() {
+        return (System.nanoTime() - searchStartNanos) / 1_000_000_000.0;
+    }
+
+    /**
+     * Creates the solution a search starts from.
+     * If a warm start is available, the Cloudlets in it are mapped accordingly
+     * and the temperature is set to the {@link #getWarmStartTemperature() warm start temperature}.
+     * The remaining Cloudlets are left unmapped, to be randomly mapped by the {@link AnnealingChain}.
+     * @return
+     */
+    protected CloudletToVmMappingIncrementalSolution createInitialSolution() {
+        final var solution = createEmptySolution();
+        final boolean fromLast = warmStartFromLastSolution && lastSolution != null;
+        if(warmStart.isEmpty() && !fromLast) {
+            return solution;
+        }
+
+        if(fromLast) {
+            lastSolution.getResult().forEach(solution::bindCloudletToVm);
+        }
+
+        warmStart.forEach(solution::bindCloudletToVm);
+        for (int i = 0; i < solution.getCloudletsNumber(); i++) {
+            if(solution.getVmIndex(i) != CloudletToVmMappingIncrementalSolution.UNMAPPED) {
+                warmStarted = true;
+                setCurrentTemperature(warmStartTemperature);
+                break;
+            }
+        }
+
+        return solution;
+    }
+
+    /**
+     * Creates a solution for the current Cloudlet and VM lists where no Cloudlet is mapped yet.
+     * @return
+     */
+    protected CloudletToVmMappingIncrementalSolution createEmptySolution() {
+        return new CloudletToVmMappingIncrementalSolution(this, getCloudletList(), getVmList(), costModel);
+    }
+
+    /**
+     * Creates a random number generator for a new {@link AnnealingChain},
+     * seeded from the generator given to the constructor.
+     * @return
+     */
+    protected SplittableRandom createChainRandom() {
+        return new SplittableRandom((long) (random.sample() * Long.MAX_VALUE));
+    }
+
+    /**
+     * Gets the pseudo random number generator given to the constructor.
+     * @return
+     */
+    protected ContinuousDistribution getRandom() {
+        return random;
+    }
+
+    /**
+     * Gets the system temperature when the search starts.
+     * @return
+     */
+    public double getInitialTemperature() {
+        return initialTemperature;
+    }
+
+    /**
+     * Gets the number of neighbor solutions evaluated in the last {@link #solve()} call.
+     * @return
+     */
+    public long getEvaluatedNeighbors() {
+        return evaluatedNeighbors;
+    }
+
+    /**
+     * Adds a number of neighbor solutions evaluated during the current {@link #solve()} call.
+     * @param neighbors the number of evaluated neighbors to add
+     */
+    protected void addEvaluatedNeighbors(final long neighbors) {
+        evaluatedNeighbors += neighbors;
+    }
+
+    /**
+     * Gets the model defining the cost of solutions.
+     * @return
+     */
+    public SpaceSharedCostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Sets the model defining the cost of solutions.
+     * @param costModel the cost model to set
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setCostModel(final SpaceSharedCostModel costModel) {
+        this.costModel = Objects.requireNonNull(costModel);
+        return this;
+    }
+
+    /**
+     * Gets the maximum time (in seconds) a {@link #solve()} call can take.
+     * @return the max solve time or 0 if there is no limit
+     */
+    public double getMaxSolveTime() {
+        return maxSolveTime;
+    }
+
+    /**
+     * Sets the maximum time (in seconds) a {@link #solve()} call can take.
+     * The time is checked between iterations, so the limit can be exceeded
+     * by the time of one iteration.
+     * @param maxSolveTime the max solve time to set or 0 to disable the limit
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setMaxSolveTime(final double maxSolveTime) {
+        if(maxSolveTime < 0)
+            throw new IllegalArgumentException("Max solve time cannot be negative.");
+        this.maxSolveTime = maxSolveTime;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of neighbor solutions a {@link #solve()} call can evaluate.
+     * @return the max evaluations or 0 if there is no limit
+     */
+    public long getMaxEvaluations() {
+        return maxEvaluations;
+    }
+
+    /**
+     * Sets the maximum number of neighbor solutions a {@link #solve()} call can evaluate.
+     * @param maxEvaluations the max evaluations to set or 0 to disable the limit
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setMaxEvaluations(final long maxEvaluations) {
+        if(maxEvaluations < 0)
+            throw new IllegalArgumentException("Max evaluations cannot be negative.");
+        this.maxEvaluations = maxEvaluations;
+        return this;
+    }
+
+    /**
+     * Gets the Cloudlet to VM mapping the search starts from.
+     * @return
+     */
+    public Map<Cloudlet, Vm> getWarmStart() {
+        return warmStart;
+    }
+
+    /**
+     * Sets a Cloudlet to VM mapping the search starts from,
+     * such as a round-robin mapping or the mapping of a previous timeslot.
+     * Cloudlets and VMs that are not in the lists being mapped are ignored.
+     * It takes precedence over the {@link #setWarmStartFromLastSolution(boolean) last solution}.
+     * @param warmStart the mapping to set (an empty map disables it)
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setWarmStart(final Map<Cloudlet, Vm> warmStart) {
+        this.warmStart = Map.copyOf(warmStart);
+        return this;
+    }
+
+    /**
+     * Checks if the search starts from the best solution of the previous {@link #solve()} call,
+     * for the Cloudlets that are still being mapped.
+     * @return
+     */
+    public boolean isWarmStartFromLastSolution() {
+        return warmStartFromLastSolution;
+    }
+
+    /**
+     * Defines if the search starts from the best solution of the previous {@link #solve()} call,
+     * for the Cloudlets that are still being mapped.
+     * @param warmStartFromLastSolution true to warm start from the last solution, false otherwise
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setWarmStartFromLastSolution(final boolean warmStartFromLastSolution) {
+        this.warmStartFromLastSolution = warmStartFromLastSolution;
+        return this;
+    }
+
+    /**
+     * Gets the temperature a warm-started search starts from.
+     * @return
+     */
+    public double getWarmStartTemperature() {
+        return warmStartTemperature;
+    }
+
+    /**
+     * Sets the temperature a warm-started search starts from.
+     * Since the initial solution is already good, it's usually
+     * a fraction of the {@link #getInitialTemperature() initial temperature}
+     * (which is the default value).
+     * @param warmStartTemperature the temperature to set
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setWarmStartTemperature(final double warmStartTemperature) {
+        if(warmStartTemperature <= 0)
+            throw new IllegalArgumentException("Warm start temperature must be greater than 0.");
+        this.warmStartTemperature = warmStartTemperature;
+        return this;
+    }
+
+    /**
+     * Gets the adaptive cooling schedule used instead of the fixed initial temperature and cooling rate.
+     * @return the adaptive cooling schedule or null if it's disabled
+     */
+    public AdaptiveCoolingSchedule getAdaptiveCooling() {
+        return adaptiveCooling;
+    }
+
+    /**
+     * Sets an adaptive cooling schedule to use instead of the fixed initial temperature and cooling rate.
+     * The {@link #getCoolingRate() cooling rate} is used just as the starting value for adjustments.
+     * @param adaptiveCooling the adaptive cooling schedule to set or null to disable it
+     * @return
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setAdaptiveCooling(final AdaptiveCoolingSchedule adaptiveCooling) {
+        this.adaptiveCooling = adaptiveCooling;
+        return this;
+    }
+
+    /**
+     * Checks if the state of the search after each iteration is recorded.
+     * @return
+     */
+    public boolean isTraceEnabled() {
+        return traceEnabled;
+    }
+
+    /**
+     * Defines if the state of the search after each iteration is recorded.
+     * It's disabled by default to avoid storing one object for each iteration.
+     * @param traceEnabled true to enable the traces, false to disable
+     * @return
+     * @see #getIterationTraces()
+     */
+    public CloudletToVmMappingIncrementalSimulatedAnnealing setTraceEnabled(final boolean traceEnabled) {
+        this.traceEnabled = traceEnabled;
+        return this;
+    }
+
+    /**
+     * Gets the state of the last {@link #solve()} call after each iteration,
+     * if {@link #setTraceEnabled(boolean) traces are enabled}.
+     * @return a read-only list of iteration traces
+     */
+    public List<AnnealingIterationTrace> getIterationTraces() {
+        return Collections.unmodifiableList(iterationTraces);
+    }
+}
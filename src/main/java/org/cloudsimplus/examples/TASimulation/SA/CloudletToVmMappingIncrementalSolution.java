@@ -0,0 +1,565 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CloudletToVmMappingSolution} that keeps, for each VM, the accumulated length (in MI),
+ * busy time and expected waiting time of the Cloudlets mapped to it,
+ * so that the cost of moving one Cloudlet or swapping two Cloudlets
+ * can be computed in constant time, without changing the solution.
+ * A move is only applied when it is accepted, by calling {@link #move(int, int)} or {@link #swap(int, int)}.
+ *
+ * <p>Cloudlets and VMs are referred by their index in the lists given to the constructor,
+ * which are shared (and never changed) by all copies of a solution.
+ * The {@link #getResult() Cloudlet to VM map} is only built when requested.</p>
+ *
+ * <p>The cost is defined by a {@link SpaceSharedCostModel}, which considers the backlog
+ * of Cloudlets already bound to each VM and the time the mapped Cloudlets wait in the VM queue.
+ * Besides sums over all VMs, it depends on the maximum and minimum VM busy times.
+ * To score a move in O(1), the solution keeps the 3 busiest and the 3 idlest VMs:
+ * since a move changes at most 2 VMs, the busiest and idlest of the other ones are among them.
+ * Applying a move that changes one of these VMs rescans all VMs.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class CloudletToVmMappingIncrementalSolution extends CloudletToVmMappingSolution {
+    /**
+     * Index used for a Cloudlet not mapped to any VM yet.
+     */
+    public static final int UNMAPPED = -1;
+
+    private static final int EXTREME_VMS = 3;
+
+    private Problem problem;
+
+    /** Index of the VM each Cloudlet is mapped to, or {@link #UNMAPPED}. */
+    private final int[] cloudletVm;
+    /** Accumulated length (in MI) of the Cloudlets mapped to each VM. */
+    private final double[] vmMi;
+    /** Number of Cloudlets mapped to each VM. */
+    private final int[] vmCloudlets;
+    /** Busy time of each VM, including its backlog. */
+    private final double[] vmBusyTime;
+    /** Expected waiting time of the Cloudlets mapped to each VM. */
+    private final double[] vmWaitTime;
+    /** Indexes of the busiest VMs, sorted by decreasing busy time. */
+    private final int[] busiestVms;
+    /** Indexes of the idlest VMs, sorted by increasing busy time. */
+    private final int[] idlestVms;
+
+    private double sumBusyTime;
+    private double sumCompletionTime;
+    private double cost;
+    private Map<Cloudlet, Vm> result;
+
+    /**
+     * Creates a solution where no Cloudlet is mapped to a VM yet.
+     *
+     * @param heuristic the heuristic that is finding the solution
+     * @param cloudlets the Cloudlets to map, which must not change while the solution is used
+     * @param vms the VMs available to run the Cloudlets, which must not change while the solution is used
+     * @param costModel the model defining the solution cost
+     */
+    public CloudletToVmMappingIncrementalSolution(
+        final CloudletToVmMappingHeuristic heuristic,
+        final List<Cloudlet> cloudlets,
+        final List<Vm> vms,
+        final SpaceSharedCostModel costModel)
+    {
+        super(heuristic);
+        this.problem = new Problem(cloudlets, vms, costModel);
+        this.cloudletVm = new int[cloudlets.size()];
+        Arrays.fill(cloudletVm, UNMAPPED);
+        this.vmMi = new double[vms.size()];
+        this.vmCloudlets = new int[vms.size()];
+        this.vmBusyTime = new double[vms.size()];
+        this.vmWaitTime = new double[vms.size()];
+        this.busiestVms = new int[Math.min(EXTREME_VMS, vms.size())];
+        this.idlestVms = new int[busiestVms.length];
+        for (int vm = 0; vm < vmBusyTime.length; vm++) {
+            vmBusyTime[vm] = busyTime(vm, 0);
+            sumBusyTime += vmBusyTime[vm];
+        }
+
+        findExtremeVms();
+        this.cost = computeCost(busiestVmTime(), idlestVmTime(), sumBusyTime, sumCompletionTime);
+    }
+
+    /**
+     * Creates a copy of a given solution.
+     * Changes in the copy don't affect the source solution.
+     *
+     * @param source the solution to copy
+     */
+    public CloudletToVmMappingIncrementalSolution(final CloudletToVmMappingIncrementalSolution source) {
+        super(source);
+        this.problem = source.problem;
+        this.cloudletVm = source.cloudletVm.clone();
+        this.vmMi = source.vmMi.clone();
+        this.vmCloudlets = source.vmCloudlets.clone();
+        this.vmBusyTime = source.vmBusyTime.clone();
+        this.vmWaitTime = source.vmWaitTime.clone();
+        this.busiestVms = source.busiestVms.clone();
+        this.idlestVms = source.idlestVms.clone();
+        this.sumBusyTime = source.sumBusyTime;
+        this.sumCompletionTime = source.sumCompletionTime;
+        this.cost = source.cost;
+        this.result = source.result;
+    }
+
+    /**
+     * Copies the mapping of another solution for the same Cloudlets and VMs
+     * (such as the solution of another Parallel Tempering replica),
+     * reusing the arrays of this solution instead of creating a new one.
+     *
+     * @param source the solution to copy
+     * @throws IllegalArgumentException when the source solution maps a different number of Cloudlets or VMs
+     */
+    void copyFrom(final CloudletToVmMappingIncrementalSolution source) {
+        if(source.cloudletVm.length != cloudletVm.length || source.vmMi.length != vmMi.length)
+            throw new IllegalArgumentException("The source solution maps a different number of Cloudlets or VMs");
+
+        this.problem = source.problem;
+        System.arraycopy(source.cloudletVm, 0, cloudletVm, 0, cloudletVm.length);
+        System.arraycopy(source.vmMi, 0, vmMi, 0, vmMi.length);
+        System.arraycopy(source.vmCloudlets, 0, vmCloudlets, 0, vmCloudlets.length);
+        System.arraycopy(source.vmBusyTime, 0, vmBusyTime, 0, vmBusyTime.length);
+        System.arraycopy(source.vmWaitTime, 0, vmWaitTime, 0, vmWaitTime.length);
+        System.arraycopy(source.busiestVms, 0, busiestVms, 0, busiestVms.length);
+        System.arraycopy(source.idlestVms, 0, idlestVms, 0, idlestVms.length);
+        this.sumBusyTime = source.sumBusyTime;
+        this.sumCompletionTime = source.sumCompletionTime;
+        this.cost = source.cost;
+        this.result = source.result;
+    }
+
+    /**
+     * Recomputes the cost from the Cloudlet to VM mapping alone, in O(n + V) time,
+     * without the values {@link #move(int, int) moves} and {@link #swap(int, int) swaps} update incrementally.
+     * It's used to check that the incremental cost didn't drift from the actual one.
+     *
+     * @return the cost of the current mapping
+     */
+    public double recomputeCost() {
+        final var mi = new double[vmMi.length];
+        final var cloudlets = new int[vmMi.length];
+        for (int i = 0; i < cloudletVm.length; i++) {
+            if(cloudletVm[i] != UNMAPPED) {
+                mi[cloudletVm[i]] += problem.lengths[i];
+                cloudlets[cloudletVm[i]]++;
+            }
+        }
+
+        double maxBusy = 0;
+        double minBusy = mi.length == 0 ? 0 : Double.MAX_VALUE;
+        double sumBusy = 0;
+        double sumCompletion = 0;
+        for (int vm = 0; vm < mi.length; vm++) {
+            final double busy = busyTime(vm, mi[vm]);
+            maxBusy = Math.max(maxBusy, busy);
+            minBusy = Math.min(minBusy, busy);
+            sumBusy += busy;
+            sumCompletion += completionTime(vm, mi[vm], cloudlets[vm]);
+        }
+
+        return computeCost(maxBusy, minBusy, sumBusy, sumCompletion);
+    }
+
+    /**
+     * Checks if the incrementally updated cost matches the {@link #recomputeCost() recomputed} one,
+     * up to the rounding errors accumulated by the updates.
+     * @return
+     */
+    public boolean isCostConsistent() {
+        final double recomputed = recomputeCost();
+        return Math.abs(cost - recomputed) <= 1e-9 * Math.max(1, Math.abs(recomputed));
+    }
+
+    /**
+     * Gets the number of Cloudlets to map.
+     * @return
+     */
+    public int getCloudletsNumber() {
+        return cloudletVm.length;
+    }
+
+    /**
+     * Gets the number of VMs available to run the Cloudlets.
+     * @return
+     */
+    public int getVmsNumber() {
+        return vmMi.length;
+    }
+
+    /**
+     * Gets the index of the VM a Cloudlet is mapped to.
+     * @param cloudlet the Cloudlet index
+     * @return the VM index or {@link #UNMAPPED}
+     */
+    public int getVmIndex(final int cloudlet) {
+        return cloudletVm[cloudlet];
+    }
+
+    /**
+     * Gets the accumulated length (in MI) of the Cloudlets mapped to a VM.
+     * @param vm the VM index
+     * @return
+     */
+    public double getVmMi(final int vm) {
+        return vmMi[vm];
+    }
+
+    /**
+     * Gets the time a VM is expected to be busy running its backlog and the Cloudlets mapped to it.
+     * @param vm the VM index
+     * @return
+     */
+    public double getVmBusyTime(final int vm) {
+        return vmBusyTime[vm];
+    }
+
+    /**
+     * Gets the expected waiting time of all Cloudlets mapped to a VM.
+     * @param vm the VM index
+     * @return
+     */
+    public double getVmWaitTime(final int vm) {
+        return vmWaitTime[vm];
+    }
+
+    /**
+     * Gets the expected maximum busy time among all VMs.
+     * @return
+     */
+    public double getMakespan() {
+        return busiestVmTime();
+    }
+
+    /**
+     * Computes how much the cost changes if a Cloudlet is moved to a given VM,
+     * without moving it.
+     *
+     * @param cloudlet the index of the Cloudlet to move
+     * @param vm the index of the destination VM
+     * @return the cost difference (negative values mean the solution improves)
+     */
+    public double getMoveDelta(final int cloudlet, final int vm) {
+        final int source = cloudletVm[cloudlet];
+        if(source == vm)
+            return 0;
+
+        final double length = problem.lengths[cloudlet];
+        return costWith(vm, vmMi[vm] + length, vmCloudlets[vm] + 1, source, source == UNMAPPED ? 0 : vmMi[source] - length, source == UNMAPPED ? 0 : vmCloudlets[source] - 1) - cost;
+    }
+
+    /**
+     * Computes how much the cost changes if the VMs of two Cloudlets are swapped,
+     * without swapping them.
+     *
+     * @param cloudlet1 the index of the first Cloudlet
+     * @param cloudlet2 the index of the second Cloudlet
+     * @return the cost difference (negative values mean the solution improves)
+     */
+    public double getSwapDelta(final int cloudlet1, final int cloudlet2) {
+        final int vm1 = cloudletVm[cloudlet1];
+        final int vm2 = cloudletVm[cloudlet2];
+        if(vm1 == vm2 || vm1 == UNMAPPED || vm2 == UNMAPPED)
+            return 0;
+
+        final double diff = problem.lengths[cloudlet2] - problem.lengths[cloudlet1];
+        return costWith(vm1, vmMi[vm1] + diff, vmCloudlets[vm1], vm2, vmMi[vm2] - diff, vmCloudlets[vm2]) - cost;
+    }
+
+    /**
+     * Moves a Cloudlet to a given VM, updating the cost.
+     *
+     * @param cloudlet the index of the Cloudlet to move
+     * @param vm the index of the destination VM
+     */
+    public void move(final int cloudlet, final int vm) {
+        final int source = cloudletVm[cloudlet];
+        if(source == vm)
+            return;
+
+        final double length = problem.lengths[cloudlet];
+        if(source != UNMAPPED) {
+            updateVm(source, vmMi[source] - length, vmCloudlets[source] - 1);
+        }
+
+        updateVm(vm, vmMi[vm] + length, vmCloudlets[vm] + 1);
+        cloudletVm[cloudlet] = vm;
+        updateExtremeVms(vm, source);
+    }
+
+    /**
+     * Swaps the VMs of two Cloudlets, updating the cost.
+     *
+     * @param cloudlet1 the index of the first Cloudlet
+     * @param cloudlet2 the index of the second Cloudlet
+     */
+    public void swap(final int cloudlet1, final int cloudlet2) {
+        final int vm1 = cloudletVm[cloudlet1];
+        final int vm2 = cloudletVm[cloudlet2];
+        if(vm1 == vm2 || vm1 == UNMAPPED || vm2 == UNMAPPED)
+            return;
+
+        final double diff = problem.lengths[cloudlet2] - problem.lengths[cloudlet1];
+        updateVm(vm1, vmMi[vm1] + diff, vmCloudlets[vm1]);
+        updateVm(vm2, vmMi[vm2] - diff, vmCloudlets[vm2]);
+        cloudletVm[cloudlet1] = vm2;
+        cloudletVm[cloudlet2] = vm1;
+        updateExtremeVms(vm1, vm2);
+    }
+
+    /**
+     * Computes the cost the solution would have if up to two VMs had different Cloudlets.
+     * @param vm1 the index of the first changed VM
+     * @param mi1 the new accumulated length of the first VM
+     * @param cloudlets1 the new number of Cloudlets of the first VM
+     * @param vm2 the index of the second changed VM or {@link #UNMAPPED} if only one VM changes
+     * @param mi2 the new accumulated length of the second VM
+     * @param cloudlets2 the new number of Cloudlets of the second VM
+     * @return the cost of the changed solution
+     */
+    private double costWith(
+        final int vm1, final double mi1, final int cloudlets1,
+        final int vm2, final double mi2, final int cloudlets2)
+    {
+        final double busy1 = busyTime(vm1, mi1);
+        double sumBusy = sumBusyTime - vmBusyTime[vm1] + busy1;
+        double sumCompletion = sumCompletionTime - completionTime(vm1, vmMi[vm1], vmCloudlets[vm1]) + completionTime(vm1, mi1, cloudlets1);
+        double maxBusy = Math.max(busy1, busiestVmTimeExcluding(vm1, vm2));
+        double minBusy = Math.min(busy1, idlestVmTimeExcluding(vm1, vm2));
+        if(vm2 != UNMAPPED) {
+            final double busy2 = busyTime(vm2, mi2);
+            sumBusy += busy2 - vmBusyTime[vm2];
+            sumCompletion += completionTime(vm2, mi2, cloudlets2) - completionTime(vm2, vmMi[vm2], vmCloudlets[vm2]);
+            maxBusy = Math.max(maxBusy, busy2);
+            minBusy = Math.min(minBusy, busy2);
+        }
+
+        return computeCost(maxBusy, minBusy, sumBusy, sumCompletion);
+    }
+
+    private double computeCost(final double maxBusy, final double minBusy, final double sumBusy, final double sumCompletion) {
+        return problem.costModel.computeCost(maxBusy, minBusy, sumBusy, sumCompletion, vmMi.length, cloudletVm.length);
+    }
+
+    private void updateVm(final int vm, final double mi, final int cloudlets) {
+        final double busy = busyTime(vm, mi);
+        sumBusyTime += busy - vmBusyTime[vm];
+        sumCompletionTime += completionTime(vm, mi, cloudlets) - completionTime(vm, vmMi[vm], vmCloudlets[vm]);
+        vmMi[vm] = mi;
+        vmCloudlets[vm] = cloudlets;
+        vmBusyTime[vm] = busy;
+        vmWaitTime[vm] = cloudlets == 0 ? 0 : cloudlets * problem.readyDelays[vm] + (cloudlets - 1) / 2.0 * mi / problem.capacities[vm];
+        result = null;
+    }
+
+    private double busyTime(final int vm, final double mi) {
+        return (problem.backlogMi[vm] + mi) / problem.capacities[vm];
+    }
+
+    /**
+     * Computes the expected total completion time (since the release time)
+     * of the Cloudlets mapped to a VM.
+     */
+    private double completionTime(final int vm, final double mi, final int cloudlets) {
+        return cloudlets == 0 ? 0 : cloudlets * problem.readyDelays[vm] + (cloudlets + 1) / 2.0 * mi / problem.capacities[vm];
+    }
+
+    private void updateExtremeVms(final int vm1, final int vm2) {
+        final int lastBusiest = busiestVms[busiestVms.length - 1];
+        final int lastIdlest = idlestVms[idlestVms.length - 1];
+        if(isExtreme(vm1) || isExtreme(vm2) ||
+           vmBusyTime[vm1] > vmBusyTime[lastBusiest] || vmBusyTime[vm1] < vmBusyTime[lastIdlest] ||
+           (vm2 != UNMAPPED && (vmBusyTime[vm2] > vmBusyTime[lastBusiest] || vmBusyTime[vm2] < vmBusyTime[lastIdlest])))
+        {
+            findExtremeVms();
+        }
+
+        cost = computeCost(busiestVmTime(), idlestVmTime(), sumBusyTime, sumCompletionTime);
+    }
+
+    private boolean isExtreme(final int vm) {
+        for (int i = 0; i < busiestVms.length; i++) {
+            if(busiestVms[i] == vm || idlestVms[i] == vm)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Rescans all VMs to find the busiest and the idlest ones.
+     */
+    private void findExtremeVms() {
+        Arrays.fill(busiestVms, UNMAPPED);
+        Arrays.fill(idlestVms, UNMAPPED);
+        for (int vm = 0; vm < vmBusyTime.length; vm++) {
+            insertExtremeVm(busiestVms, vm, 1);
+            insertExtremeVm(idlestVms, vm, -1);
+        }
+    }
+
+    /**
+     * Inserts a VM into a list of extreme VMs, if it's more extreme than the last one.
+     * @param extremeVms the busiest or idlest VMs
+     * @param vm the index of the VM to insert
+     * @param direction 1 to insert into the busiest VMs or -1 to insert into the idlest ones
+     */
+    private void insertExtremeVm(final int[] extremeVms, final int vm, final int direction) {
+        int pos = extremeVms.length;
+        while (pos > 0 && (extremeVms[pos - 1] == UNMAPPED || direction * (vmBusyTime[vm] - vmBusyTime[extremeVms[pos - 1]]) > 0)) {
+            pos--;
+        }
+
+        if(pos < extremeVms.length) {
+            System.arraycopy(extremeVms, pos, extremeVms, pos + 1, extremeVms.length - pos - 1);
+            extremeVms[pos] = vm;
+        }
+    }
+
+    private double busiestVmTime() {
+        return busiestVms.length == 0 ? 0 : vmBusyTime[busiestVms[0]];
+    }
+
+    private double idlestVmTime() {
+        return idlestVms.length == 0 ? 0 : vmBusyTime[idlestVms[0]];
+    }
+
+    private double busiestVmTimeExcluding(final int vm1, final int vm2) {
+        for (final int busiest : busiestVms) {
+            if(busiest != vm1 && busiest != vm2)
+                return vmBusyTime[busiest];
+        }
+
+        return 0;
+    }
+
+    /**
+     * Gets the busy time of the idlest VM, other than the given ones.
+     * @return the busy time or {@link Double#MAX_VALUE} if there is no other VM
+     */
+    private double idlestVmTimeExcluding(final int vm1, final int vm2) {
+        for (final int idlest : idlestVms) {
+            if(idlest != vm1 && idlest != vm2)
+                return vmBusyTime[idlest];
+        }
+
+        return Double.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Maps the Cloudlet to the VM using {@link #move(int, int)}.
+     * Cloudlets and VMs not given to the constructor are ignored.
+     */
+    @Override
+    public void bindCloudletToVm(final Cloudlet cloudlet, final Vm vm) {
+        final Integer cloudletIndex = problem.cloudletIndexes.get(cloudlet);
+        final Integer vmIndex = problem.vmIndexes.get(vm);
+        if(cloudletIndex != null && vmIndex != null) {
+            move(cloudletIndex, vmIndex);
+        }
+    }
+
+    @Override
+    public double getCost() {
+        return cost;
+    }
+
+    @Override
+    public Map<Cloudlet, Vm> getResult() {
+        if(result == null) {
+            final var map = new HashMap<Cloudlet, Vm>(cloudletVm.length * 4 / 3 + 1);
+            for (int i = 0; i < cloudletVm.length; i++) {
+                if(cloudletVm[i] != UNMAPPED) {
+                    map.put(problem.cloudlets.get(i), problem.vms.get(cloudletVm[i]));
+                }
+            }
+
+            result = Collections.unmodifiableMap(map);
+        }
+
+        return result;
+    }
+
+    /**
+     * The Cloudlets and VMs being mapped and their attributes,
+     * shared by all copies of a solution.
+     */
+    private static final class Problem {
+        private final List<Cloudlet> cloudlets;
+        private final List<Vm> vms;
+        private final SpaceSharedCostModel costModel;
+        private final double[] lengths;
+        private final double[] capacities;
+        private final double[] backlogMi;
+        /** Time each VM takes to finish its backlog after the Cloudlets being mapped are released. */
+        private final double[] readyDelays;
+        private final Map<Cloudlet, Integer> cloudletIndexes;
+        private final Map<Vm, Integer> vmIndexes;
+
+        private Problem(final List<Cloudlet> cloudlets, final List<Vm> vms, final SpaceSharedCostModel costModel) {
+            this.cloudlets = List.copyOf(cloudlets);
+            this.vms = List.copyOf(vms);
+            this.costModel = costModel;
+            this.lengths = new double[cloudlets.size()];
+            this.capacities = new double[vms.size()];
+            this.backlogMi = new double[vms.size()];
+            this.readyDelays = new double[vms.size()];
+            this.cloudletIndexes = new IdentityHashMap<>(cloudlets.size());
+            this.vmIndexes = new IdentityHashMap<>(vms.size());
+
+            double releaseTime = Double.MAX_VALUE;
+            for (int i = 0; i < lengths.length; i++) {
+                final var cloudlet = this.cloudlets.get(i);
+                lengths[i] = cloudlet.getLength();
+                releaseTime = Math.min(releaseTime, cloudlet.getSubmissionDelay());
+                cloudletIndexes.put(cloudlet, i);
+            }
+
+            for (int i = 0; i < capacities.length; i++) {
+                final var vm = this.vms.get(i);
+                capacities[i] = vm.getMips() * vm.getPesNumber();
+                backlogMi[i] = costModel.getBacklogMi(vm);
+                readyDelays[i] = lengths.length == 0 ? 0 : Math.max(0, costModel.getBacklogFinishTime(vm, capacities[i]) - releaseTime);
+                vmIndexes.put(vm, i);
+            }
+        }
+    }
+}
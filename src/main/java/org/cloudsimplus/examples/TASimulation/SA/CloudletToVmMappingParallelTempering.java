@@ -0,0 +1,391 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+import org.cloudsimplus.brokers.DatacenterBrokerHeuristic;
+import org.cloudsimplus.distributions.ContinuousDistribution;
+import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSimulatedAnnealing;
+import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A {@link CloudletToVmMappingHeuristic} that runs several
+ * <a href="https://en.wikipedia.org/wiki/Parallel_tempering">Parallel Tempering</a>
+ * replicas of the Simulated Annealing search, each one at a different temperature,
+ * on a {@link ForkJoinPool}.
+ *
+ * <p>The replicas form a geometric temperature ladder whose hottest rung is the
+ * {@link #getCurrentTemperature() current temperature} and whose coldest rung is
+ * {@link #getTemperatureRatio() temperature ratio} times colder.
+ * Every {@link #getExchangeInterval() exchange interval} iterations, adjacent replicas
+ * try to swap their solutions using the replica-exchange acceptance rule,
+ * so that good solutions found by hot replicas are refined by the cold ones.
+ * The whole ladder cools down with the {@link #getCoolingRate() cooling rate}
+ * and the search stops when the hottest replica reaches the {@link #getColdTemperature() cold temperature},
+ * the same stop condition of the single-chain {@link CloudletToVmMappingSimulatedAnnealing}.</p>
+ *
+ * <p>Each replica is an {@link AnnealingChain} that evaluates neighbors incrementally
+ * using a {@link CloudletToVmMappingIncrementalSolution}.
+ * Since each replica performs its own {@link #getSearchesByIteration() neighborhood searches}
+ * in parallel, the number of evaluated solutions grows with the number of available cores,
+ * while the wall-clock time stays close to the one of a single chain.
+ * The best solution found by any replica is returned.</p>
+ *
+ * <p>The {@link #setMaxEvaluations(long) evaluations} budget is split among the replicas,
+ * so that the last round between replica exchanges runs only the remaining evaluations.
+ * The {@link #setMaxSolveTime(double) solve time} budget is checked by each replica between its iterations.
+ * All replicas start from the same warm start, when one is set.
+ * With an {@link #setAdaptiveCooling(AdaptiveCoolingSchedule) adaptive cooling}, the hottest temperature
+ * is calibrated on the first replica and then cooled or reheated according to the acceptance ratio of all replicas.
+ * The replicas record the neighbors they evaluate and accept and their costs in each iteration,
+ * so that every iteration is {@link #finishIteration(double, double, double, double) finished} (and traced) with its own values
+ * after the replica exchange. The replicas run at the temperature reached at the last exchange.</p>
+ *
+ * <p>It is a drop-in replacement for {@link CloudletToVmMappingSimulatedAnnealing},
+ * accepted by {@link DatacenterBrokerHeuristic#setHeuristic(CloudletToVmMappingHeuristic)}.
+ * Each replica uses its own random number generator, seeded from the
+ * {@link ContinuousDistribution} given to the constructor,
+ * so that replicas don't contend on a shared generator.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class CloudletToVmMappingParallelTempering extends CloudletToVmMappingIncrementalSimulatedAnnealing {
+    /**
+     * Default number of replicas, one for each available processor.
+     */
+    public static final int DEFAULT_REPLICAS = Runtime.getRuntime().availableProcessors();
+
+    private int replicas;
+    private double temperatureRatio;
+    private int exchangeInterval;
+    private ForkJoinPool pool;
+
+    private long acceptedExchanges;
+    private long attemptedExchanges;
+
+    /**
+     * Creates a Parallel Tempering heuristic with {@link #DEFAULT_REPLICAS} replicas.
+     *
+     * @param initialTemperature the temperature of the hottest replica when the search starts
+     * @param random a pseudo random number generator used to seed the generator of each replica
+     *               and to decide replica exchanges
+     */
+    public CloudletToVmMappingParallelTempering(final double initialTemperature, final ContinuousDistribution random) {
+        super(initialTemperature, random);
+        this.replicas = Math.max(2, DEFAULT_REPLICAS);
+        this.temperatureRatio = 100;
+        this.exchangeInterval = 1;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public CloudletToVmMappingSolution solve() {
+        startSearch();
+        acceptedExchanges = 0;
+        attemptedExchanges = 0;
+
+        if(getCloudletList().isEmpty() || getVmList().isEmpty()) {
+            return finishSearch(createEmptySolution());
+        }
+
+        final var replicaList = createReplicas();
+        calibrateTemperature(replicaList.get(0).chain);
+        while (!isToStopSearch()) {
+            final double temperature = getCurrentTemperature();
+            final double coolingRate = getEffectiveCoolingRate();
+            final int searches = getSearchesToRun(Math.toIntExact((long) replicas * exchangeInterval * getSearchesByIteration()));
+            runReplicas(replicaList, temperature, coolingRate, searches);
+            exchangeReplicas(replicaList);
+            finishIterations(replicaList, temperature, coolingRate);
+        }
+
+        final var bestReplica = replicaList.stream().min(Comparator.comparingDouble(replica -> replica.chain.getBestCost())).orElseThrow();
+        return finishSearch(bestReplica.getBest());
+    }
+
+    private List<Replica> createReplicas() {
+        final var replicaList = new ArrayList<Replica>(replicas);
+        for (int i = 0; i < replicas; i++) {
+            final double ladderFactor = Math.pow(temperatureRatio, -i / (double) (replicas - 1));
+            replicaList.add(new Replica(ladderFactor, new AnnealingChain(createInitialSolution(), createChainRandom())));
+        }
+
+        return replicaList;
+    }
+
+    /**
+     * Runs {@link #getExchangeInterval()} iterations of every replica in parallel,
+     * waiting for all of them to finish.
+     * @param temperature the temperature of the hottest replica when the iterations start
+     * @param coolingRate the cooling rate to apply after each iteration
+     * @param searches the number of neighbors to evaluate, split evenly among the replicas
+     */
+    private void runReplicas(final List<Replica> replicaList, final double temperature, final double coolingRate, final int searches) {
+        final var tasks = new ArrayList<Callable<Void>>(replicaList.size());
+        for (int i = 0; i < replicaList.size(); i++) {
+            final var replica = replicaList.get(i);
+            final int replicaSearches = searches / replicaList.size() + (i < searches % replicaList.size() ? 1 : 0);
+            tasks.add(() -> replica.anneal(temperature, coolingRate, replicaSearches));
+        }
+
+        for (final var future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Parallel Tempering search interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Error running a Parallel Tempering replica", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Finishes each iteration the replicas ran since the last exchange, with the ratio of neighbors
+     * accepted by all replicas in that iteration, the current cost of the coldest replica and the best cost of all replicas
+     * at the end of that iteration. The last iteration takes the current cost of the coldest replica after the exchange.
+     * @param temperature the temperature of the hottest replica when the iterations started
+     * @param coolingRate the cooling rate the replicas applied after each iteration
+     */
+    private void finishIterations(final List<Replica> replicaList, final double temperature, final double coolingRate) {
+        final var coldest = replicaList.get(replicaList.size() - 1);
+        final int iterations = replicaList.stream().mapToInt(replica -> replica.iterations).max().orElse(0);
+        double iterationTemperature = temperature;
+        for (int i = 0; i < iterations; i++) {
+            long evaluated = 0;
+            long accepted = 0;
+            double bestCost = Double.MAX_VALUE;
+            for (final var replica : replicaList) {
+                if(i < replica.iterations) {
+                    evaluated += replica.iterationSearches[i];
+                    accepted += replica.iterationAccepted[i];
+                }
+
+                bestCost = Math.min(bestCost, replica.getBestCost(i));
+            }
+
+            addEvaluatedNeighbors(evaluated);
+            final double currentCost = i == iterations - 1 ? coldest.chain.getCurrent().getCost() : coldest.getCurrentCost(i);
+            finishIteration(iterationTemperature, evaluated == 0 ? 0 : accepted / (double) evaluated, currentCost, bestCost);
+            iterationTemperature *= 1 - coolingRate;
+        }
+    }
+
+    /**
+     * Tries to swap the solutions of adjacent replicas in the temperature ladder,
+     * accepting the swap with probability {@code min(1, exp((E_i - E_j) * (1/T_i - 1/T_j)))}.
+     */
+    private void exchangeReplicas(final List<Replica> replicaList) {
+        final double temperature = getCurrentTemperature();
+        for (int i = 0; i < replicaList.size() - 1; i++) {
+            final var hotter = replicaList.get(i);
+            final var colder = replicaList.get(i + 1);
+            final double hotterTemp = hotter.temperature(temperature);
+            final double colderTemp = colder.temperature(temperature);
+            final double delta = (colder.chain.getCurrent().getCost() - hotter.chain.getCurrent().getCost()) * (1/colderTemp - 1/hotterTemp);
+            attemptedExchanges++;
+            if (delta >= 0 || getRandom().sample() < Math.exp(delta)) {
+                hotter.chain.exchangeCurrent(colder.chain);
+                acceptedExchanges++;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of replicas running in parallel.
+     * @return
+     */
+    public int getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Sets the number of replicas running in parallel.
+     * @param replicas the number of replicas to set (at least 2)
+     * @return
+     */
+    public CloudletToVmMappingParallelTempering setReplicas(final int replicas) {
+        if(replicas < 2)
+            throw new IllegalArgumentException("At least 2 replicas are required for Parallel Tempering.");
+        this.replicas = replicas;
+        return this;
+    }
+
+    /**
+     * Gets the ratio between the temperatures of the hottest and the coldest replicas.
+     * @return
+     */
+    public double getTemperatureRatio() {
+        return temperatureRatio;
+    }
+
+    /**
+     * Sets the ratio between the temperatures of the hottest and the coldest replicas.
+     * @param temperatureRatio the ratio to set (greater than 1)
+     * @return
+     */
+    public CloudletToVmMappingParallelTempering setTemperatureRatio(final double temperatureRatio) {
+        if(temperatureRatio <= 1)
+            throw new IllegalArgumentException("Temperature ratio must be greater than 1.");
+        this.temperatureRatio = temperatureRatio;
+        return this;
+    }
+
+    /**
+     * Gets the number of iterations each replica runs between two replica exchanges.
+     * @return
+     */
+    public int getExchangeInterval() {
+        return exchangeInterval;
+    }
+
+    /**
+     * Sets the number of iterations each replica runs between two replica exchanges.
+     * Greater values reduce synchronization between replicas.
+     * @param exchangeInterval the number of iterations to set
+     * @return
+     */
+    public CloudletToVmMappingParallelTempering setExchangeInterval(final int exchangeInterval) {
+        if(exchangeInterval <= 0)
+            throw new IllegalArgumentException("Exchange interval must be greater than 0.");
+        this.exchangeInterval = exchangeInterval;
+        return this;
+    }
+
+    /**
+     * Gets the pool where replicas are run.
+     * @return
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the pool where replicas are run.
+     * The {@link ForkJoinPool#commonPool() common pool} is used by default.
+     * @param pool the pool to set
+     * @return
+     */
+    public CloudletToVmMappingParallelTempering setPool(final ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+        return this;
+    }
+
+    /**
+     * Gets the percentage of accepted replica exchanges in the last {@link #solve()} call.
+     * @return the exchange acceptance ratio (between 0 and 1)
+     */
+    public double getExchangeAcceptanceRatio() {
+        return attemptedExchanges == 0 ? 0 : acceptedExchanges / (double) attemptedExchanges;
+    }
+
+    /**
+     * An {@link AnnealingChain} running at a fixed position of the temperature ladder.
+     */
+    private final class Replica {
+        private final double ladderFactor;
+        private final AnnealingChain chain;
+
+        /** The number of iterations run in the last {@link #anneal(double, double, int)} call. */
+        private int iterations;
+
+        /** The neighbors evaluated and accepted and the costs at the end of each iteration of the last anneal call. */
+        private final int[] iterationSearches;
+        private final int[] iterationAccepted;
+        private final double[] iterationCurrentCost;
+        private final double[] iterationBestCost;
+
+        private Replica(final double ladderFactor, final AnnealingChain chain) {
+            this.ladderFactor = ladderFactor;
+            this.chain = chain;
+            this.iterationSearches = new int[exchangeInterval];
+            this.iterationAccepted = new int[exchangeInterval];
+            this.iterationCurrentCost = new double[exchangeInterval];
+            this.iterationBestCost = new double[exchangeInterval];
+        }
+
+        private double temperature(final double hottestTemperature) {
+            return hottestTemperature * ladderFactor;
+        }
+
+        /**
+         * Runs up to {@link #getExchangeInterval()} iterations of the chain,
+         * cooling the replica temperature after each one.
+         * It stops earlier when the replica runs out of searches or the solve time is over.
+         * @param hottestTemperature the temperature of the hottest replica when the iterations start
+         * @param coolingRate the cooling rate to apply after each iteration
+         * @param maxSearches the maximum number of neighbors to evaluate
+         * @return null, so that the replica can be run as a {@link Callable}
+         */
+        private Void anneal(final double hottestTemperature, final double coolingRate, final int maxSearches) {
+            double temperature = temperature(hottestTemperature);
+            int searches = 0;
+            iterations = 0;
+            while (iterations < exchangeInterval && searches < maxSearches) {
+                if (iterations > 0 && isSolveTimeExhausted()) {
+                    break;
+                }
+
+                final int searchesToRun = Math.min(getSearchesByIteration(), maxSearches - searches);
+                iterationAccepted[iterations] = chain.search(searchesToRun, temperature);
+                iterationSearches[iterations] = searchesToRun;
+                iterationCurrentCost[iterations] = chain.getCurrent().getCost();
+                iterationBestCost[iterations] = chain.getBestCost();
+                searches += searchesToRun;
+                iterations++;
+                temperature *= 1 - coolingRate;
+            }
+
+            return null;
+        }
+
+        /**
+         * Gets the current cost at the end of an iteration of the last anneal call,
+         * or at the end of its last iteration if the replica stopped before.
+         */
+        private double getCurrentCost(final int iteration) {
+            return iterations == 0 ? chain.getCurrent().getCost() : iterationCurrentCost[Math.min(iteration, iterations - 1)];
+        }
+
+        /**
+         * Gets the best cost at the end of an iteration of the last anneal call,
+         * or at the end of its last iteration if the replica stopped before.
+         */
+        private double getBestCost(final int iteration) {
+            return iterations == 0 ? chain.getBestCost() : iterationBestCost[Math.min(iteration, iterations - 1)];
+        }
+
+        private CloudletToVmMappingIncrementalSolution getBest() {
+            return chain.getBest();
+        }
+    }
+}
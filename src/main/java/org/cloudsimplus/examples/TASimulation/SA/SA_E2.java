@@ -26,38 +26,28 @@ package org.cloudsimplus.examples.TASimulation.SA;
 import ch.qos.logback.classic.Level;
 import org.cloudsimplus.brokers.DatacenterBroker;
 import org.cloudsimplus.brokers.DatacenterBrokerHeuristic;
-import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
-import org.cloudsimplus.builders.tables.MarkdownTableColumn;
 import org.cloudsimplus.cloudlets.Cloudlet;
-import org.cloudsimplus.cloudlets.CloudletSimple;
 import org.cloudsimplus.core.CloudSimPlus;
 import org.cloudsimplus.datacenters.Datacenter;
-import org.cloudsimplus.datacenters.DatacenterSimple;
 import org.cloudsimplus.distributions.UniformDistr;
+import org.cloudsimplus.examples.TASimulation.scenario.ResultFormat;
+import org.cloudsimplus.examples.TASimulation.scenario.ResultSink;
+import org.cloudsimplus.examples.TASimulation.scenario.Scenario;
+import org.cloudsimplus.examples.TASimulation.scenario.ScenarioFactory;
+import org.cloudsimplus.examples.TASimulation.scenario.ScenarioResult;
 import org.cloudsimplus.heuristics.CloudletToVmMappingHeuristic;
-import org.cloudsimplus.heuristics.CloudletToVmMappingSimulatedAnnealing;
 import org.cloudsimplus.heuristics.CloudletToVmMappingSolution;
 import org.cloudsimplus.heuristics.HeuristicSolution;
-import org.cloudsimplus.hosts.Host;
-import org.cloudsimplus.hosts.HostSimple;
-import org.cloudsimplus.provisioners.ResourceProvisionerSimple;
 import org.cloudsimplus.resources.Pe;
-import org.cloudsimplus.resources.PeSimple;
-import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
 import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
 import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
 import org.cloudsimplus.util.Log;
-import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
 import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
 import org.cloudsimplus.vms.Vm;
-import org.cloudsimplus.vms.VmSimple;
 
-import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -70,7 +60,7 @@ import java.util.Scanner;
  * randomly.
  *
  * <p>The {@link DatacenterBrokerHeuristic} is used
- * with the {@link CloudletToVmMappingSimulatedAnnealing} class
+ * with the {@link CloudletToVmMappingIncrementalSimulatedAnnealing} class
  * in order to find an acceptable solution with a high
  * {@link HeuristicSolution#getFitness() fitness value}.</p>
  *
@@ -85,6 +75,11 @@ public class SA_E2 {
     private Datacenter datacenter0;
 
     private static final int HOSTS_TO_CREATE = 1;
+    private static final int  HOST_PES = 40;
+    private static final long HOST_MIPS = 1000*40; // capacity of each CPU core (in Million Instructions per Second)
+    private static final int  HOST_RAM = 512*40; // host memory (Megabyte)
+    private static final long HOST_BW = 1000*40;
+    private static final long HOST_STORAGE = 10_000*40; // host storage
     private static final int VMS_TO_CREATE = 20;
     // private static final int CLOUDLETS_TO_CREATE = 10;
 
@@ -96,22 +91,22 @@ public class SA_E2 {
     public static final double SA_COOLING_RATE = 0.003;
     public static final int    SA_NUMBER_OF_NEIGHBORHOOD_SEARCHES = 50;
 
+    /**
+     * Indicates if the {@link AdaptiveCoolingSchedule} replaces the fixed initial temperature and cooling rate above,
+     * calibrating the temperature to the cost scale and cooling or reheating the search according to its acceptance ratio.
+     * It's disabled to reproduce the experiment with the original parameters.
+     */
+    private static final boolean ADAPTIVE_COOLING = false;
+
     private final CloudSimPlus simulation;
+    private final ScenarioFactory factory;
     private final List<Cloudlet> cloudletList;
     private List<Vm> vmList;
     private final List<Integer> mips = new ArrayList<>(Arrays.asList(962, 933, 875, 847, 803, 789, 725, 615, 607, 568, 447, 436, 341, 305, 248, 203, 196, 176, 157, 155));
     private final ArrayList<Integer> taskLength = new ArrayList<>(Arrays.asList(9449, 8772, 4951, 4574, 2858, 2741));
     private final Integer initialCloudletsTotal = 100;
-    private CloudletToVmMappingSimulatedAnnealing heuristic;
+    private CloudletToVmMappingIncrementalSimulatedAnnealing heuristic;
 
-    /**
-     * Number of cloudlets created so far.
-     */
-    private int createdCloudlets = 0;
-    /**
-     * Number of VMs created so far.
-     */
-    private int createdVms = 0;
     /**
      * Number of hosts created so far.
      */
@@ -133,8 +128,9 @@ public class SA_E2 {
         this.cloudletList = new ArrayList<>();
 
         simulation = new CloudSimPlus();
+        factory = new ScenarioFactory(simulation);
 
-        datacenter0 = createDatacenter();
+        datacenter0 = factory.createDatacenter(HOSTS_TO_CREATE, HOST_PES, HOST_MIPS, HOST_RAM, HOST_BW, HOST_STORAGE);
         broker0 = createDatacenterBrokerHeuristic();
 
         List<Integer> newCloudlets = getNumberOfNewCloudlets();
@@ -148,83 +144,9 @@ public class SA_E2 {
 
     private void runSimulationAndPrintResults() {
         simulation.start();
-        final var cloudletFinishedList = broker0.getCloudletFinishedList();
-        cloudletFinishedList.sort(Comparator.comparingLong(c -> c.getVm().getId()));
-        try {
-        // Specify the file path to export the output
-        String outputPath = "result/SA result/E2/SA_E2_Outputtest.csv";
-
-        // Create a FileOutputStream to write the output to the file
-        FileOutputStream fileOutputStream = new FileOutputStream(outputPath);
-
-        // Create a PrintStream to write to the file
-        PrintStream printStream = new PrintStream(fileOutputStream);
-
-        // Redirect the standard output stream to the file
-        System.setOut(printStream);
-
-        // finding makespan for each VM
-        Double tmin = Double.MAX_VALUE;
-        Double tmax = 0.0;
-        
-        List<Double> makespanVM = new ArrayList<>();
-        Double makespan = 0.0;
-
-        for(int i = 0, j = 0; i < cloudletFinishedList.size(); i++){
-            Double value = cloudletFinishedList.get(i).getTotalExecutionTime();
-
-            if(value < tmin) tmin = value;
-            if(value > tmax) tmax = value;
-
-            if(cloudletFinishedList.get(i).getVm() == vmList.get(j)){
-                makespan += value;
-            }else{
-                makespanVM.add(makespan);
-                j++;
-                makespan = value;
-            }
-        }
+        final var result = ScenarioResult.of(getClass().getSimpleName(), Scenario.Algorithm.SA, vmList, broker0.getCloudletFinishedList());
 
-        makespanVM.add(makespan);
-        System.out.println("This is Makespan per vm " + makespanVM);
-        
-        //find total execution time
-        Double total = 0.0;
-        for(int i = 0; i < makespanVM.size(); i++){
-            total +=makespanVM.get(i);
-        }
-        System.out.println("This is Total Execution Time " + total);
-
-        Double maxMakespan = Collections.max(makespanVM); // max makespan
-        System.out.println("This is Maximum Makespan " + maxMakespan);
-
-        // Find Utilization per VM and  Average Utilization
-        List<Double> utilVM = new ArrayList<>();
-        Double total2 = 0.0;
-        for(int i=0; i<makespanVM.size(); i++){
-            Double utilVmValue = makespanVM.get(i)/maxMakespan;
-            utilVM.add(utilVmValue);
-            total2 += utilVmValue;
-        }
-        System.out.println("This is Utilization per VM " + utilVM);
-        System.out.println("This is Average Utilization " + total2 / utilVM.size());
-
-        // Find Degree of imbalance
-        System.out.println("This is Tmax " + tmax);
-        System.out.println("This is Tmin " + tmin);
-        System.out.println("This is Tavg " + total/cloudletFinishedList.size()); 
-        System.out.println("This is Degree of Imbalance " + (tmax-tmin)/(total/cloudletFinishedList.size()));
-
-        new CloudletsTableBuilder(cloudletFinishedList)
-        .addColumn(new MarkdownTableColumn(" Vm ", "ID"), c -> c.getVm())
-        .build();
-        // Close the output stream
-        printStream.close();
-
-        System.out.println("Terminal output exported to " + outputPath);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        ResultSink.export(result, Path.of("result/SA result/E2/SA_E2_Outputtest.csv"), ResultFormat.TABLE);
     }
 
 	private DatacenterBrokerHeuristic createDatacenterBrokerHeuristic() {
@@ -250,6 +172,8 @@ public class SA_E2 {
             if((i + 1) % initialEachTaskVM == 0) j++;
 		}
 		broker0.submitCloudletList(cloudletList);
+        // The initial cloudlets are bound to VMs, so SA only maps the new ones, considering this backlog
+        heuristic.getCostModel().setBacklog(cloudletList);
 	}
 
 	private void createAndSubmitVms(List<Integer> mips) {
@@ -263,10 +187,13 @@ public class SA_E2 {
 	}
 
 	private void createSimulatedAnnealingHeuristic() {
-		heuristic = new CloudletToVmMappingSimulatedAnnealing(SA_INITIAL_TEMPERATURE, new UniformDistr(0, 1));
+		heuristic = new CloudletToVmMappingIncrementalSimulatedAnnealing(SA_INITIAL_TEMPERATURE, new UniformDistr(0, 1));
         heuristic.setColdTemperature(SA_COLD_TEMPERATURE)
                  .setCoolingRate(SA_COOLING_RATE)
                  .setSearchesByIteration(SA_NUMBER_OF_NEIGHBORHOOD_SEARCHES);
+        if(ADAPTIVE_COOLING) {
+            heuristic.setAdaptiveCooling(new AdaptiveCoolingSchedule());
+        }
 	}
 
 	// private void print(final DatacenterBrokerHeuristic broker0) {
@@ -297,74 +224,17 @@ public class SA_E2 {
     //     return heuristic.getRandomValue(maxPesNumber)+1;
     // }
 
-    private DatacenterSimple createDatacenter() {
-        final var hostList = new ArrayList<Host>();
-        for(int i = 0; i < HOSTS_TO_CREATE; i++) {
-            hostList.add(createHost());
-        }
-
-        return new DatacenterSimple(simulation, hostList);
-    }
-
-    private Host createHost() {
-        final long mips = 1000*40; // capacity of each CPU core (in Million Instructions per Second)
-        final int  ram = 512*40; // host memory (Megabyte)
-        final long storage = 10_000*40; // host storage
-        final long bw = 1000*40;
-
-        final var peList = new ArrayList<Pe>();
-        /*Creates the Host's CPU cores and defines the provisioner
-        used to allocate each core for requesting VMs.*/
-        for(int i = 0; i < 40; i++)
-            peList.add(new PeSimple(mips));
-
-       return new HostSimple(ram, bw, storage, peList)
-                   .setRamProvisioner(new ResourceProvisionerSimple())
-                   .setBwProvisioner(new ResourceProvisionerSimple());
-    }
-
     private Vm createVm(int mips, final DatacenterBroker broker, final int pesNumber) {
-        final long   storage = 10_000; // vm image size (Megabyte)
-        final int    ram = 512; // vm memory (Megabyte)
-        final long   bw = 1000; // vm bandwidth
-
-        return new VmSimple(createdVms++, mips, pesNumber)
-            .setRam(ram).setBw(bw).setSize(storage)
-            .setCloudletScheduler(new CloudletSchedulerSpaceShared());
+        return factory.createVm(mips, pesNumber);
     }
 
     private Cloudlet createCloudlet(Integer length, final DatacenterBroker broker, final int pesNumber) {
-        final long fileSize = 300; //Size (in bytes) before execution
-        final long outputSize = 300; //Size (in bytes) after execution
-
-        final var utilizationFull = new UtilizationModelDynamic(1.0);
-        final var utilizationModelRam = new UtilizationModelDynamic(0.6);
-        final var utilizationModelBw = new UtilizationModelDynamic(0.7);
-
-        return new CloudletSimple(createdCloudlets++, length, pesNumber)
-                    .setFileSize(fileSize)
-                    .setOutputSize(outputSize)
-                    .setUtilizationModelCpu(utilizationFull)
-                    .setUtilizationModelRam(utilizationModelRam)
-                    .setUtilizationModelBw(utilizationModelBw);
+        return factory.createCloudlet(length, pesNumber);
     }
 
     private Cloudlet createInitialCloudlets(final DatacenterBroker broker, final int pesNumber, Vm vm) {
         final long length = 1000; //in Million Instructions (MI)
-        final long fileSize = 300; //Size (in bytes) before execution
-        final long outputSize = 300; //Size (in bytes) after execution
-
-        final var utilizationFull = new UtilizationModelDynamic(1.0);
-        final var utilizationModelRam = new UtilizationModelDynamic(0.6);
-        final var utilizationModelBw = new UtilizationModelDynamic(0.7);
-        
-        return new CloudletSimple(createdCloudlets++, length, pesNumber)
-                    .setFileSize(fileSize)
-                    .setOutputSize(outputSize)
-                    .setUtilizationModelCpu(utilizationFull)
-                    .setUtilizationModelRam(utilizationModelRam)
-                    .setUtilizationModelBw(utilizationModelBw)
-                    .setVm(vm);
+        return factory.createCloudlet(length, pesNumber).setVm(vm);
     }
 
     // private double computeRoundRobinMappingCost() {
@@ -0,0 +1,220 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.SA;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cost function optimized by a {@link CloudletToVmMappingIncrementalSolution},
+ * modelling VMs that run Cloudlets one after another, as the {@link CloudletSchedulerSpaceShared} does,
+ * and that may already have a backlog of Cloudlets bound to them before the mapping.
+ *
+ * <p>For a VM {@code k} with capacity {@code cap} (MIPS times number of PEs),
+ * backlog length {@code B}, and {@code n} mapped Cloudlets with total length {@code MI}:</p>
+ * <ul>
+ *   <li>the busy time (the per-VM makespan reported by the TASimulation experiments)
+ *       is {@code (B + MI)/cap};</li>
+ *   <li>the VM becomes free for the mapped Cloudlets {@code d = max(0, backlogFinish - release)}
+ *       seconds after they are released (submitted);</li>
+ *   <li>the expected total completion time of the mapped Cloudlets, running in an arbitrary order,
+ *       is {@code n*d + (n+1)/2 * MI/cap}.</li>
+ * </ul>
+ *
+ * <p>The cost of a solution is
+ * {@code makespanWeight * max(busy) + imbalanceWeight * DI * mean(busy) + waitTimeWeight * meanCompletionTime},
+ * where {@code DI = (max(busy) - min(busy))/mean(busy)} is the degree of imbalance among the VM busy times.
+ * The degree of imbalance has no unit and is usually below 1, so it's scaled by the mean busy time
+ * to be weighed in seconds, as the other terms. Otherwise, it would barely change a cost of hundreds of seconds.
+ * It tracks the maximum makespan, average utilization ({@code mean(busy)/max(busy)})
+ * and degree of imbalance reported by the experiments.
+ * The experiments compute the degree of imbalance over the execution time of each Cloudlet,
+ * which the mapping only changes through the VM each Cloudlet runs on;
+ * it's computed here over the VM busy times, which the mapping balances.
+ * All terms only depend on per-VM accumulated values and on the busiest and idlest VMs,
+ * so they're updated incrementally.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class SpaceSharedCostModel {
+    private double makespanWeight;
+    private double imbalanceWeight;
+    private double waitTimeWeight;
+    private final Map<Vm, Double> backlogMi;
+    private final Map<Vm, Double> backlogStartTime;
+
+    /**
+     * Creates a cost model with all weights equal to 1 and no VM backlog.
+     */
+    public SpaceSharedCostModel() {
+        this.makespanWeight = 1;
+        this.imbalanceWeight = 1;
+        this.waitTimeWeight = 1;
+        this.backlogMi = new HashMap<>();
+        this.backlogStartTime = new HashMap<>();
+    }
+
+    /**
+     * Sets the Cloudlets already bound to VMs, which are not mapped by the heuristic
+     * but delay the Cloudlets mapped to the same VM.
+     * Cloudlets not bound to a VM are ignored.
+     *
+     * @param boundCloudlets the Cloudlets bound to VMs before the mapping
+     * @return
+     */
+    public SpaceSharedCostModel setBacklog(final List<Cloudlet> boundCloudlets) {
+        backlogMi.clear();
+        backlogStartTime.clear();
+        for (final var cloudlet : boundCloudlets) {
+            if(!cloudlet.isBoundToVm())
+                continue;
+
+            backlogMi.merge(cloudlet.getVm(), (double) cloudlet.getLength(), Double::sum);
+            backlogStartTime.merge(cloudlet.getVm(), cloudlet.getSubmissionDelay(), Math::min);
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets the length (in MI) each VM still has to run when the mapped Cloudlets are submitted,
+     * such as the unfinished work of previous timeslots.
+     *
+     * @param backlogMi the remaining length of the work already bound to each VM
+     * @return
+     */
+    public SpaceSharedCostModel setBacklog(final Map<Vm, Double> backlogMi) {
+        this.backlogMi.clear();
+        this.backlogStartTime.clear();
+        this.backlogMi.putAll(backlogMi);
+        return this;
+    }
+
+    /**
+     * Gets the total length (in MI) of the Cloudlets bound to a VM before the mapping.
+     * @param vm the VM to get the backlog
+     * @return
+     */
+    public double getBacklogMi(final Vm vm) {
+        return backlogMi.getOrDefault(vm, 0.0);
+    }
+
+    /**
+     * Gets the time the backlog of a VM is expected to finish.
+     * @param vm the VM to get the backlog finish time
+     * @param capacity the VM processing capacity (in MIPS)
+     * @return the finish time or 0 if the VM has no backlog
+     */
+    public double getBacklogFinishTime(final Vm vm, final double capacity) {
+        return backlogStartTime.getOrDefault(vm, 0.0) + getBacklogMi(vm)/capacity;
+    }
+
+    /**
+     * Computes the cost of a solution from the aggregated per-VM values.
+     *
+     * @param maxBusyTime the maximum busy time among all VMs
+     * @param minBusyTime the minimum busy time among all VMs
+     * @param sumBusyTime the sum of busy times of all VMs
+     * @param sumCompletionTime the expected total completion time of the mapped Cloudlets
+     * @param vms the number of VMs
+     * @param cloudlets the number of Cloudlets to map
+     * @return the solution cost
+     */
+    double computeCost(
+        final double maxBusyTime, final double minBusyTime, final double sumBusyTime,
+        final double sumCompletionTime, final int vms, final int cloudlets)
+    {
+        final double meanBusyTime = vms == 0 ? 0 : sumBusyTime / vms;
+        final double degreeOfImbalance = meanBusyTime > 0 ? (maxBusyTime - minBusyTime) / meanBusyTime : 0;
+        final double meanCompletionTime = cloudlets == 0 ? 0 : sumCompletionTime / cloudlets;
+        return makespanWeight * maxBusyTime + imbalanceWeight * degreeOfImbalance * meanBusyTime + waitTimeWeight * meanCompletionTime;
+    }
+
+    /**
+     * Gets the weight of the maximum VM busy time (the makespan) in the cost.
+     * @return
+     */
+    public double getMakespanWeight() {
+        return makespanWeight;
+    }
+
+    /**
+     * Sets the weight of the maximum VM busy time (the makespan) in the cost.
+     * @param makespanWeight the weight to set
+     * @return
+     */
+    public SpaceSharedCostModel setMakespanWeight(final double makespanWeight) {
+        this.makespanWeight = requireNonNegative(makespanWeight, "Makespan weight");
+        return this;
+    }
+
+    /**
+     * Gets the weight of the degree of imbalance among the VM busy times,
+     * scaled by the mean busy time, in the cost.
+     * @return
+     */
+    public double getImbalanceWeight() {
+        return imbalanceWeight;
+    }
+
+    /**
+     * Sets the weight of the degree of imbalance among the VM busy times,
+     * scaled by the mean busy time, in the cost.
+     * @param imbalanceWeight the weight to set
+     * @return
+     */
+    public SpaceSharedCostModel setImbalanceWeight(final double imbalanceWeight) {
+        this.imbalanceWeight = requireNonNegative(imbalanceWeight, "Imbalance weight");
+        return this;
+    }
+
+    /**
+     * Gets the weight of the expected mean completion time of the mapped Cloudlets in the cost.
+     * @return
+     */
+    public double getWaitTimeWeight() {
+        return waitTimeWeight;
+    }
+
+    /**
+     * Sets the weight of the expected mean completion time of the mapped Cloudlets in the cost.
+     * @param waitTimeWeight the weight to set
+     * @return
+     */
+    public SpaceSharedCostModel setWaitTimeWeight(final double waitTimeWeight) {
+        this.waitTimeWeight = requireNonNegative(waitTimeWeight, "Wait time weight");
+        return this;
+    }
+
+    private static double requireNonNegative(final double value, final String name) {
+        if(value < 0)
+            throw new IllegalArgumentException(name + " cannot be negative.");
+        return value;
+    }
+}
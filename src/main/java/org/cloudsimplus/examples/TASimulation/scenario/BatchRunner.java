@@ -0,0 +1,106 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Runs, without any user interaction, every {@link Scenario} JSON file in a directory.
+ * The result of each scenario is written to {@code <outputDir>/<scenario name>.md},
+ * in the same format as the TASimulation experiments,
+ * and one row with its metrics is appended to {@code <outputDir>/summary.csv}.
+ *
+ * <p>Usage: {@code BatchRunner [scenarioDir [outputDir]]},
+ * which defaults to {@value #DEFAULT_SCENARIO_DIR} and {@value #DEFAULT_OUTPUT_DIR}.
+ * A scenario that fails is reported and skipped, so that the remaining ones still run.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class BatchRunner {
+    public static final String DEFAULT_SCENARIO_DIR = "scenarios";
+    public static final String DEFAULT_OUTPUT_DIR = "result/batch";
+
+    private final Path scenarioDir;
+    private final Path outputDir;
+
+    /**
+     * Creates a batch runner.
+     * @param scenarioDir the directory to read the scenario JSON files from
+     * @param outputDir the directory to write the results to, which is created if needed
+     */
+    public BatchRunner(final Path scenarioDir, final Path outputDir) {
+        this.scenarioDir = scenarioDir;
+        this.outputDir = outputDir;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Log.setLevel(Level.WARN);
+        final var scenarioDir = Path.of(args.length > 0 ? args[0] : DEFAULT_SCENARIO_DIR);
+        final var outputDir = Path.of(args.length > 1 ? args[1] : DEFAULT_OUTPUT_DIR);
+        final int failed = new BatchRunner(scenarioDir, outputDir).run();
+        if(failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs all scenarios in the scenario directory, in alphabetical order of file name.
+     * @return the number of scenarios that failed
+     * @throws IOException when the directories cannot be read or written
+     */
+    public int run() throws IOException {
+        final var files = listScenarioFiles();
+        int failed = 0;
+        try (var resultSink = ResultSink.toDirectory(outputDir, ResultFormat.TABLE);
+             var summarySink = ResultSink.toFile(outputDir.resolve("summary.csv"), ResultFormat.CSV))
+        {
+            for (final var file : files) {
+                try {
+                    final var result = new ScenarioSimulation(Scenario.read(file)).run();
+                    resultSink.submit(result);
+                    summarySink.submit(result);
+                    System.err.printf("%s finished: max makespan %.4f%n", file.getFileName(), result.maxMakespan());
+                } catch (RuntimeException e) {
+                    failed++;
+                    System.err.printf("%s failed: %s%n", file.getFileName(), e.getMessage());
+                }
+            }
+        }
+
+        System.err.printf("%d of %d scenarios finished. Results written to %s%n", files.size() - failed, files.size(), outputDir);
+        return failed;
+    }
+
+    private List<Path> listScenarioFiles() throws IOException {
+        try (var paths = Files.list(scenarioDir)) {
+            return paths.filter(path -> path.toString().endsWith(".json")).sorted().toList();
+        }
+    }
+}
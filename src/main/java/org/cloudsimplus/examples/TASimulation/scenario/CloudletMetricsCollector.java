@@ -0,0 +1,219 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Computes the metrics reported by the TASimulation experiments
+ * (per-VM makespan, maximum makespan, average utilization and degree of imbalance)
+ * in a single pass over the finished Cloudlets, in any order.
+ *
+ * <p>It can be {@link #subscribe(List) subscribed} to the finish event of Cloudlets,
+ * so that each finished Cloudlet is accounted when it finishes and the list of finished Cloudlets
+ * doesn't need to be sorted nor even kept. Each Cloudlet is accounted in constant time,
+ * using arrays indexed by VM id, which grow as needed.</p>
+ *
+ * <p>Like a simulation, a collector must not be shared between threads.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class CloudletMetricsCollector {
+    private static final int INITIAL_VMS = 16;
+
+    /** The sum of the execution time of the Cloudlets finished by each VM, indexed by VM id. */
+    private double[] makespanByVmId;
+    /** The number of Cloudlets finished by each VM, indexed by VM id. */
+    private int[] cloudletsByVmId;
+    private long finishedCloudlets;
+    private double totalExecutionTime;
+    private double minExecutionTime;
+    private double maxExecutionTime;
+    private double completionTime;
+
+    /**
+     * Creates a collector with no finished Cloudlet accounted.
+     */
+    public CloudletMetricsCollector() {
+        this.makespanByVmId = new double[INITIAL_VMS];
+        this.cloudletsByVmId = new int[INITIAL_VMS];
+        this.minExecutionTime = Double.MAX_VALUE;
+    }
+
+    /**
+     * Accounts each Cloudlet of a list when it finishes.
+     * @param cloudlets the Cloudlets to subscribe to
+     * @return this collector
+     */
+    public CloudletMetricsCollector subscribe(final List<? extends Cloudlet> cloudlets) {
+        for (final var cloudlet : cloudlets) {
+            cloudlet.addOnFinishListener(info -> add(info.getCloudlet()));
+        }
+
+        return this;
+    }
+
+    /**
+     * Accounts a finished Cloudlet.
+     * @param cloudlet the finished Cloudlet to account
+     */
+    public void add(final Cloudlet cloudlet) {
+        final int vmId = (int) cloudlet.getVm().getId();
+        if(vmId >= makespanByVmId.length) {
+            final int length = Math.max(vmId + 1, makespanByVmId.length * 2);
+            makespanByVmId = Arrays.copyOf(makespanByVmId, length);
+            cloudletsByVmId = Arrays.copyOf(cloudletsByVmId, length);
+        }
+
+        final double time = cloudlet.getTotalExecutionTime();
+        makespanByVmId[vmId] += time;
+        cloudletsByVmId[vmId]++;
+        totalExecutionTime += time;
+        minExecutionTime = Math.min(minExecutionTime, time);
+        maxExecutionTime = Math.max(maxExecutionTime, time);
+        completionTime = Math.max(completionTime, cloudlet.getFinishTime());
+        finishedCloudlets++;
+    }
+
+    /**
+     * Gets the number of finished Cloudlets accounted.
+     * @return
+     */
+    public long getFinishedCloudlets() {
+        return finishedCloudlets;
+    }
+
+    /**
+     * Gets the sum of the execution time of all finished Cloudlets.
+     * @return
+     */
+    public double getTotalExecutionTime() {
+        return totalExecutionTime;
+    }
+
+    /**
+     * Gets the sum of the execution time of the Cloudlets finished by a VM.
+     * @param vm the VM to get the makespan of
+     * @return
+     */
+    public double getMakespan(final Vm vm) {
+        final long vmId = vm.getId();
+        return vmId >= 0 && vmId < makespanByVmId.length ? makespanByVmId[(int) vmId] : 0;
+    }
+
+    /**
+     * Gets the number of Cloudlets finished by a VM.
+     * @param vm the VM to get the number of finished Cloudlets
+     * @return
+     */
+    public int getFinishedCloudlets(final Vm vm) {
+        final long vmId = vm.getId();
+        return vmId >= 0 && vmId < cloudletsByVmId.length ? cloudletsByVmId[(int) vmId] : 0;
+    }
+
+    /**
+     * Gets the time the last accounted Cloudlet finished.
+     * @return
+     */
+    public double getCompletionTime() {
+        return completionTime;
+    }
+
+    /**
+     * Gets the degree of imbalance {@code (Tmax - Tmin)/Tavg},
+     * where T is the execution time of each finished Cloudlet.
+     * @return the degree of imbalance or zero if no Cloudlet has finished
+     */
+    public double getDegreeOfImbalance() {
+        return finishedCloudlets == 0 ? 0 : (maxExecutionTime - minExecutionTime) / (totalExecutionTime / finishedCloudlets);
+    }
+
+    /**
+     * Builds the result of a simulation from the accounted Cloudlets.
+     *
+     * @param name the name to identify the simulation
+     * @param algorithm the algorithm used to map Cloudlets to VMs
+     * @param vmList the VMs of the simulation, in the order the per-VM metrics are reported
+     * @param finishedCloudletList the finished Cloudlets to print in the result table,
+     *                             or an empty list to not keep them
+     * @return the simulation result
+     */
+    public ScenarioResult getResult(
+        final String name, final Scenario.Algorithm algorithm,
+        final List<? extends Vm> vmList, final List<? extends Cloudlet> finishedCloudletList)
+    {
+        return getResult(name, algorithm, vmList, finishedCloudletList, 0);
+    }
+
+    /**
+     * Builds the result of a simulation from the accounted Cloudlets.
+     * As the experiments did, the per-VM metrics and the average utilization
+     * only include the VMs that finished at least one Cloudlet.
+     *
+     * @param name the name to identify the simulation
+     * @param algorithm the algorithm used to map Cloudlets to VMs
+     * @param vmList the VMs of the simulation, in the order the per-VM metrics are reported
+     * @param finishedCloudletList the finished Cloudlets to print in the result table,
+     *                             or an empty list to not keep them
+     * @param decisionLatency the time (in seconds) the algorithm took to map the Cloudlets
+     * @return the simulation result
+     */
+    public ScenarioResult getResult(
+        final String name, final Scenario.Algorithm algorithm,
+        final List<? extends Vm> vmList, final List<? extends Cloudlet> finishedCloudletList,
+        final double decisionLatency)
+    {
+        final var makespanPerVm = new ArrayList<Double>(vmList.size());
+        double maxMakespan = 0;
+        for (final var vm : vmList) {
+            if(getFinishedCloudlets(vm) == 0)
+                continue;
+
+            final double makespan = getMakespan(vm);
+            makespanPerVm.add(makespan);
+            maxMakespan = Math.max(maxMakespan, makespan);
+        }
+
+        final var utilizationPerVm = new ArrayList<Double>(makespanPerVm.size());
+        double totalUtilization = 0;
+        for (final double makespan : makespanPerVm) {
+            final double utilization = maxMakespan > 0 ? makespan / maxMakespan : 0;
+            utilizationPerVm.add(utilization);
+            totalUtilization += utilization;
+        }
+
+        return new ScenarioResult(
+            name, algorithm, finishedCloudlets,
+            List.copyOf(makespanPerVm), totalExecutionTime, maxMakespan,
+            List.copyOf(utilizationPerVm), makespanPerVm.isEmpty() ? 0 : totalUtilization / makespanPerVm.size(),
+            getDegreeOfImbalance(), completionTime, decisionLatency,
+            Collections.unmodifiableList(finishedCloudletList));
+    }
+}
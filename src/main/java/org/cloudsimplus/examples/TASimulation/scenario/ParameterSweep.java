@@ -0,0 +1,185 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A grid of {@link Scenario}s, read from a JSON file, to compare the load balancing algorithms.
+ * The grid is the cartesian product of algorithms, VM configurations, task mixes and seeds.
+ * Each combination is {@link #expand() expanded} into an isolated {@link Run}.
+ *
+ * <pre>
+ * {
+ *   "name": "comparison",
+ *   "algorithms": ["MARKOV", "PLAC", "SA"],
+ *   "vms": [ { "mips": [300, 300, 300, 250, 250] }, { "mips": [962, 933, 875, 847, 803] } ],
+ *   "initialTasksPerVm": [ { "length": 1000, "count": 4 } ],
+ *   "taskMixes": [
+ *     [ { "length": 6000, "count": 2 }, { "length": 1000, "count": 8 } ],
+ *     [ { "length": 3000, "count": 10 } ]
+ *   ],
+ *   "seeds": [1, 2, 3],
+ *   "parameters": { "PLAC": { "ants": 8 }, "SA": { "coolingRate": 0.003 } }
+ * }
+ * </pre>
+ *
+ * <p>The initial tasks are given per VM, so that the initial load
+ * of each VM is the same for every VM configuration.
+ * The seed is passed to the algorithms as the {@code seed} parameter.
+ * Since Markov doesn't use random numbers, its runs are only expanded for the first seed.
+ * An optional {@code "decisionLatency"} object is applied to every scenario,
+ * as described in {@link Scenario.DecisionLatency}.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class ParameterSweep {
+    private static final Gson GSON = new Gson();
+
+    /**
+     * A combination of the sweep grid.
+     *
+     * @param index the index of the run in the sweep
+     * @param vmsIndex the index of the VM configuration in the sweep
+     * @param taskMixIndex the index of the task mix in the sweep
+     * @param seed the seed of the run
+     * @param scenario the scenario to run
+     */
+    public record Run(int index, int vmsIndex, int taskMixIndex, long seed, Scenario scenario) {
+        /**
+         * Gets the run dimensions, to label its result.
+         * @return a map from each dimension name to its value, in a fixed order
+         */
+        public Map<String, Object> getLabels() {
+            final var labels = new LinkedHashMap<String, Object>();
+            labels.put("run", index);
+            labels.put("vmsIndex", vmsIndex);
+            labels.put("vms", scenario.getVms().getMips().size());
+            labels.put("taskMixIndex", taskMixIndex);
+            labels.put("newTasks", scenario.getNewTasks().stream().mapToInt(Scenario.TaskGroup::getCount).sum());
+            labels.put("seed", seed);
+            return labels;
+        }
+    }
+
+    private String name = "sweep";
+    private List<Scenario.Algorithm> algorithms = List.of(Scenario.Algorithm.values());
+    private List<Scenario.VmSpec> vms = new ArrayList<>();
+    private List<Scenario.TaskGroup> initialTasksPerVm = new ArrayList<>();
+    private List<List<Scenario.TaskGroup>> taskMixes = new ArrayList<>();
+    private List<Long> seeds = List.of(0L);
+    private double submissionDelay = 20;
+    private Scenario.DecisionLatency decisionLatency;
+    private Map<Scenario.Algorithm, Map<String, Double>> parameters = Map.of();
+
+    /**
+     * Reads a parameter sweep from a JSON file.
+     * @param file the JSON file to read
+     * @return the read parameter sweep
+     * @throws UncheckedIOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is malformed
+     */
+    public static ParameterSweep read(final Path file) {
+        try (var reader = Files.newBufferedReader(file)) {
+            final var sweep = GSON.fromJson(reader, ParameterSweep.class);
+            if(sweep == null)
+                throw new IllegalArgumentException("Empty parameter sweep " + file);
+            return sweep;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading parameter sweep " + file, e);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed parameter sweep " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Expands the grid into one run for each combination of algorithm, VM configuration, task mix and seed.
+     * Markov is deterministic, so it gets a single run (with the first seed) for each VM configuration and task mix.
+     * @return the list of runs, whose scenarios are already validated
+     * @throws IllegalArgumentException when some dimension of the grid is empty or a scenario is invalid
+     */
+    public List<Run> expand() {
+        if(algorithms == null || algorithms.isEmpty() || vms == null || vms.isEmpty() ||
+           taskMixes == null || taskMixes.isEmpty() || seeds == null || seeds.isEmpty())
+        {
+            throw new IllegalArgumentException("The algorithms, vms, taskMixes and seeds of a parameter sweep cannot be empty");
+        }
+
+        final var runs = new ArrayList<Run>(algorithms.size() * vms.size() * taskMixes.size() * seeds.size());
+        for (final var algorithm : algorithms) {
+            final var algorithmSeeds = algorithm == Scenario.Algorithm.MARKOV ? seeds.subList(0, 1) : seeds;
+            for (int vmsIndex = 0; vmsIndex < vms.size(); vmsIndex++) {
+                final var vmSpec = vms.get(vmsIndex);
+                final var initialTasks = getInitialTasks(vmSpec.getMips().size());
+                for (int mixIndex = 0; mixIndex < taskMixes.size(); mixIndex++) {
+                    for (final long seed : algorithmSeeds) {
+                        final var scenarioName = "%s_%s_vms%d_mix%d_seed%d".formatted(name, algorithm, vmsIndex, mixIndex, seed);
+                        final var scenario = new Scenario(
+                            scenarioName, algorithm, vmSpec, initialTasks, taskMixes.get(mixIndex),
+                            submissionDelay, decisionLatency, getParameters(algorithm, seed));
+                        runs.add(new Run(runs.size(), vmsIndex, mixIndex, seed, scenario.validate()));
+                    }
+                }
+            }
+        }
+
+        return runs;
+    }
+
+    private List<Scenario.TaskGroup> getInitialTasks(final int vmsNumber) {
+        final var tasks = new ArrayList<Scenario.TaskGroup>(vmsNumber * initialTasksPerVm.size());
+        for (int vm = 0; vm < vmsNumber; vm++) {
+            for (final var group : initialTasksPerVm) {
+                tasks.add(new Scenario.TaskGroup(group.getLength(), group.getCount(), vm));
+            }
+        }
+
+        return tasks;
+    }
+
+    private Map<String, Double> getParameters(final Scenario.Algorithm algorithm, final long seed) {
+        final var params = new HashMap<>(parameters == null ? Map.of() : parameters.getOrDefault(algorithm, Map.of()));
+        params.put("seed", (double) seed);
+        return params;
+    }
+
+    /**
+     * Gets the sweep name, used to name its scenarios and result file.
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+}
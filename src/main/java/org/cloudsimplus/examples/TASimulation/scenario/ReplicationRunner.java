@@ -0,0 +1,255 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Runs independent replications of a stochastic {@link Scenario} (such as a PLAC or SA one) in parallel,
+ * each one with a different {@code seed}, until the confidence intervals of the
+ * mean makespan, utilization and degree of imbalance are as narrow as required.
+ * This way, algorithms are compared with statistically valid means,
+ * using the minimum number of runs instead of a fixed large count.
+ *
+ * <p>The replications are run in rounds of one replication by thread, and the results
+ * of each round are added to the {@link RunningStatistics} in replication order.
+ * Therefore, the number of replications and the statistics don't depend on which
+ * replication finishes first, but a round may run up to {@code threads - 1} replications more
+ * than strictly needed (which are still accounted for).
+ * The seed of replication {@code i} is the scenario {@code seed} parameter (or 0) plus {@code i}.</p>
+ *
+ * <p>Usage: {@code ReplicationRunner scenarioFile [outputDir [relativeHalfWidth [threads]]]},
+ * which writes the result of each replication to {@code <name>_replications.csv}
+ * and the confidence intervals to {@code <name>_confidence.csv}.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class ReplicationRunner {
+    /** The metrics whose confidence intervals are checked, by name. */
+    private static final Map<String, ToDoubleFunction<ScenarioResult>> METRICS = new LinkedHashMap<>();
+    static {
+        METRICS.put("maxMakespan", ScenarioResult::maxMakespan);
+        METRICS.put("averageUtilization", ScenarioResult::averageUtilization);
+        METRICS.put("degreeOfImbalance", ScenarioResult::degreeOfImbalance);
+    }
+
+    private final int threads;
+    private double confidence = 0.95;
+    private double relativeHalfWidth = 0.05;
+    private int minReplications = 5;
+    private int maxReplications = 1000;
+
+    /**
+     * Creates a replication runner.
+     * @param threads the number of replications executed at the same time
+     */
+    public ReplicationRunner(final int threads) {
+        if(threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be greater than zero");
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 0) {
+            System.err.println("Usage: ReplicationRunner scenarioFile [outputDir [relativeHalfWidth [threads]]]");
+            System.exit(2);
+        }
+
+        /*The log must be disabled when executing parallel simulations.*/
+        Log.setLevel(Level.OFF);
+        final var scenario = Scenario.read(Path.of(args[0]));
+        final var outputDir = Path.of(args.length > 1 ? args[1] : BatchRunner.DEFAULT_OUTPUT_DIR);
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        final var runner = new ReplicationRunner(threads);
+        if(args.length > 2) {
+            runner.setRelativeHalfWidth(Double.parseDouble(args[2]));
+        }
+
+        final Map<String, RunningStatistics> statistics;
+        try (var sink = ResultSink.toFile(outputDir.resolve(scenario.getName() + "_replications.csv"), ResultFormat.CSV)) {
+            statistics = runner.run(scenario, sink);
+        }
+
+        final var confidenceFile = outputDir.resolve(scenario.getName() + "_confidence.csv");
+        try (var out = new PrintStream(Files.newOutputStream(confidenceFile))) {
+            runner.print(statistics, out);
+        }
+
+        runner.print(statistics, System.out);
+    }
+
+    /**
+     * Runs replications of a scenario until the confidence intervals of all metrics
+     * reach the {@link #setRelativeHalfWidth(double) relative half-width}
+     * or the {@link #setMaxReplications(int) maximum number of replications} is run.
+     *
+     * @param scenario the scenario to replicate
+     * @param sink the sink to submit the result of each replication to,
+     *             labelled with the replication index and seed
+     * @return the statistics of each metric, by name
+     * @throws InterruptedException when interrupted while waiting for the replications to finish
+     * @throws IllegalStateException when a replication fails
+     */
+    public Map<String, RunningStatistics> run(final Scenario scenario, final ResultSink sink) throws InterruptedException {
+        final var statistics = new LinkedHashMap<String, RunningStatistics>();
+        METRICS.keySet().forEach(name -> statistics.put(name, new RunningStatistics()));
+
+        final long baseSeed = (long) scenario.getParameter("seed", 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int replications = 0;
+            while (replications < maxReplications && !isPrecise(statistics, replications)) {
+                final int roundSize = Math.min(threads, maxReplications - replications);
+                final var round = new ArrayList<Future<ScenarioResult>>(roundSize);
+                for (int i = replications; i < replications + roundSize; i++) {
+                    final var replica = scenario.withParameter("seed", baseSeed + i);
+                    round.add(executor.submit(() -> new ScenarioSimulation(replica).setKeepFinishedCloudlets(false).run()));
+                }
+
+                for (final var future : round) {
+                    final var result = getResult(future, replications);
+                    METRICS.forEach((name, metric) -> statistics.get(name).add(metric.applyAsDouble(result)));
+                    final var labels = new LinkedHashMap<String, Object>();
+                    labels.put("replication", replications);
+                    labels.put("seed", baseSeed + replications);
+                    sink.submit(result, labels);
+                    replications++;
+                }
+            }
+
+            System.err.printf(
+                "%s: %d replications, %s%n", scenario.getName(), replications,
+                isPrecise(statistics, replications) ? "confidence intervals reached" : "maximum replications reached");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return statistics;
+    }
+
+    private static ScenarioResult getResult(final Future<ScenarioResult> future, final int replication) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replication " + replication + " failed", e.getCause());
+        }
+    }
+
+    private boolean isPrecise(final Map<String, RunningStatistics> statistics, final int replications) {
+        return replications >= minReplications &&
+               statistics.values().stream().allMatch(stats -> stats.isPrecise(confidence, relativeHalfWidth));
+    }
+
+    /**
+     * Prints one CSV row with the confidence interval of each metric.
+     * @param statistics the statistics of each metric, by name
+     * @param out the stream to print to
+     */
+    public void print(final Map<String, RunningStatistics> statistics, final PrintStream out) {
+        out.println("metric,replications,mean,standardDeviation,confidence,halfWidth");
+        statistics.forEach((name, stats) -> out.println(String.format(
+            Locale.ROOT, "%s,%d,%s,%s,%s,%s",
+            name, stats.getCount(), stats.getMean(), stats.getStandardDeviation(), confidence, stats.getHalfWidth(confidence))));
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Sets the confidence level of the intervals.
+     * @param confidence the confidence level, between 0 and 1 (default 0.95)
+     * @return
+     */
+    public ReplicationRunner setConfidence(final double confidence) {
+        if(confidence <= 0 || confidence >= 1)
+            throw new IllegalArgumentException("The confidence level must be between 0 and 1");
+        this.confidence = confidence;
+        return this;
+    }
+
+    public double getRelativeHalfWidth() {
+        return relativeHalfWidth;
+    }
+
+    /**
+     * Sets the target half-width of the confidence intervals, relative to the mean of each metric.
+     * @param relativeHalfWidth the relative half-width, such as 0.05 (the default) for ±5% of the mean
+     * @return
+     */
+    public ReplicationRunner setRelativeHalfWidth(final double relativeHalfWidth) {
+        if(relativeHalfWidth <= 0)
+            throw new IllegalArgumentException("The relative half-width must be greater than zero");
+        this.relativeHalfWidth = relativeHalfWidth;
+        return this;
+    }
+
+    public int getMinReplications() {
+        return minReplications;
+    }
+
+    /**
+     * Sets the minimum number of replications, so that the variance estimate is meaningful
+     * before the confidence intervals are checked.
+     * @param minReplications the minimum number of replications (default 5), at least 2
+     * @return
+     */
+    public ReplicationRunner setMinReplications(final int minReplications) {
+        if(minReplications < 2 || minReplications > maxReplications)
+            throw new IllegalArgumentException("The minimum number of replications must be between 2 and the maximum one");
+        this.minReplications = minReplications;
+        return this;
+    }
+
+    public int getMaxReplications() {
+        return maxReplications;
+    }
+
+    /**
+     * Sets the maximum number of replications, for metrics whose intervals never get narrow enough.
+     * @param maxReplications the maximum number of replications (default 1000)
+     * @return
+     */
+    public ReplicationRunner setMaxReplications(final int maxReplications) {
+        if(maxReplications < minReplications)
+            throw new IllegalArgumentException("The maximum number of replications cannot be less than the minimum one");
+        this.maxReplications = maxReplications;
+        return this;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.cloudsimplus.core.CloudSimPlus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A local disk cache of {@link ScenarioResult} metrics, addressed by a hash of the scenario content,
+ * so that configurations repeated across parameter sweeps (such as the E1 baseline) are only simulated once.
+ *
+ * <p>The {@link #getKey(Scenario) key} is the SHA-256 of a canonical JSON with everything
+ * that affects the result: the Host (with the scaled attributes resolved), the VM MIPS,
+ * the initial and new tasks (with adjacent equal groups merged), the submission delay,
+ * the decision latency model, the algorithm and its parameters (sorted by name, including the seed),
+ * the CloudSim Plus version and the version of this cache format.
+ * The scenario name isn't part of the key, since it doesn't change the result.</p>
+ *
+ * <p>Only {@link #isCacheable(Scenario) deterministic} scenarios are cached.
+ * The finished Cloudlets are not stored, so a cached result only has the metrics.
+ * Each entry is written to a temporary file and then moved into place,
+ * so that parallel runs can share the same cache.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class ResultCache {
+    /**
+     * The version of the key and entry format,
+     * which must be increased whenever the simulation or the metrics change how results are computed.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+
+    /**
+     * The metrics stored for each scenario.
+     * It's a plain class (instead of the {@link ScenarioResult} record) to not depend on the record support
+     * of the Gson version CloudSim Plus brings.
+     */
+    private static final class Entry {
+        private String algorithm;
+        private long cloudlets;
+        private List<Double> makespanPerVm;
+        private double totalExecutionTime;
+        private double maxMakespan;
+        private List<Double> utilizationPerVm;
+        private double averageUtilization;
+        private double degreeOfImbalance;
+        private double completionTime;
+        private double decisionLatency;
+
+        private Entry() {/**/}
+
+        private Entry(final ScenarioResult result) {
+            this.algorithm = result.algorithm().name();
+            this.cloudlets = result.cloudlets();
+            this.makespanPerVm = result.makespanPerVm();
+            this.totalExecutionTime = result.totalExecutionTime();
+            this.maxMakespan = result.maxMakespan();
+            this.utilizationPerVm = result.utilizationPerVm();
+            this.averageUtilization = result.averageUtilization();
+            this.degreeOfImbalance = result.degreeOfImbalance();
+            this.completionTime = result.completionTime();
+            this.decisionLatency = result.decisionLatency();
+        }
+
+        private ScenarioResult toResult(final Scenario scenario) {
+            if(algorithm == null || makespanPerVm == null || utilizationPerVm == null)
+                throw new JsonParseException("Incomplete entry");
+
+            return new ScenarioResult(
+                scenario.getName(), Scenario.Algorithm.valueOf(algorithm), cloudlets,
+                List.copyOf(makespanPerVm), totalExecutionTime, maxMakespan,
+                List.copyOf(utilizationPerVm), averageUtilization, degreeOfImbalance,
+                completionTime, decisionLatency, List.of());
+        }
+    }
+
+    private final Path directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache stored in a directory.
+     * @param directory the directory to store the entries, which is created if needed
+     */
+    public ResultCache(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Checks if a scenario always produces the same result, so that it can be cached.
+     * That requires a fixed {@code seed} for the stochastic algorithms (PLAC and SA),
+     * a decision latency which doesn't depend on the wall-clock time
+     * and no {@code maxSolveTime} for SA, which stops the search after a wall-clock time that depends on the machine load.
+     *
+     * @param scenario the scenario to check
+     * @return true if the scenario result can be cached, false otherwise
+     */
+    public static boolean isCacheable(final Scenario scenario) {
+        final boolean seeded = scenario.getAlgorithm() == Scenario.Algorithm.MARKOV || scenario.getParameter("seed", -1) >= 0;
+        final boolean timeBudget = scenario.getAlgorithm() == Scenario.Algorithm.SA && scenario.getParameter("maxSolveTime", 0) > 0;
+        return seeded && !timeBudget && scenario.getDecisionLatency().getModel() != Scenario.DecisionLatency.Model.WALL_CLOCK;
+    }
+
+    /**
+     * Gets the cache key of a scenario.
+     * @param scenario the scenario to get the key of
+     * @return the hexadecimal SHA-256 of the canonical scenario content
+     */
+    public static String getKey(final Scenario scenario) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toCanonicalJson(scenario).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+
+    /**
+     * Builds the canonical JSON of a scenario, with every value that affects its result
+     * and always in the same order.
+     */
+    static String toCanonicalJson(final Scenario scenario) {
+        final int vms = scenario.getVms().getMips().size();
+        final var host = scenario.getHost();
+        final var hostJson = new JsonObject();
+        hostJson.addProperty("pes", host.getPes(vms));
+        hostJson.addProperty("mips", host.getMips(vms));
+        hostJson.addProperty("ram", host.getRam(vms));
+        hostJson.addProperty("bw", host.getBw(vms));
+        hostJson.addProperty("storage", host.getStorage(vms));
+
+        final var vmsJson = new JsonObject();
+        vmsJson.add("mips", GSON.toJsonTree(scenario.getVms().getMips()));
+        vmsJson.addProperty("pes", scenario.getVms().getPes());
+
+        final var latency = scenario.getDecisionLatency();
+        final var latencyJson = new JsonObject();
+        latencyJson.addProperty("model", latency.getModel().name());
+        if(latency.getModel() == Scenario.DecisionLatency.Model.OPERATIONS) {
+            latencyJson.addProperty("secondsByOperation", latency.getSecondsByOperation());
+        }
+
+        final var json = new JsonObject();
+        json.addProperty("format", FORMAT_VERSION);
+        json.addProperty("cloudsimplus", CloudSimPlus.VERSION);
+        json.addProperty("algorithm", scenario.getAlgorithm().name());
+        json.add("host", hostJson);
+        json.add("vms", vmsJson);
+        json.add("initialTasks", toCanonicalJson(scenario.getInitialTasks()));
+        json.add("newTasks", toCanonicalJson(scenario.getNewTasks()));
+        json.addProperty("submissionDelay", scenario.getSubmissionDelay());
+        json.add("decisionLatency", latencyJson);
+        json.add("parameters", GSON.toJsonTree(new TreeMap<>(scenario.getParameters())));
+        return GSON.toJson(json);
+    }
+
+    /**
+     * Converts task groups to a JSON array, merging adjacent groups with the same length and VM
+     * (which create the same Cloudlets) and dropping empty ones.
+     */
+    private static JsonArray toCanonicalJson(final List<Scenario.TaskGroup> groups) {
+        final var array = new JsonArray();
+        JsonObject last = null;
+        for (final var group : groups) {
+            if(group.getCount() == 0)
+                continue;
+
+            final boolean sameAsLast =
+                last != null && last.get("length").getAsLong() == group.getLength() &&
+                (last.has("vm") ? group.getVm() != null && last.get("vm").getAsInt() == group.getVm() : group.getVm() == null);
+            if(sameAsLast) {
+                last.addProperty("count", last.get("count").getAsInt() + group.getCount());
+                continue;
+            }
+
+            last = new JsonObject();
+            last.addProperty("length", group.getLength());
+            last.addProperty("count", group.getCount());
+            if(group.getVm() != null) {
+                last.addProperty("vm", group.getVm());
+            }
+
+            array.add(last);
+        }
+
+        return array;
+    }
+
+    /**
+     * Gets the cached result of a scenario.
+     * @param scenario the scenario to get the result of
+     * @return an Optional with the result (named after the given scenario and without finished Cloudlets)
+     *         or an empty Optional if the scenario isn't cacheable or wasn't cached yet
+     */
+    public Optional<ScenarioResult> get(final Scenario scenario) {
+        if(!isCacheable(scenario))
+            return Optional.empty();
+
+        final var file = getEntryFile(getKey(scenario));
+        try {
+            final var result = GSON.fromJson(Files.readString(file), Entry.class).toResult(scenario);
+            hits.incrementAndGet();
+            return Optional.of(result);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            // A corrupted entry is just recomputed and overwritten
+            System.err.printf("Ignoring the invalid cache entry %s: %s%n", file, e.getMessage());
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the result of a scenario, if it's cacheable.
+     * @param scenario the scenario that was run
+     * @param result the result of the scenario
+     * @throws UncheckedIOException when the entry cannot be written
+     */
+    public void put(final Scenario scenario, final ScenarioResult result) {
+        if(!isCacheable(scenario))
+            return;
+
+        final var file = getEntryFile(getKey(scenario));
+        try {
+            Files.createDirectories(file.getParent());
+            final var tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.writeString(tempFile, GSON.toJson(new Entry(result)));
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing cache entry " + file, e);
+        }
+    }
+
+    /**
+     * Gets the cached result of a scenario or computes and caches it.
+     * @param scenario the scenario to get the result of
+     * @param simulator the function to compute the result when it isn't cached
+     * @return the cached or computed result
+     */
+    public ScenarioResult computeIfAbsent(final Scenario scenario, final Function<Scenario, ScenarioResult> simulator) {
+        return get(scenario).orElseGet(() -> {
+            final var result = simulator.apply(scenario);
+            put(scenario, result);
+            return result;
+        });
+    }
+
+    /**
+     * Gets the file of an entry, spread in sub-directories by the first two key characters,
+     * so that large caches don't end up with too many files in a single directory.
+     */
+    private Path getEntryFile(final String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the number of results served from the cache.
+     * @return
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of cacheable results that weren't found in the cache.
+     * @return
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import com.google.gson.Gson;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The formats a {@link ResultSink} can write {@link ScenarioResult}s in.
+ * Each result may come with labels (such as the parameters of a sweep run),
+ * which are written before the metrics.
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public enum ResultFormat {
+    /**
+     * The human-readable format of the TASimulation experiments:
+     * the metrics followed by the table of finished Cloudlets built by a
+     * {@link org.cloudsimplus.builders.tables.CloudletsTableBuilder}.
+     */
+    TABLE("md") {
+        @Override
+        void write(final PrintStream out, final ScenarioResult result, final Map<String, ?> labels) {
+            if(result == null)
+                return;
+
+            if(!labels.isEmpty()) {
+                out.println(labels.entrySet().stream().map(Object::toString).collect(Collectors.joining(", ")));
+            }
+
+            result.print(out);
+            out.println();
+        }
+    },
+
+    /**
+     * One CSV row with the labels and the scalar metrics of each result.
+     * The header is written before the first row, using the labels of the first result.
+     */
+    CSV("csv") {
+        @Override
+        void writeHeader(final PrintStream out, final Map<String, ?> labels) {
+            final var labelColumns = String.join(",", labels.keySet());
+            out.println(labelColumns.isEmpty() ? ScenarioResult.SUMMARY_HEADER : labelColumns + "," + ScenarioResult.SUMMARY_HEADER);
+        }
+
+        @Override
+        void write(final PrintStream out, final ScenarioResult result, final Map<String, ?> labels) {
+            final var labelValues = labels.values().stream().map(value -> Objects.toString(value, "")).collect(Collectors.joining(","));
+            final var metrics = result == null ? ",,,,,,,," : result.getSummaryRow();
+            out.println(labelValues.isEmpty() ? metrics : labelValues + "," + metrics);
+        }
+    },
+
+    /**
+     * One JSON object by line, with the labels and all the metrics of each result
+     * (including the per-VM ones).
+     */
+    JSON_LINES("jsonl") {
+        @Override
+        void write(final PrintStream out, final ScenarioResult result, final Map<String, ?> labels) {
+            final var json = new LinkedHashMap<String, Object>(labels);
+            if(result != null) {
+                json.put("scenario", result.scenario());
+                json.put("algorithm", result.algorithm());
+                json.put("cloudlets", result.cloudlets());
+                json.put("totalExecutionTime", result.totalExecutionTime());
+                json.put("maxMakespan", result.maxMakespan());
+                json.put("averageUtilization", result.averageUtilization());
+                json.put("degreeOfImbalance", result.degreeOfImbalance());
+                json.put("completionTime", result.completionTime());
+                json.put("decisionLatency", result.decisionLatency());
+                json.put("makespanPerVm", result.makespanPerVm());
+                json.put("utilizationPerVm", result.utilizationPerVm());
+            }
+
+            out.println(GSON.toJson(json));
+        }
+    };
+
+    private static final Gson GSON = new Gson();
+
+    private final String extension;
+
+    ResultFormat(final String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Gets the extension of the files written in this format.
+     * @return
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Writes the header of a file, before its first result.
+     * @param out the stream to write to
+     * @param labels the labels of the first result
+     */
+    void writeHeader(final PrintStream out, final Map<String, ?> labels) {/**/}
+
+    /**
+     * Writes a result.
+     * @param out the stream to write to
+     * @param result the result to write or null if the run failed (only the labels are written)
+     * @param labels the labels of the result
+     */
+    abstract void write(PrintStream out, ScenarioResult result, Map<String, ?> labels);
+}
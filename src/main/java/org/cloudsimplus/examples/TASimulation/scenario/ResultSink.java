@@ -0,0 +1,309 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes {@link ScenarioResult}s to files in a given {@link ResultFormat},
+ * without redirecting {@link System#out}. This way, many simulations can report results at the same time.
+ *
+ * <p>Results are {@link #submit(ScenarioResult, Map) submitted} to a bounded queue
+ * and written by a single background thread, which writes all the queued results in a batch
+ * to a buffered stream and then flushes it. So, the simulations don't wait for the disk
+ * (unless the queue is full) nor contend with each other for a stream.</p>
+ *
+ * <p>A sink must be {@link #close() closed} to ensure all results are written.
+ * The writer is a daemon thread, so a sink that isn't closed doesn't keep the JVM running.
+ * If the writer fails, submitting more results or closing the sink fails instead of waiting for it.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class ResultSink implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Time (in milliseconds) to wait for space in the queue before checking if the writer is still alive. */
+    private static final long OFFER_TIMEOUT = 100;
+
+    private record Entry(ScenarioResult result, Map<String, ?> labels) {}
+
+    /** Signals the writer thread to finish. */
+    private static final Entry END = new Entry(null, Map.of());
+
+    private final ResultFormat format;
+    private final Path file;
+    private final Path directory;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private PrintStream fileOut;
+    private boolean closed;
+    private volatile IOException error;
+
+    /** Indicates if the writer thread took the {@link #END} entry, so all results were written or discarded. */
+    private volatile boolean finished;
+
+    private ResultSink(final ResultFormat format, final Path file, final Path directory) {
+        this.format = format;
+        this.file = file;
+        this.directory = directory;
+        this.queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.writer = new Thread(this::writeEntries, "ResultSink-" + format);
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Creates a sink that writes all results to a single file, in the order they are submitted.
+     * The parent directories are created if needed and an existing file is overwritten.
+     *
+     * @param file the file to write to
+     * @param format the format to write results in
+     * @return the new sink
+     * @throws IOException when the parent directories cannot be created
+     */
+    public static ResultSink toFile(final Path file, final ResultFormat format) throws IOException {
+        final var parent = file.toAbsolutePath().getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        return new ResultSink(format, file, null);
+    }
+
+    /**
+     * Creates a sink that writes each result to its own file, named after the scenario
+     * and the {@link ResultFormat#getExtension() format extension}.
+     *
+     * @param directory the directory to write the files to, which is created if needed
+     * @param format the format to write results in
+     * @return the new sink
+     * @throws IOException when the directory cannot be created
+     */
+    public static ResultSink toDirectory(final Path directory, final ResultFormat format) throws IOException {
+        Files.createDirectories(directory);
+        return new ResultSink(format, null, directory);
+    }
+
+    /**
+     * Writes a single result to a file, keeping the standard output untouched,
+     * as the TASimulation experiments do with their results.
+     * Then, reports in the standard output where the result was exported to
+     * or, if it couldn't be written, reports the error in the standard error.
+     *
+     * @param result the result to write
+     * @param file the file to write to, which is overwritten if it exists
+     * @param format the format to write the result in
+     * @return true if the result was written, false otherwise
+     */
+    public static boolean export(final ScenarioResult result, final Path file, final ResultFormat format) {
+        try (var sink = toFile(file, format)) {
+            sink.submit(result);
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error exporting the results to " + file + ": " + e.getMessage());
+            return false;
+        }
+
+        System.out.println("Terminal output exported to " + file);
+        return true;
+    }
+
+    /**
+     * Submits a result to be written.
+     * @param result the result to write
+     * @see #submit(ScenarioResult, Map)
+     */
+    public void submit(final ScenarioResult result) {
+        submit(result, Map.of());
+    }
+
+    /**
+     * Submits a result to be written, with some labels to identify it.
+     * It just waits if the results are being submitted faster than they can be written.
+     *
+     * @param result the result to write or null if the run failed (only the labels are written, if the format supports it)
+     * @param labels the labels to write before the metrics, in the map iteration order
+     *               (all results written to the same file must have the same label names)
+     * @throws IllegalStateException when the sink is closed or its writer thread has stopped
+     * @throws UncheckedIOException when a previous result couldn't be written
+     */
+    public void submit(final ScenarioResult result, final Map<String, ?> labels) {
+        checkError();
+        synchronized (this) {
+            if(closed)
+                throw new IllegalStateException("The ResultSink is closed");
+        }
+
+        try {
+            if(!enqueue(new Entry(result, labels))) {
+                checkError();
+                throw new IllegalStateException("The ResultSink writer has stopped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting a result", e);
+        }
+    }
+
+    /**
+     * Waits all submitted results to be written and closes the files.
+     * @throws IOException when some result couldn't be written or the writer thread has stopped
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if(closed)
+                return;
+            closed = true;
+        }
+
+        try {
+            if(enqueue(END)) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the ResultSink", e);
+        }
+
+        if(error != null)
+            throw error;
+        if(!finished)
+            throw new IOException("The ResultSink writer stopped before writing all results");
+    }
+
+    /**
+     * Adds an entry to the queue, waiting for space while the writer thread is alive.
+     * @return true if the entry was queued, false if the writer has stopped
+     */
+    private boolean enqueue(final Entry entry) throws InterruptedException {
+        while (!queue.offer(entry, OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            if(!writer.isAlive())
+                return false;
+        }
+
+        return true;
+    }
+
+    private void checkError() {
+        if(error != null)
+            throw new UncheckedIOException(error);
+    }
+
+    /**
+     * Writes batches of queued entries until the {@link #END} one is taken.
+     * After an error (including a runtime exception from the format), the entries are just discarded,
+     * so that submitters never block forever.
+     */
+    private void writeEntries() {
+        final var batch = new ArrayList<Entry>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (final var entry : batch) {
+                    if(entry == END) {
+                        finished = true;
+                        return;
+                    }
+
+                    writeOrDiscard(entry);
+                }
+
+                if(fileOut != null && error == null) {
+                    try {
+                        flush(fileOut);
+                    } catch (IOException e) {
+                        error = e;
+                    } catch (RuntimeException e) {
+                        error = new IOException("Error writing results", e);
+                    }
+                }
+
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if(fileOut != null) {
+                fileOut.close();
+            }
+        }
+    }
+
+    private void writeOrDiscard(final Entry entry) {
+        if(error != null)
+            return;
+
+        try {
+            write(entry);
+        } catch (IOException e) {
+            error = e;
+        } catch (RuntimeException e) {
+            error = new IOException("Error writing the result of " + (entry.result() == null ? entry.labels() : entry.result().scenario()), e);
+        }
+    }
+
+    private void write(final Entry entry) throws IOException {
+        if(directory == null) {
+            if(fileOut == null) {
+                fileOut = open(file);
+                format.writeHeader(fileOut, entry.labels());
+            }
+
+            format.write(fileOut, entry.result(), entry.labels());
+            return;
+        }
+
+        if(entry.result() == null)
+            return;
+
+        try (var out = open(directory.resolve(entry.result().scenario() + "." + format.getExtension()))) {
+            format.writeHeader(out, entry.labels());
+            format.write(out, entry.result(), entry.labels());
+            flush(out);
+        }
+    }
+
+    private static PrintStream open(final Path path) throws IOException {
+        return new PrintStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE), false, StandardCharsets.UTF_8);
+    }
+
+    private static void flush(final PrintStream out) throws IOException {
+        out.flush();
+        if(out.checkError())
+            throw new IOException("Error writing results");
+    }
+}
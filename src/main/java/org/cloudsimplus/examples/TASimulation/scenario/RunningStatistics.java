@@ -0,0 +1,113 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.apache.commons.math3.distribution.TDistribution;
+
+/**
+ * The running mean and variance of a metric over independent replications,
+ * updated in constant time and memory by
+ * <a href="https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Welford's_online_algorithm">Welford's algorithm</a>,
+ * which doesn't lose precision as the naive sum of squares does.
+ *
+ * <p>It isn't thread-safe: the values must be added by a single thread.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ * @see ReplicationRunner
+ */
+public final class RunningStatistics {
+    private long count;
+    private double mean;
+    /** The sum of the squared differences from the current mean. */
+    private double squaredDifferences;
+
+    /**
+     * Adds the value of a metric in a new replication.
+     * @param value the value to add
+     */
+    public void add(final double value) {
+        count++;
+        final double delta = value - mean;
+        mean += delta / count;
+        squaredDifferences += delta * (value - mean);
+    }
+
+    /**
+     * Gets the number of values added.
+     * @return
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the sample variance (using Bessel's correction).
+     * @return the variance or zero if less than two values were added
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : squaredDifferences / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the half-width of the confidence interval for the mean,
+     * using the Student's t-distribution since the variance is estimated from the values.
+     *
+     * @param confidence the confidence level, such as 0.95
+     * @return the half-width or {@link Double#POSITIVE_INFINITY} if less than two values were added
+     */
+    public double getHalfWidth(final double confidence) {
+        if(confidence <= 0 || confidence >= 1)
+            throw new IllegalArgumentException("The confidence level must be between 0 and 1");
+        if(count < 2)
+            return Double.POSITIVE_INFINITY;
+
+        final double t = new TDistribution(count - 1).inverseCumulativeProbability(1 - (1 - confidence) / 2);
+        return t * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    /**
+     * Checks if the confidence interval for the mean is as narrow as required.
+     *
+     * @param confidence the confidence level, such as 0.95
+     * @param relativeHalfWidth the maximum half-width, relative to the absolute mean (such as 0.05 for ±5%).
+     *                          When the mean is zero, the half-width must be zero.
+     * @return true if the half-width is within the limit, false otherwise
+     */
+    public boolean isPrecise(final double confidence, final double relativeHalfWidth) {
+        return getHalfWidth(confidence) <= relativeHalfWidth * Math.abs(mean);
+    }
+
+    @Override
+    public String toString() {
+        return "%.6f ± %.6f (n=%d)".formatted(mean, getStandardDeviation(), count);
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A declarative TASimulation experiment, read from a JSON file,
+ * which replaces the values the experiments ask in the terminal.
+ * It defines the Host, the VM MIPS, the initial load of each VM,
+ * the mix of task lengths submitted in the next timeslot
+ * and the load balancing algorithm with its parameters.
+ *
+ * <p>A scenario equivalent to the SA_E1 experiment with 10 new tasks is:</p>
+ * <pre>
+ * {
+ *   "name": "SA_E1",
+ *   "algorithm": "SA",
+ *   "vms": { "mips": [300, 300, 300, 250, 250] },
+ *   "initialTasks": [ { "length": 1000, "count": 20 } ],
+ *   "newTasks": [
+ *     { "length": 6000, "count": 2 }, { "length": 5000, "count": 2 },
+ *     { "length": 4000, "count": 2 }, { "length": 3000, "count": 2 },
+ *     { "length": 2000, "count": 1 }, { "length": 1000, "count": 1 }
+ *   ],
+ *   "submissionDelay": 20,
+ *   "parameters": { "coolingRate": 0.003 }
+ * }
+ * </pre>
+ *
+ * <p>An optional {@code "decisionLatency"} object (see {@link DecisionLatency})
+ * adds the time the algorithm takes to map the new tasks to their submission delay.</p>
+ *
+ * <p>Initial tasks without a {@link TaskGroup#getVm() VM} are split in contiguous blocks
+ * among the VMs, as the experiments do. Omitted Host attributes are scaled by the number of VMs,
+ * as the Demo experiments do, and omitted {@link #getParameters() algorithm parameters}
+ * take the values of the E1 experiments.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class Scenario {
+    /**
+     * The load balancing algorithms a scenario can be run with.
+     */
+    public enum Algorithm {
+        /** @see org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancer */
+        MARKOV,
+        /** @see org.cloudsimplus.examples.TASimulation.PLAC.PLACLoadBalancer */
+        PLAC,
+        /** @see org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingIncrementalSimulatedAnnealing */
+        SA
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private String name;
+    private Algorithm algorithm;
+    private HostSpec host = new HostSpec();
+    private VmSpec vms = new VmSpec();
+    private List<TaskGroup> initialTasks = new ArrayList<>();
+    private List<TaskGroup> newTasks = new ArrayList<>();
+    private double submissionDelay = 20;
+    private DecisionLatency decisionLatency = new DecisionLatency();
+    private Map<String, Double> parameters = Map.of();
+
+    /**
+     * Creates an empty scenario, to be filled by Gson.
+     */
+    private Scenario() {/**/}
+
+    /**
+     * Creates a scenario programmatically, such as for a {@link ParameterSweep} run.
+     * Host attributes are scaled by the number of VMs.
+     */
+    Scenario(
+        final String name, final Algorithm algorithm, final VmSpec vms,
+        final List<TaskGroup> initialTasks, final List<TaskGroup> newTasks,
+        final double submissionDelay, final DecisionLatency decisionLatency,
+        final Map<String, Double> parameters)
+    {
+        this.name = name;
+        this.algorithm = algorithm;
+        this.vms = vms;
+        this.initialTasks = new ArrayList<>(initialTasks);
+        this.newTasks = new ArrayList<>(newTasks);
+        this.submissionDelay = submissionDelay;
+        this.decisionLatency = decisionLatency;
+        this.parameters = Map.copyOf(parameters);
+    }
+
+    /**
+     * Creates a copy of this scenario with a different value for an algorithm parameter,
+     * such as the {@code seed} of a replication.
+     * @param name the parameter name
+     * @param value the parameter value
+     * @return a new scenario
+     */
+    Scenario withParameter(final String name, final double value) {
+        final var newParameters = new HashMap<>(parameters);
+        newParameters.put(name, value);
+        final var copy = new Scenario(this.name, algorithm, vms, initialTasks, newTasks, submissionDelay, decisionLatency, newParameters);
+        copy.host = host;
+        return copy;
+    }
+
+    /**
+     * Reads a scenario from a JSON file.
+     * If the scenario has no name, the file name (without extension) is used.
+     *
+     * @param file the JSON file to read
+     * @return the validated scenario
+     * @throws UncheckedIOException when the file cannot be read
+     * @throws IllegalArgumentException when the file is not a valid scenario
+     */
+    public static Scenario read(final Path file) {
+        try (var reader = Files.newBufferedReader(file)) {
+            final var scenario = read(reader);
+            if(scenario.name == null || scenario.name.isBlank()) {
+                scenario.name = file.getFileName().toString().replaceFirst("\\.json$", "");
+            }
+
+            return scenario.validate();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading scenario " + file, e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a scenario from a JSON reader, without validating it.
+     * @param reader the reader to get the JSON from
+     * @return the read scenario
+     * @throws IllegalArgumentException when the JSON is malformed
+     */
+    static Scenario read(final Reader reader) {
+        try {
+            final var scenario = GSON.fromJson(reader, Scenario.class);
+            if(scenario == null)
+                throw new IllegalArgumentException("Empty scenario");
+            return scenario;
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Malformed scenario: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Checks that all required values are present and consistent.
+     * @return this scenario
+     * @throws IllegalArgumentException when some value is missing or invalid
+     */
+    public Scenario validate() {
+        if(algorithm == null)
+            throw new IllegalArgumentException("The algorithm must be one of " + List.of(Algorithm.values()));
+        if(vms == null || vms.mips == null || vms.mips.isEmpty())
+            throw new IllegalArgumentException("The MIPS of at least one VM must be given");
+        if(vms.mips.stream().anyMatch(mips -> mips == null || mips <= 0))
+            throw new IllegalArgumentException("VM MIPS must be greater than zero");
+        if(vms.pes <= 0)
+            throw new IllegalArgumentException("VM PEs must be greater than zero");
+        if(newTasks == null || newTasks.isEmpty())
+            throw new IllegalArgumentException("At least one group of new tasks must be given");
+        if(initialTasks == null)
+            initialTasks = new ArrayList<>();
+        if(host == null)
+            host = new HostSpec();
+        if(parameters == null)
+            parameters = Map.of();
+        if(submissionDelay < 0)
+            throw new IllegalArgumentException("The submission delay cannot be negative");
+        if(decisionLatency == null)
+            decisionLatency = new DecisionLatency();
+        decisionLatency.validate();
+
+        initialTasks.forEach(group -> group.validate(vms.mips.size()));
+        newTasks.forEach(group -> group.validate(vms.mips.size()));
+        return this;
+    }
+
+    /**
+     * Gets the scenario name, used to name its result files.
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public HostSpec getHost() {
+        return host;
+    }
+
+    public VmSpec getVms() {
+        return vms;
+    }
+
+    /**
+     * Gets the tasks submitted at the beginning of the simulation, bound to VMs,
+     * which represent the current load of each VM.
+     * @return
+     */
+    public List<TaskGroup> getInitialTasks() {
+        return initialTasks;
+    }
+
+    /**
+     * Gets the mix of tasks submitted in the next timeslot, which are mapped by the algorithm.
+     * @return
+     */
+    public List<TaskGroup> getNewTasks() {
+        return newTasks;
+    }
+
+    /**
+     * Gets the delay (in seconds) to submit the {@link #getNewTasks() new tasks}.
+     * @return
+     */
+    public double getSubmissionDelay() {
+        return submissionDelay;
+    }
+
+    /**
+     * Gets how the time the algorithm takes to map the new tasks delays their submission.
+     * @return
+     */
+    public DecisionLatency getDecisionLatency() {
+        return decisionLatency;
+    }
+
+    /**
+     * Gets the algorithm parameters, whose names depend on the {@link #getAlgorithm() algorithm}.
+     * @return
+     */
+    public Map<String, Double> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Gets an algorithm parameter.
+     * @param name the parameter name
+     * @param defaultValue the value to return if the parameter is not given
+     * @return the parameter value or the default one
+     */
+    public double getParameter(final String name, final double defaultValue) {
+        return parameters.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * The Host where the VMs are placed.
+     * Attributes equal to zero are scaled by the number of VMs.
+     */
+    public static class HostSpec {
+        private int pes;
+        private long mips;
+        private long ram;
+        private long bw;
+        private long storage;
+
+        public int getPes(final int vms) {
+            return pes > 0 ? pes : vms;
+        }
+
+        public long getMips(final int vms) {
+            return mips > 0 ? mips : 1000L * vms;
+        }
+
+        public long getRam(final int vms) {
+            return ram > 0 ? ram : 512L * vms;
+        }
+
+        public long getBw(final int vms) {
+            return bw > 0 ? bw : 1000L * vms;
+        }
+
+        public long getStorage(final int vms) {
+            return storage > 0 ? storage : 10_000L * vms;
+        }
+    }
+
+    /**
+     * The VMs to create, one for each MIPS value.
+     */
+    public static class VmSpec {
+        private List<Integer> mips = new ArrayList<>();
+        private int pes = 1;
+
+        private VmSpec() {/**/}
+
+        VmSpec(final List<Integer> mips, final int pes) {
+            this.mips = List.copyOf(mips);
+            this.pes = pes;
+        }
+
+        public List<Integer> getMips() {
+            return mips;
+        }
+
+        public int getPes() {
+            return pes;
+        }
+    }
+
+    /**
+     * A number of tasks with the same length.
+     */
+    public static class TaskGroup {
+        private long length;
+        private int count = 1;
+        private Integer vm;
+
+        private TaskGroup() {/**/}
+
+        TaskGroup(final long length, final int count, final Integer vm) {
+            this.length = length;
+            this.count = count;
+            this.vm = vm;
+        }
+
+        private void validate(final int vms) {
+            if(length <= 0)
+                throw new IllegalArgumentException("Task length must be greater than zero");
+            if(count < 0)
+                throw new IllegalArgumentException("Task count cannot be negative");
+            if(vm != null && (vm < 0 || vm >= vms))
+                throw new IllegalArgumentException("Task VM index must be between 0 and " + (vms - 1));
+        }
+
+        /**
+         * Gets the length of each task (in MI).
+         * @return
+         */
+        public long getLength() {
+            return length;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the index of the VM the tasks are bound to (only for initial tasks).
+         * @return the VM index or null if the tasks are split among all VMs
+         */
+        public Integer getVm() {
+            return vm;
+        }
+    }
+
+    /**
+     * Defines how the cost of computing the mapping of the new tasks is converted
+     * into simulated time, which is added to the {@link #getSubmissionDelay() submission delay}
+     * of those tasks. Without it, every algorithm maps tasks instantly in simulated time,
+     * hiding the difference between an exact solve and an iterative search.
+     *
+     * <p>For instance, {@code "decisionLatency": { "model": "OPERATIONS", "secondsByOperation": 1e-8 }}
+     * charges 10 ns for each basic operation of the algorithm.</p>
+     */
+    public static class DecisionLatency {
+        /**
+         * The ways the cost of an algorithm invocation is obtained.
+         */
+        public enum Model {
+            /** The mapping takes no simulated time (as in the TASimulation experiments). */
+            NONE,
+            /** The wall-clock time of the invocation, multiplied by the {@link #getScale() scale}. */
+            WALL_CLOCK,
+            /**
+             * The number of basic operations of the invocation
+             * (see {@link ScenarioSimulation}), multiplied by the {@link #getSecondsByOperation() seconds by operation}.
+             * Unlike the wall-clock time, it doesn't depend on the machine nor on the JVM warm-up.
+             */
+            OPERATIONS
+        }
+
+        private Model model = Model.NONE;
+        private double scale = 1;
+        private double secondsByOperation = 1e-8;
+
+        private DecisionLatency() {/**/}
+
+        DecisionLatency(final Model model, final double scale, final double secondsByOperation) {
+            this.model = model;
+            this.scale = scale;
+            this.secondsByOperation = secondsByOperation;
+        }
+
+        private void validate() {
+            if(model == null)
+                throw new IllegalArgumentException("The decision latency model must be one of " + List.of(Model.values()));
+            if(scale < 0 || secondsByOperation < 0)
+                throw new IllegalArgumentException("The decision latency scale and seconds by operation cannot be negative");
+        }
+
+        public Model getModel() {
+            return model;
+        }
+
+        /**
+         * Gets the simulated seconds charged for each wall-clock second, for the {@link Model#WALL_CLOCK} model.
+         * @return
+         */
+        public double getScale() {
+            return scale;
+        }
+
+        /**
+         * Gets the simulated seconds charged for each basic operation, for the {@link Model#OPERATIONS} model.
+         * @return
+         */
+        public double getSecondsByOperation() {
+            return secondsByOperation;
+        }
+
+        /**
+         * Converts the cost of an algorithm invocation into simulated time, according to the {@link #getModel() model}.
+         * @param wallClockNanos the wall-clock time the invocation took (in nanoseconds)
+         * @param operations the number of basic operations the invocation performed
+         * @return the decision latency (in seconds)
+         */
+        public double toSeconds(final long wallClockNanos, final long operations) {
+            return switch (model) {
+                case NONE -> 0;
+                case WALL_CLOCK -> wallClockNanos / 1e9 * scale;
+                case OPERATIONS -> operations * secondsByOperation;
+            };
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerSpaceShared;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the Datacenter, Hosts, VMs and Cloudlets of the TASimulation experiments,
+ * which used to be copied into each experiment.
+ *
+ * <p>All Cloudlets created by a factory share the same three utilization models
+ * (100% of CPU, 60% of RAM and 70% of BW), instead of creating new ones for each call or Cloudlet.
+ * Since those models keep the last utilization they computed, a factory must be used
+ * for a single simulation. All lists are created with their final size, so that
+ * scenarios with hundreds of thousands of Cloudlets don't spend their setup time resizing them.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class ScenarioFactory {
+    /** The file and output size (in bytes) of each Cloudlet. */
+    public static final long CLOUDLET_SIZE = 300;
+
+    private static final long VM_RAM = 512; //in Megabytes
+    private static final long VM_BW = 1000; //in Megabits/s
+    private static final long VM_SIZE = 10_000; //in Megabytes
+
+    private final CloudSimPlus simulation;
+    private final UtilizationModel cpuUtilizationModel;
+    private final UtilizationModel ramUtilizationModel;
+    private final UtilizationModel bwUtilizationModel;
+
+    /**
+     * Creates a factory for the entities of a simulation.
+     * @param simulation the simulation the Datacenters will be created in
+     */
+    public ScenarioFactory(final CloudSimPlus simulation) {
+        this.simulation = simulation;
+        this.cpuUtilizationModel = new UtilizationModelDynamic(1.0);
+        this.ramUtilizationModel = new UtilizationModelDynamic(0.6);
+        this.bwUtilizationModel = new UtilizationModelDynamic(0.7);
+    }
+
+    /**
+     * Creates a Datacenter with a number of identical Hosts.
+     * It uses a VmAllocationPolicySimple by default to allocate VMs.
+     *
+     * @param hosts the number of Hosts to create
+     * @param pes the number of PEs of each Host
+     * @param mips the capacity of each PE (in MIPS)
+     * @param ram the RAM of each Host (in Megabytes)
+     * @param bw the bandwidth of each Host (in Megabits/s)
+     * @param storage the storage of each Host (in Megabytes)
+     * @return the created Datacenter
+     */
+    public Datacenter createDatacenter(
+        final int hosts, final int pes, final long mips,
+        final long ram, final long bw, final long storage)
+    {
+        final var hostList = new ArrayList<Host>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            hostList.add(createHost(pes, mips, ram, bw, storage));
+        }
+
+        return new DatacenterSimple(simulation, hostList);
+    }
+
+    /**
+     * Creates a Host, which uses ResourceProvisionerSimple by default for RAM and BW provisioning
+     * and VmSchedulerSpaceShared for VM scheduling.
+     *
+     * @param pes the number of PEs of the Host
+     * @param mips the capacity of each PE (in MIPS)
+     * @param ram the RAM of the Host (in Megabytes)
+     * @param bw the bandwidth of the Host (in Megabits/s)
+     * @param storage the storage of the Host (in Megabytes)
+     * @return the created Host
+     */
+    public Host createHost(final int pes, final long mips, final long ram, final long bw, final long storage) {
+        return new HostSimple(ram, bw, storage, createPeList(pes, mips));
+    }
+
+    /**
+     * Creates the PEs of a Host. Each Host needs its own PEs, since they keep the Host allocation state.
+     * @param pes the number of PEs to create
+     * @param mips the capacity of each PE (in MIPS)
+     * @return the list of PEs
+     */
+    public static List<Pe> createPeList(final int pes, final long mips) {
+        final var peList = new ArrayList<Pe>(pes);
+        for (int i = 0; i < pes; i++) {
+            //Uses a PeProvisionerSimple by default to provision PEs for VMs
+            peList.add(new PeSimple(mips));
+        }
+
+        return peList;
+    }
+
+    /**
+     * Creates one VM for each MIPS value, using a CloudletSchedulerSpaceShared.
+     * @param mips the capacity of each VM PE (in MIPS)
+     * @param pes the number of PEs of each VM
+     * @return the list of VMs, in the order of the MIPS values
+     */
+    public List<Vm> createVms(final List<Integer> mips, final int pes) {
+        final var vmList = new ArrayList<Vm>(mips.size());
+        for (final int vmMips : mips) {
+            vmList.add(createVm(vmMips, pes));
+        }
+
+        return vmList;
+    }
+
+    /**
+     * Creates a VM using a CloudletSchedulerSpaceShared.
+     * @param mips the capacity of each VM PE (in MIPS)
+     * @param pes the number of PEs of the VM
+     * @return the created VM
+     */
+    public Vm createVm(final double mips, final int pes) {
+        return new VmSimple(mips, pes)
+            .setRam(VM_RAM).setBw(VM_BW).setSize(VM_SIZE)
+            .setCloudletScheduler(new CloudletSchedulerSpaceShared());
+    }
+
+    /**
+     * Creates one Cloudlet for each length.
+     * @param lengths the length of each Cloudlet (in MI)
+     * @param pes the number of PEs of each Cloudlet
+     * @return the list of Cloudlets, in the order of the lengths
+     */
+    public List<Cloudlet> createCloudlets(final List<? extends Number> lengths, final int pes) {
+        final var cloudletList = new ArrayList<Cloudlet>(lengths.size());
+        for (final var length : lengths) {
+            cloudletList.add(createCloudlet(length.longValue(), pes));
+        }
+
+        return cloudletList;
+    }
+
+    /**
+     * Creates a number of Cloudlets with the same length.
+     * @param length the length of each Cloudlet (in MI)
+     * @param count the number of Cloudlets to create
+     * @param pes the number of PEs of each Cloudlet
+     * @return the list of Cloudlets
+     */
+    public List<Cloudlet> createCloudlets(final long length, final int count, final int pes) {
+        final var cloudletList = new ArrayList<Cloudlet>(count);
+        for (int i = 0; i < count; i++) {
+            cloudletList.add(createCloudlet(length, pes));
+        }
+
+        return cloudletList;
+    }
+
+    /**
+     * Creates a Cloudlet using the utilization models shared by all Cloudlets of this factory.
+     * @param length the length of the Cloudlet (in MI)
+     * @param pes the number of PEs of the Cloudlet
+     * @return the created Cloudlet
+     */
+    public Cloudlet createCloudlet(final long length, final int pes) {
+        return new CloudletSimple(length, pes, cpuUtilizationModel)
+            .setSizes(CLOUDLET_SIZE)
+            .setUtilizationModelRam(ramUtilizationModel)
+            .setUtilizationModelBw(bwUtilizationModel);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.builders.tables.CloudletsTableBuilder;
+import org.cloudsimplus.builders.tables.MarkdownTable;
+import org.cloudsimplus.builders.tables.MarkdownTableColumn;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The metrics of a {@link Scenario} run, computed as the TASimulation experiments do.
+ *
+ * @param scenario the name of the scenario
+ * @param algorithm the algorithm the scenario was run with
+ * @param cloudlets the number of finished Cloudlets
+ * @param makespanPerVm the sum of the execution time of the Cloudlets run by each VM that ran any
+ * @param totalExecutionTime the sum of the execution time of all Cloudlets
+ * @param maxMakespan the maximum makespan among all VMs
+ * @param utilizationPerVm the makespan of each VM relative to the maximum makespan
+ * @param averageUtilization the mean of {@code utilizationPerVm}
+ * @param degreeOfImbalance {@code (Tmax - Tmin)/Tavg}, where T is the execution time of each Cloudlet
+ * @param completionTime the time the last Cloudlet finished, which includes the submission delays,
+ *                       the waiting times and the {@code decisionLatency}
+ * @param decisionLatency the time (in seconds) the algorithm took to map the new Cloudlets,
+ *                        according to the {@link Scenario.DecisionLatency decision latency model}
+ * @param finishedCloudlets the finished Cloudlets to print in the result table,
+ *                          which may be empty when they were not kept
+ * @since CloudSim Plus 8.5.0
+ * @see CloudletMetricsCollector
+ */
+public record ScenarioResult(
+    String scenario, Scenario.Algorithm algorithm, long cloudlets,
+    List<Double> makespanPerVm, double totalExecutionTime, double maxMakespan,
+    List<Double> utilizationPerVm, double averageUtilization, double degreeOfImbalance,
+    double completionTime, double decisionLatency, List<Cloudlet> finishedCloudlets)
+{
+    /** The columns of the {@link #printSummaryRow(PrintStream) summary rows}. */
+    public static final String SUMMARY_HEADER =
+        "scenario,algorithm,cloudlets,totalExecutionTime,maxMakespan,averageUtilization,degreeOfImbalance,"+
+        "completionTime,decisionLatency";
+
+    /**
+     * Computes the metrics of a finished scenario.
+     *
+     * @param scenario the scenario that was run
+     * @param vmList the VMs created for the scenario
+     * @param finishedCloudlets the Cloudlets finished by the broker
+     * @return the scenario result
+     */
+    public static ScenarioResult of(final Scenario scenario, final List<Vm> vmList, final List<Cloudlet> finishedCloudlets) {
+        return of(scenario.getName(), scenario.getAlgorithm(), vmList, finishedCloudlets);
+    }
+
+    /**
+     * Computes the metrics of a finished simulation that wasn't created from a {@link Scenario}.
+     *
+     * @param name the name to identify the simulation
+     * @param algorithm the algorithm used to map Cloudlets to VMs
+     * @param vmList the VMs created for the simulation
+     * @param finishedCloudlets the Cloudlets finished by the broker
+     * @return the simulation result
+     */
+    public static ScenarioResult of(
+        final String name, final Scenario.Algorithm algorithm,
+        final List<Vm> vmList, final List<? extends Cloudlet> finishedCloudlets)
+    {
+        final var collector = new CloudletMetricsCollector();
+        finishedCloudlets.forEach(collector::add);
+        return collector.getResult(name, algorithm, vmList, finishedCloudlets);
+    }
+
+    /**
+     * Prints the metrics and the finished Cloudlets table (if they were kept),
+     * in the same format as the TASimulation experiments.
+     * @param out the stream to print to
+     */
+    public void print(final PrintStream out) {
+        out.println("This is Makespan per vm " + makespanPerVm);
+        out.println("This is Total Execution Time " + totalExecutionTime);
+        out.println("This is Maximum Makespan " + maxMakespan);
+        out.println("This is Utilization per VM " + utilizationPerVm);
+        out.println("This is Average Utilization " + averageUtilization);
+        out.println("This is Degree of Imbalance " + degreeOfImbalance);
+        if(decisionLatency > 0) {
+            out.println("This is Decision Latency " + decisionLatency);
+            out.println("This is Completion Time " + completionTime);
+        }
+
+        if(finishedCloudlets.isEmpty())
+            return;
+
+        final var sortedCloudlets = new ArrayList<>(finishedCloudlets);
+        sortedCloudlets.sort(Comparator.comparingLong(cloudlet -> cloudlet.getVm().getId()));
+        final var table = new MarkdownTable();
+        table.setPrintStream(out);
+        new CloudletsTableBuilder(sortedCloudlets, table)
+            .addColumn(new MarkdownTableColumn(" Vm ", "ID"), Cloudlet::getVm)
+            .build();
+    }
+
+    /**
+     * Prints a CSV row with the scalar metrics, whose columns are given by {@link #SUMMARY_HEADER}.
+     * @param out the stream to print to
+     */
+    public void printSummaryRow(final PrintStream out) {
+        out.println(getSummaryRow());
+    }
+
+    /**
+     * Gets a CSV row (without line break) with the scalar metrics,
+     * whose columns are given by {@link #SUMMARY_HEADER}.
+     * @return
+     */
+    public String getSummaryRow() {
+        return "%s,%s,%d,%s,%s,%s,%s,%s,%s".formatted(
+            scenario, algorithm, cloudlets,
+            totalExecutionTime, maxMakespan, averageUtilization, degreeOfImbalance,
+            completionTime, decisionLatency);
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerHeuristic;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.distributions.UniformDistr;
+import org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancer;
+import org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancerDemo;
+import org.cloudsimplus.examples.TASimulation.PLAC.PLACLoadBalancer;
+import org.cloudsimplus.examples.TASimulation.SA.AdaptiveCoolingSchedule;
+import org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingIncrementalSimulatedAnnealing;
+import org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingParallelTempering;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds and runs the simulation described by a {@link Scenario},
+ * with the same Datacenter, VMs and Cloudlets the TASimulation experiments create,
+ * but without asking anything in the terminal.
+ *
+ * <p>The initial tasks are always bound to VMs before the new tasks are mapped.
+ * Markov uses the {@link MarkovLoadBalancer} when all VMs have the same initial load
+ * (as in the E1/E2 experiments) and the {@link MarkovLoadBalancerDemo} with the backlog length of each VM
+ * otherwise (as in the Demo experiments).</p>
+ *
+ * <p>The algorithm parameters (and their defaults) are:</p>
+ * <ul>
+ *   <li>PLAC: {@code ants} (number of VMs + 2), {@code q} (1), {@code alpha} (3), {@code beta} (2),
+ *       {@code gamma} (8), {@code rho} (0.01), {@code iterations} (50) and {@code seed} (random);</li>
+ *   <li>SA: {@code initialTemperature} (1), {@code coldTemperature} (0.0001), {@code coolingRate} (0.003),
+ *       {@code searchesByIteration} (50), {@code seed} (random) and {@code replicas} (1).
+ *       With 2 or more replicas, the {@link CloudletToVmMappingParallelTempering} is used,
+ *       with its {@code exchangeInterval} (1) and {@code temperatureRatio} (100).
+ *       Each search can be bounded by a {@code maxSolveTime} in seconds and by {@code maxEvaluations} (0, unbounded).
+ *       An {@code adaptiveCooling} greater than 0 (disabled by default) enables the {@link AdaptiveCoolingSchedule},
+ *       with its {@code targetAcceptanceRatio} (0.44) and {@code stagnationIterations} (300),
+ *       which calibrates the initial temperature and cools or reheats the search to follow a target acceptance ratio.
+ *       The {@link TimeslotSimulation} also uses {@code warmStart} (0, disabled) and {@code warmStartTemperature}
+ *       (the initial temperature).</li>
+ * </ul>
+ *
+ * <p>When the scenario has a {@link Scenario.DecisionLatency decision latency} model,
+ * the time the algorithm takes to map the new tasks is added to their submission delay.
+ * SA then solves the mapping before submitting the tasks, instead of inside the broker,
+ * so that its cost can be measured. The basic operations counted for each algorithm are:</p>
+ * <ul>
+ *   <li>Markov: the terms summed by the memoized recursions computing the normalization constants
+ *       ({@code 2 × vms × (tasks + 1)²}) plus the task allocation ({@code tasks × vms});</li>
+ *   <li>PLAC: the probability computation and the ant votes of each task in each iteration
+ *       ({@code iterations × tasks × vms × (2 × ants + 4)});</li>
+ *   <li>SA: the {@link CloudletToVmMappingIncrementalSimulatedAnnealing#getEvaluatedNeighbors() evaluated neighbors}.</li>
+ * </ul>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class ScenarioSimulation {
+    private static final int CLOUDLET_PES = 1;
+
+    private final Scenario scenario;
+    private final CloudSimPlus simulation;
+    private final ScenarioFactory factory;
+    private final List<Vm> vmList;
+    private final List<Cloudlet> initialCloudlets;
+    private final List<Cloudlet> newCloudlets;
+    private final CloudletMetricsCollector metrics;
+    private boolean keepFinishedCloudlets;
+    private double decisionLatency;
+
+    /**
+     * Creates the simulation entities of a scenario.
+     * @param scenario the scenario to simulate
+     */
+    public ScenarioSimulation(final Scenario scenario) {
+        this.scenario = scenario.validate();
+        this.simulation = new CloudSimPlus();
+        this.factory = new ScenarioFactory(simulation);
+        createDatacenter();
+        this.vmList = createVms();
+        this.initialCloudlets = createInitialCloudlets();
+        this.newCloudlets = createCloudlets(scenario.getNewTasks());
+        this.metrics = new CloudletMetricsCollector();
+        this.keepFinishedCloudlets = true;
+    }
+
+    /**
+     * Checks if the result of the simulation keeps the finished Cloudlets, to print them in a table.
+     * @return
+     */
+    public boolean isKeepFinishedCloudlets() {
+        return keepFinishedCloudlets;
+    }
+
+    /**
+     * Defines if the result of the simulation keeps the finished Cloudlets, to print them in a table.
+     * The metrics are computed as Cloudlets finish, so they don't need the finished Cloudlets.
+     * @param keepFinishedCloudlets true to keep the finished Cloudlets (the default), false otherwise
+     * @return
+     */
+    public ScenarioSimulation setKeepFinishedCloudlets(final boolean keepFinishedCloudlets) {
+        this.keepFinishedCloudlets = keepFinishedCloudlets;
+        return this;
+    }
+
+    /**
+     * Maps the new tasks using the scenario algorithm, runs the simulation and computes its metrics.
+     * @return the scenario result
+     */
+    public ScenarioResult run() {
+        final var broker = switch (scenario.getAlgorithm()) {
+            case MARKOV -> submitMarkov();
+            case PLAC -> submitPlac();
+            case SA -> submitSimulatedAnnealing();
+        };
+
+        simulation.start();
+        final List<Cloudlet> finishedCloudlets = keepFinishedCloudlets ? broker.getCloudletFinishedList() : List.of();
+        return metrics.getResult(scenario.getName(), scenario.getAlgorithm(), vmList, finishedCloudlets, decisionLatency);
+    }
+
+    private DatacenterBroker submitMarkov() {
+        final var broker = new DatacenterBrokerSimple(simulation);
+        final var backlogLengths = getBacklogLengths();
+        final boolean evenInitialLoad = backlogLengths.stream().distinct().count() == 1;
+        final List<Cloudlet> allocatedCloudlets;
+        final long startNanos = System.nanoTime();
+        try {
+            allocatedCloudlets = evenInitialLoad ?
+                new MarkovLoadBalancer().getAllocatedNewCloudlets(newCloudlets, vmList, initialCloudlets.size()) :
+                new MarkovLoadBalancerDemo().getAllocatedNewCloudlets(newCloudlets, vmList, initialCloudlets.size(), backlogLengths);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        setDecisionLatency(startNanos, getMarkovOperations(newCloudlets.size(), vmList.size()));
+        submit(broker, allocatedCloudlets);
+        return broker;
+    }
+
+    private DatacenterBroker submitPlac() {
+        final var plac = createPlac(scenario, vmList.size());
+        final int iterations = (int) scenario.getParameter("iterations", 50);
+        final var backlogExecutionTimes = getBacklogExecutionTimes();
+        final long startNanos = System.nanoTime();
+        try {
+            final var map = plac.implement(newCloudlets, vmList, iterations, backlogExecutionTimes);
+            for (int i = 0; i < newCloudlets.size(); i++) {
+                final Integer vm = map.get(i);
+                if (vm != null) {
+                    newCloudlets.get(i).setVm(vmList.get(vm));
+                }
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        setDecisionLatency(startNanos, getPlacOperations(scenario, newCloudlets.size(), vmList.size()));
+        final var broker = new DatacenterBrokerSimple(simulation);
+        submit(broker, newCloudlets);
+        return broker;
+    }
+
+    private DatacenterBroker submitSimulatedAnnealing() {
+        final var heuristic = createSimulatedAnnealing(scenario);
+        heuristic.getCostModel().setBacklog(initialCloudlets);
+
+        if(scenario.getDecisionLatency().getModel() == Scenario.DecisionLatency.Model.NONE) {
+            final var broker = new DatacenterBrokerHeuristic(simulation);
+            broker.setHeuristic(heuristic);
+            submit(broker, newCloudlets);
+            return broker;
+        }
+
+        heuristic.setVmList(vmList);
+        heuristic.setCloudletList(newCloudlets);
+        final long startNanos = System.nanoTime();
+        final var solution = heuristic.solve();
+        setDecisionLatency(startNanos, heuristic.getEvaluatedNeighbors());
+        solution.getResult().forEach(Cloudlet::setVm);
+
+        final var broker = new DatacenterBrokerSimple(simulation);
+        submit(broker, newCloudlets);
+        return broker;
+    }
+
+    /**
+     * Creates the PLAC load balancer with the parameters of a scenario.
+     * @param scenario the scenario to get the parameters from
+     * @param vms the number of VMs, which defines the default number of ants
+     * @return the load balancer, seeded if the scenario has a {@code seed}
+     */
+    static PLACLoadBalancer createPlac(final Scenario scenario, final int vms) {
+        final var plac = new PLACLoadBalancer(
+            (int) scenario.getParameter("ants", vms + 2),
+            scenario.getParameter("q", 1), scenario.getParameter("alpha", 3),
+            scenario.getParameter("beta", 2), scenario.getParameter("gamma", 8),
+            scenario.getParameter("rho", 0.01));
+        final double seed = scenario.getParameter("seed", -1);
+        if (seed >= 0) {
+            plac.setSeed((long) seed);
+        }
+
+        return plac;
+    }
+
+    /**
+     * Creates the Simulated Annealing heuristic with the parameters of a scenario,
+     * which runs {@link CloudletToVmMappingParallelTempering parallel replicas} when the scenario has 2 or more {@code replicas}.
+     * @param scenario the scenario to get the parameters from
+     * @return the heuristic, seeded if the scenario has a {@code seed}
+     */
+    static CloudletToVmMappingIncrementalSimulatedAnnealing createSimulatedAnnealing(final Scenario scenario) {
+        final double seed = scenario.getParameter("seed", -1);
+        final var random = seed < 0 ? new UniformDistr(0, 1) : new UniformDistr(0, 1, (long) seed);
+        final double initialTemperature = scenario.getParameter("initialTemperature", 1);
+        final int replicas = (int) scenario.getParameter("replicas", 1);
+        final CloudletToVmMappingIncrementalSimulatedAnnealing heuristic;
+        if(replicas > 1) {
+            heuristic = new CloudletToVmMappingParallelTempering(initialTemperature, random)
+                .setReplicas(replicas)
+                .setExchangeInterval((int) scenario.getParameter("exchangeInterval", 1))
+                .setTemperatureRatio(scenario.getParameter("temperatureRatio", 100));
+        } else heuristic = new CloudletToVmMappingIncrementalSimulatedAnnealing(initialTemperature, random);
+
+        heuristic.setColdTemperature(scenario.getParameter("coldTemperature", 0.0001))
+                 .setCoolingRate(scenario.getParameter("coolingRate", 0.003))
+                 .setSearchesByIteration((int) scenario.getParameter("searchesByIteration", 50));
+        heuristic.setMaxSolveTime(scenario.getParameter("maxSolveTime", 0))
+                 .setMaxEvaluations((long) scenario.getParameter("maxEvaluations", 0))
+                 .setWarmStartTemperature(scenario.getParameter("warmStartTemperature", initialTemperature));
+        if(scenario.getParameter("adaptiveCooling", 0) > 0) {
+            final var adaptiveCooling = new AdaptiveCoolingSchedule()
+                .setTargetAcceptanceRatio(scenario.getParameter("targetAcceptanceRatio", 0.44))
+                .setStagnationIterations((int) scenario.getParameter("stagnationIterations", 300));
+            heuristic.setAdaptiveCooling(adaptiveCooling);
+        }
+
+        return heuristic;
+    }
+
+    /**
+     * Gets the basic operations Markov performs to map a number of tasks.
+     */
+    static long getMarkovOperations(final long tasks, final long vms) {
+        return 2 * vms * (tasks + 1) * (tasks + 1) + tasks * vms;
+    }
+
+    /**
+     * Gets the basic operations PLAC performs to map a number of tasks, with the parameters of a scenario.
+     */
+    static long getPlacOperations(final Scenario scenario, final long tasks, final long vms) {
+        final long iterations = (long) scenario.getParameter("iterations", 50);
+        final long ants = (long) scenario.getParameter("ants", vms + 2);
+        return iterations * tasks * vms * (2 * ants + 4);
+    }
+
+    /**
+     * Converts the cost of the algorithm invocation that started at a given time
+     * into the {@link #decisionLatency}, according to the scenario model.
+     * @param startNanos the {@link System#nanoTime()} when the invocation started
+     * @param operations the number of basic operations the invocation performed
+     */
+    private void setDecisionLatency(final long startNanos, final long operations) {
+        decisionLatency = scenario.getDecisionLatency().toSeconds(System.nanoTime() - startNanos, operations);
+    }
+
+    private void submit(final DatacenterBroker broker, final List<Cloudlet> mappedCloudlets) {
+        metrics.subscribe(initialCloudlets).subscribe(mappedCloudlets);
+        broker.submitVmList(vmList);
+        broker.submitCloudletList(initialCloudlets);
+        broker.submitCloudletList(mappedCloudlets, scenario.getSubmissionDelay() + decisionLatency);
+    }
+
+    /**
+     * Gets the total length (in MI) of the initial tasks bound to each VM.
+     */
+    private List<Integer> getBacklogLengths() {
+        final var lengths = new ArrayList<Integer>(vmList.size());
+        for (final var vm : vmList) {
+            lengths.add((int) initialCloudlets.stream().filter(cloudlet -> cloudlet.getVm() == vm).mapToLong(Cloudlet::getLength).sum());
+        }
+
+        return lengths;
+    }
+
+    /**
+     * Gets the time (in seconds) each VM takes to run its initial tasks.
+     */
+    private List<Double> getBacklogExecutionTimes() {
+        final var times = new ArrayList<Double>(vmList.size());
+        for (final var vm : vmList) {
+            times.add(initialCloudlets.stream().filter(cloudlet -> cloudlet.getVm() == vm).mapToDouble(cloudlet -> cloudlet.getLength() / vm.getMips()).sum());
+        }
+
+        return times;
+    }
+
+    private void createDatacenter() {
+        final int vms = scenario.getVms().getMips().size();
+        final var hostSpec = scenario.getHost();
+        factory.createDatacenter(
+            1, hostSpec.getPes(vms), hostSpec.getMips(vms),
+            hostSpec.getRam(vms), hostSpec.getBw(vms), hostSpec.getStorage(vms));
+    }
+
+    private List<Vm> createVms() {
+        final var vmSpec = scenario.getVms();
+        return factory.createVms(vmSpec.getMips(), vmSpec.getPes());
+    }
+
+    /**
+     * Creates the initial tasks, binding the ones without a VM in contiguous blocks
+     * of the same size to each VM, as the experiments do.
+     */
+    private List<Cloudlet> createInitialCloudlets() {
+        final var list = createCloudlets(scenario.getInitialTasks());
+        final var unbound = new ArrayList<Cloudlet>();
+        int i = 0;
+        for (final var group : scenario.getInitialTasks()) {
+            for (int j = 0; j < group.getCount(); j++, i++) {
+                if (group.getVm() == null)
+                    unbound.add(list.get(i));
+                else list.get(i).setVm(vmList.get(group.getVm()));
+            }
+        }
+
+        final int tasksByVm = Math.max(1, (int) Math.ceil(unbound.size() / (double) vmList.size()));
+        for (int k = 0; k < unbound.size(); k++) {
+            unbound.get(k).setVm(vmList.get(k / tasksByVm));
+        }
+
+        return list;
+    }
+
+    private List<Cloudlet> createCloudlets(final List<Scenario.TaskGroup> groups) {
+        final var list = new ArrayList<Cloudlet>(groups.stream().mapToInt(Scenario.TaskGroup::getCount).sum());
+        for (final var group : groups) {
+            for (int i = 0; i < group.getCount(); i++) {
+                list.add(factory.createCloudlet(group.getLength(), CLOUDLET_PES));
+            }
+        }
+
+        return list;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs all the {@link ParameterSweep.Run}s of a {@link ParameterSweep} in parallel,
+ * each one in its own {@link ScenarioSimulation} (and so its own CloudSimPlus instance),
+ * as the {@link org.cloudsimplus.examples.ParallelSimulationsExample} does.
+ * The runs are executed on a work-stealing pool with a bounded number of threads
+ * and the result of each run is submitted to a single {@link ResultSink} as soon as it finishes.
+ *
+ * <p>The JVM cannot limit the memory of a single thread. Therefore, each run reserves
+ * an estimate of the memory it needs (proportional to its number of VMs and Cloudlets)
+ * from a shared budget before it's started, and releases it when it finishes.
+ * This way, large runs wait for memory instead of exhausting the heap.</p>
+ *
+ * <p>Results of deterministic runs are served from a {@link ResultCache} when one is
+ * {@link #setCache(ResultCache) set}, so that sweeps only pay for the points not run before.</p>
+ *
+ * <p>Usage: {@code SweepRunner sweepFile [outputDir [threads]]},
+ * where the output directory defaults to {@value BatchRunner#DEFAULT_OUTPUT_DIR}
+ * and the threads to the number of available processors.
+ * The results are cached in the {@code cache} sub-directory of the output directory.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class SweepRunner {
+    /** Estimated memory taken by the simulation of each Cloudlet or VM. */
+    private static final long BYTES_BY_ENTITY = 16 * 1024;
+
+    /** Estimated memory taken by a simulation, regardless of the number of entities. */
+    private static final long BASE_BYTES_BY_RUN = 4 * 1024 * 1024;
+
+    /** The size of each permit of the memory budget. */
+    private static final long BYTES_BY_PERMIT = 1024 * 1024;
+
+    private final int threads;
+    private final int memoryBudgetPermits;
+    private final Semaphore memoryBudget;
+    private ResultCache cache;
+
+    /**
+     * Creates a sweep runner using a given number of threads
+     * and a memory budget of 3/4 of the max heap size.
+     * @param threads the maximum number of runs executed at the same time
+     */
+    public SweepRunner(final int threads) {
+        this(threads, Runtime.getRuntime().maxMemory() / 4 * 3);
+    }
+
+    /**
+     * Creates a sweep runner.
+     * @param threads the maximum number of runs executed at the same time
+     * @param memoryBudgetBytes the maximum memory (in bytes) the runs executing at the same time can take
+     */
+    public SweepRunner(final int threads, final long memoryBudgetBytes) {
+        if(threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be greater than zero");
+        if(memoryBudgetBytes < BYTES_BY_PERMIT)
+            throw new IllegalArgumentException("The memory budget must be at least " + BYTES_BY_PERMIT + " bytes");
+
+        this.threads = threads;
+        this.memoryBudgetPermits = (int) Math.min(Integer.MAX_VALUE, memoryBudgetBytes / BYTES_BY_PERMIT);
+        this.memoryBudget = new Semaphore(memoryBudgetPermits);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 0) {
+            System.err.println("Usage: SweepRunner sweepFile [outputDir [threads]]");
+            System.exit(2);
+        }
+
+        /*The log must be disabled when executing parallel simulations.*/
+        Log.setLevel(Level.OFF);
+        final var sweep = ParameterSweep.read(Path.of(args[0]));
+        final var outputDir = Path.of(args.length > 1 ? args[1] : BatchRunner.DEFAULT_OUTPUT_DIR);
+        final int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        final var outputFile = outputDir.resolve(sweep.getName() + ".csv");
+        final var cache = new ResultCache(outputDir.resolve("cache"));
+        try (var sink = ResultSink.toFile(outputFile, ResultFormat.CSV)) {
+            final int failed = new SweepRunner(threads).setCache(cache).run(sweep.expand(), sink);
+            System.err.printf(
+                "Sweep results written to %s (%d served from the cache, %d simulated)%n",
+                outputFile, cache.getHits(), cache.getMisses());
+            if(failed > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Runs a list of sweep runs, submitting the result of each one to a sink as soon as it finishes,
+     * labelled with the run dimensions, its status (OK or FAILED), if it was served from the cache and its wall time.
+     *
+     * @param runs the runs to execute
+     * @param sink the sink to submit the results to
+     * @return the number of runs that failed
+     * @throws InterruptedException when interrupted while waiting for the runs to finish
+     */
+    public int run(final List<ParameterSweep.Run> runs, final ResultSink sink) throws InterruptedException {
+        final var failed = new AtomicInteger();
+        final var finished = new AtomicInteger();
+        final var pool = new ForkJoinPool(threads);
+        try {
+            for (final var run : runs) {
+                final int permits = estimatePermits(run.scenario());
+                memoryBudget.acquire(permits);
+                pool.execute(() -> {
+                    try {
+                        execute(run, sink, failed);
+                    } finally {
+                        memoryBudget.release(permits);
+                        final int count = finished.incrementAndGet();
+                        if(count % Math.max(1, runs.size() / 20) == 0 || count == runs.size()) {
+                            System.err.printf("%d/%d runs finished%n", count, runs.size());
+                        }
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.printf("Waiting %d runs to finish%n", runs.size() - finished.get());
+            }
+        }
+
+        return failed.get();
+    }
+
+    private void execute(final ParameterSweep.Run run, final ResultSink sink, final AtomicInteger failed) {
+        final long start = System.nanoTime();
+        final var labels = run.getLabels();
+        ScenarioResult result = null;
+        boolean cached = false;
+        try {
+            final var cachedResult = cache == null ? Optional.<ScenarioResult>empty() : cache.get(run.scenario());
+            cached = cachedResult.isPresent();
+            result = cached ? cachedResult.get() : simulate(run.scenario());
+            labels.put("status", "OK");
+        } catch (RuntimeException | OutOfMemoryError e) {
+            failed.incrementAndGet();
+            labels.put("status", "FAILED");
+            System.err.printf("Run %d (%s) failed: %s%n", run.index(), run.scenario().getName(), e);
+        }
+
+        labels.put("cached", cached);
+        labels.put("wallTimeMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        sink.submit(result, labels);
+    }
+
+    private ScenarioResult simulate(final Scenario scenario) {
+        final var result = new ScenarioSimulation(scenario).setKeepFinishedCloudlets(false).run();
+        if(cache != null) {
+            try {
+                cache.put(scenario, result);
+            } catch (UncheckedIOException e) {
+                System.err.printf("Result of %s not cached: %s%n", scenario.getName(), e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets the cache the results are read from and written to.
+     * @return the cache or null if results aren't cached
+     */
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sets a cache to read the results of deterministic runs from and write them to.
+     * @param cache the cache to use or null to always simulate
+     * @return
+     */
+    public SweepRunner setCache(final ResultCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * Estimates the permits of the memory budget a run needs,
+     * limited to the total budget, so that a run larger than the budget runs alone.
+     */
+    private int estimatePermits(final Scenario scenario) {
+        final long entities = scenario.getVms().getMips().size() +
+            scenario.getInitialTasks().stream().mapToLong(Scenario.TaskGroup::getCount).sum() +
+            scenario.getNewTasks().stream().mapToLong(Scenario.TaskGroup::getCount).sum();
+        final long bytes = BASE_BYTES_BY_RUN + entities * BYTES_BY_ENTITY;
+        return (int) Math.min(memoryBudgetPermits, Math.max(1, bytes / BYTES_BY_PERMIT));
+    }
+}
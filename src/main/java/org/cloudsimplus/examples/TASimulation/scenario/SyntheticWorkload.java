@@ -0,0 +1,276 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.distributions.PoissonDistr;
+import org.cloudsimplus.distributions.UniformDistr;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Generates an endless workload whose arrival rate, task lengths and PEs follow the ones of a trace,
+ * so that the algorithms can be stressed with more tasks than the bundled traces have,
+ * at a higher arrival rate, without storing bigger trace files.
+ * The tasks are generated only when requested, so the memory it takes doesn't depend on how many are replayed.
+ *
+ * <p>The model is {@link #fit(Iterator, long) fitted} from the tasks of a trace (such as a {@link TraceArrivalReader}):</p>
+ * <ul>
+ *   <li>arrivals follow a Poisson process whose rate changes every hour of the day,
+ *       as the daily cycle of the traces. The rate of each hour is the number of tasks arrived at that hour
+ *       divided by the time the trace covers it (or the trace mean rate, if the trace doesn't cover it).
+ *       The rates can be {@link #setRateScale(double) scaled} to generate a heavier workload;</li>
+ *   <li>lengths follow the empirical distribution of the trace lengths,
+ *       sampled by interpolating {@value #LENGTH_QUANTILES} quantiles;</li>
+ *   <li>PEs follow the frequencies of each number of PEs in the trace.</li>
+ * </ul>
+ *
+ * <p>The inter-arrival times are sampled from a unit-rate {@link PoissonDistr} and stretched by the hourly rates,
+ * which keeps the process exact when an inter-arrival crosses hours with different rates.
+ * The lengths and PEs are sampled with {@link UniformDistr}s, using the seed given to the model.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class SyntheticWorkload implements TaskArrivalStream {
+    /**
+     * The number of intervals between the length quantiles kept from the trace.
+     */
+    public static final int LENGTH_QUANTILES = 1000;
+
+    /**
+     * The length (in seconds) of each period of the day with its own arrival rate.
+     */
+    public static final double RATE_PERIOD = 3600;
+
+    private static final int PERIODS_BY_DAY = 24;
+
+    /** The arrival rate (tasks/second) for each hour of the day. */
+    private final double[] rates;
+    private final long[] lengthQuantiles;
+    private final int[] pes;
+
+    /** The cumulative probability of each number of {@link #pes}. */
+    private final double[] pesProbabilities;
+
+    private final PoissonDistr arrivals;
+    private final UniformDistr lengthRandom;
+    private final UniformDistr pesRandom;
+    private double rateScale;
+    private double time;
+    private TaskArrival next;
+
+    private SyntheticWorkload(final double[] rates, final long[] lengthQuantiles, final int[] pes, final double[] pesProbabilities, final long seed) {
+        this.rates = rates;
+        this.lengthQuantiles = lengthQuantiles;
+        this.pes = pes;
+        this.pesProbabilities = pesProbabilities;
+        this.rateScale = 1;
+        this.arrivals = seed < 0 ? new PoissonDistr(1) : new PoissonDistr(1, seed);
+        this.lengthRandom = seed < 0 ? new UniformDistr(0, 1) : new UniformDistr(0, 1, seed + 1);
+        this.pesRandom = seed < 0 ? new UniformDistr(0, 1) : new UniformDistr(0, 1, seed + 2);
+    }
+
+    /**
+     * Fits a workload model to the tasks of a trace, reading the trace to the end.
+     *
+     * @param trace the tasks to fit the model to, in the order they arrive
+     * @param seed the seed to generate the workload, or a negative value for a random one
+     * @return the workload, starting at time zero
+     * @throws IllegalArgumentException when the trace doesn't have at least two tasks arriving at different times
+     */
+    public static SyntheticWorkload fit(final Iterator<TaskArrival> trace, final long seed) {
+        final var arrivalsByPeriod = new long[PERIODS_BY_DAY];
+        final var pesCount = new TreeMap<Integer, Long>();
+        long[] lengths = new long[1024];
+        int tasks = 0;
+        double firstTime = Double.NaN;
+        double lastTime = 0;
+        while (trace.hasNext()) {
+            final var task = trace.next();
+            if(Double.isNaN(firstTime)) {
+                firstTime = task.time();
+            }
+
+            lastTime = task.time();
+            arrivalsByPeriod[period(task.time())]++;
+            pesCount.merge(task.pes(), 1L, Long::sum);
+            if(tasks == lengths.length) {
+                lengths = Arrays.copyOf(lengths, tasks * 2);
+            }
+
+            lengths[tasks++] = task.length();
+        }
+
+        if(tasks < 2 || lastTime <= firstTime)
+            throw new IllegalArgumentException("The trace must have at least two tasks arriving at different times to fit a workload");
+
+        final var rates = fitRates(arrivalsByPeriod, firstTime, lastTime, tasks);
+        final var lengthQuantiles = fitQuantiles(Arrays.copyOf(lengths, tasks));
+
+        final var pes = new int[pesCount.size()];
+        final var pesProbabilities = new double[pes.length];
+        long cumulative = 0;
+        int i = 0;
+        for (final var entry : pesCount.entrySet()) {
+            cumulative += entry.getValue();
+            pes[i] = entry.getKey();
+            pesProbabilities[i++] = cumulative / (double) tasks;
+        }
+
+        return new SyntheticWorkload(rates, lengthQuantiles, pes, pesProbabilities, seed);
+    }
+
+    private static int period(final double time) {
+        return (int) (time / RATE_PERIOD) % PERIODS_BY_DAY;
+    }
+
+    /**
+     * Computes the arrival rate of each hour of the day,
+     * dividing the tasks arrived at that hour by the time the trace covers it.
+     */
+    private static double[] fitRates(final long[] arrivalsByPeriod, final double firstTime, final double lastTime, final int tasks) {
+        final var coveredTime = new double[PERIODS_BY_DAY];
+        for (double time = firstTime; time < lastTime; ) {
+            final double periodEnd = Math.min(lastTime, (Math.floor(time / RATE_PERIOD) + 1) * RATE_PERIOD);
+            coveredTime[period(time)] += periodEnd - time;
+            time = periodEnd;
+        }
+
+        final double meanRate = tasks / (lastTime - firstTime);
+        final var rates = new double[PERIODS_BY_DAY];
+        for (int i = 0; i < PERIODS_BY_DAY; i++) {
+            rates[i] = coveredTime[i] > 0 ? arrivalsByPeriod[i] / coveredTime[i] : meanRate;
+        }
+
+        return rates;
+    }
+
+    private static long[] fitQuantiles(final long[] lengths) {
+        Arrays.sort(lengths);
+        final var quantiles = new long[LENGTH_QUANTILES + 1];
+        for (int i = 0; i <= LENGTH_QUANTILES; i++) {
+            quantiles[i] = lengths[(int) Math.round(i * (lengths.length - 1) / (double) LENGTH_QUANTILES)];
+        }
+
+        return quantiles;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    @Override
+    public TaskArrival next() {
+        if(next == null) {
+            generateNext();
+        }
+
+        final var task = next;
+        next = null;
+        return task;
+    }
+
+    @Override
+    public double peekTime() {
+        if(next == null) {
+            generateNext();
+        }
+
+        return next.time();
+    }
+
+    private void generateNext() {
+        time = nextArrivalTime();
+        next = new TaskArrival(time, sampleLength(), samplePes());
+    }
+
+    /**
+     * Gets the time of the next arrival, consuming a unit-rate inter-arrival time
+     * at the rate of each hour the arrival crosses.
+     */
+    private double nextArrivalTime() {
+        double interArrival = arrivals.sample();
+        double arrivalTime = time;
+        while (true) {
+            final double rate = rates[period(arrivalTime)] * rateScale;
+            final double periodEnd = (Math.floor(arrivalTime / RATE_PERIOD) + 1) * RATE_PERIOD;
+            final double periodArrivals = rate * (periodEnd - arrivalTime);
+            if(interArrival < periodArrivals)
+                return arrivalTime + interArrival / rate;
+
+            interArrival -= periodArrivals;
+            arrivalTime = periodEnd;
+        }
+    }
+
+    private long sampleLength() {
+        final double position = lengthRandom.sample() * LENGTH_QUANTILES;
+        final int i = Math.min((int) position, LENGTH_QUANTILES - 1);
+        final double fraction = position - i;
+        return Math.max(1, Math.round(lengthQuantiles[i] + fraction * (lengthQuantiles[i + 1] - lengthQuantiles[i])));
+    }
+
+    private int samplePes() {
+        final double probability = pesRandom.sample();
+        for (int i = 0; i < pes.length - 1; i++) {
+            if(probability < pesProbabilities[i])
+                return pes[i];
+        }
+
+        return pes[pes.length - 1];
+    }
+
+    /**
+     * Gets the factor that multiplies the arrival rates of the trace.
+     * @return
+     */
+    public double getRateScale() {
+        return rateScale;
+    }
+
+    /**
+     * Sets the factor that multiplies the arrival rates of the trace,
+     * such as 100 to generate a hundred times more tasks by second.
+     * @param rateScale the factor to set
+     * @return
+     */
+    public SyntheticWorkload setRateScale(final double rateScale) {
+        if(rateScale <= 0)
+            throw new IllegalArgumentException("The rate scale must be greater than zero");
+        this.rateScale = rateScale;
+        return this;
+    }
+
+    /**
+     * Gets the arrival rate fitted for an hour of the day, without the {@link #getRateScale() rate scale}.
+     * @param hour the hour of the day, from 0 to 23
+     * @return the arrival rate (in tasks/second)
+     */
+    public double getRate(final int hour) {
+        return rates[hour];
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import java.util.Iterator;
+
+/**
+ * A sequence of tasks in the order they arrive, such as a workload trace.
+ *
+ * @since CloudSim Plus 8.5.0
+ * @see TraceArrivalReader
+ * @see SyntheticWorkload
+ */
+public interface TaskArrivalStream extends Iterator<TaskArrival> {
+    /**
+     * Gets the arrival time of the next task, without consuming it.
+     * @return the arrival time (in seconds) or {@link Double#POSITIVE_INFINITY} if the stream has ended
+     */
+    double peekTime();
+
+    /**
+     * Skips the tasks arriving before a given time.
+     * @param time the arrival time (in seconds) of the first task to keep
+     */
+    default void skipTo(final double time) {
+        while (peekTime() < time) {
+            next();
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.examples.TASimulation.Markov.MarkovLoadBalancerDemo;
+import org.cloudsimplus.examples.TASimulation.PLAC.PLACLoadBalancer;
+import org.cloudsimplus.examples.TASimulation.SA.CloudletToVmMappingIncrementalSimulatedAnnealing;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.vms.Vm;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays the tasks of a workload trace on the Datacenter and VMs of a {@link Scenario},
+ * mapping them with the scenario algorithm in consecutive timeslots,
+ * instead of the two arrival instants of the TASimulation experiments.
+ * The tasks of the scenario are ignored and the Cloudlets use a single PE, as the algorithms expect,
+ * whatever the PEs of the tasks.
+ *
+ * <p>The tasks arriving in a timeslot {@code [k × slotLength, (k + 1) × slotLength)}
+ * are mapped together and submitted at the end of the slot (plus the {@link Scenario.DecisionLatency decision latency}).
+ * Slots without tasks are skipped. Each invocation of the algorithm sees the work
+ * the VMs still have to run when the slot is submitted, as the backlog of the experiments.</p>
+ *
+ * <p>The trace is streamed: a slot is read and mapped when the previous one is submitted,
+ * so only the tasks of two slots and the unfinished Cloudlets are in memory.
+ * Since the next slot is mapped at the time the previous one is submitted, the backlog it sees
+ * is projected to its submission time, assuming each VM runs its Cloudlets at full capacity.</p>
+ *
+ * <p>Traces have long idle gaps (and the Google ones span days), which would make the replay last as long as the trace.
+ * When {@link #setFastForward(boolean) fast-forward} is enabled, the whole slots between the time the VMs
+ * are expected to finish their backlog and the next arrival are {@link #getSkippedTime() skipped},
+ * so the next tasks arrive as soon as the VMs become idle, in the same position inside their slot.
+ * The arrival times can also be divided by a {@link #setTimeCompression(double) time compression} factor,
+ * which makes the workload proportionally heavier.
+ * The replay can also {@link #setStartTime(double) start} at a time of the trace, skipping the tasks before it.</p>
+ *
+ * <p>Each slot re-plans the mapping, but only for Cloudlets that weren't mapped before,
+ * so the solution of the previous slot can't warm start Simulated Annealing.
+ * When the scenario has a {@code warmStart} parameter greater than 0, each SA search starts instead
+ * from a greedy mapping, which takes the longest Cloudlets first and maps each one to the VM
+ * expected to finish it first, given the projected backlog. The search then starts at the
+ * {@code warmStartTemperature} and only refines that mapping.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ * @see TraceArrivalReader
+ * @see SyntheticWorkload
+ */
+public class TimeslotSimulation {
+    private static final int CLOUDLET_PES = 1;
+
+    /**
+     * The relative tolerance to consider a slot submitted, since the simulation computes
+     * the time of the submission event from the delay and may round it to a slightly smaller value.
+     */
+    private static final double SUBMISSION_TIME_TOLERANCE = 1e-9;
+
+    private final Scenario scenario;
+    private final TaskArrivalStream trace;
+    private final double slotLength;
+    private final long maxTasks;
+    private final CloudSimPlus simulation;
+    private final ScenarioFactory factory;
+    private final List<Vm> vmList;
+    private final CloudletMetricsCollector metrics;
+    private final DatacenterBroker broker;
+
+    /** The Cloudlets submitted to each VM which haven't finished yet, by VM identity, since VM ids change on submission. */
+    private final Map<Vm, Set<Cloudlet>> unfinishedCloudlets;
+
+    private PLACLoadBalancer plac;
+    private CloudletToVmMappingIncrementalSimulatedAnnealing simulatedAnnealing;
+    private boolean fastForward;
+    private double timeCompression;
+    private double startTime;
+    private double skippedTime;
+    private long readTasks;
+    private long slots;
+    private double nextSubmissionTime;
+    private double decisionLatency;
+
+    /**
+     * Creates the simulation entities to replay a trace.
+     * @param scenario the scenario defining the Host, VMs, algorithm and its parameters
+     * @param trace the trace (or synthetic workload) to read the tasks from
+     * @param slotLength the length (in seconds) of each timeslot
+     * @param maxTasks the maximum number of tasks to read from the trace
+     * @throws IllegalArgumentException when the slot length or the maximum number of tasks is not positive
+     */
+    public TimeslotSimulation(final Scenario scenario, final TaskArrivalStream trace, final double slotLength, final long maxTasks) {
+        if(slotLength <= 0)
+            throw new IllegalArgumentException("The slot length must be greater than zero");
+        if(maxTasks <= 0)
+            throw new IllegalArgumentException("The maximum number of tasks must be greater than zero");
+
+        this.scenario = scenario.validate();
+        this.trace = trace;
+        this.slotLength = slotLength;
+        this.maxTasks = maxTasks;
+        this.timeCompression = 1;
+        this.simulation = new CloudSimPlus();
+        this.factory = new ScenarioFactory(simulation);
+        createDatacenter();
+        this.vmList = factory.createVms(scenario.getVms().getMips(), scenario.getVms().getPes());
+        this.metrics = new CloudletMetricsCollector();
+        this.broker = new DatacenterBrokerSimple(simulation);
+        this.unfinishedCloudlets = new IdentityHashMap<>();
+        vmList.forEach(vm -> unfinishedCloudlets.put(vm, new HashSet<>()));
+    }
+
+    /**
+     * Replays the trace, mapping each timeslot with the scenario algorithm, and computes the metrics.
+     * The {@link ScenarioResult#decisionLatency()} is the sum of the latencies of all slots.
+     * @return the scenario result, without the finished Cloudlets
+     */
+    public ScenarioResult run() {
+        broker.submitVmList(vmList);
+        simulation.addOnClockTickListener(this::onClockTick);
+        if(startTime > 0) {
+            trace.skipTo(startTime);
+            skippedTime = Math.floor(startTime / timeCompression / slotLength) * slotLength;
+        }
+
+        submitNextSlot(0);
+        simulation.start();
+        return metrics.getResult(scenario.getName(), scenario.getAlgorithm(), vmList, List.of(), decisionLatency);
+    }
+
+    /**
+     * Gets the number of timeslots mapped.
+     * @return
+     */
+    public long getSlots() {
+        return slots;
+    }
+
+    /**
+     * Maps the next slot when the previous one is submitted.
+     * Missing the submission would end the simulation, since no other event may follow.
+     */
+    private void onClockTick(final EventInfo info) {
+        if(isSlotSubmitted(info.getTime())) {
+            submitNextSlot(info.getTime());
+        }
+    }
+
+    /**
+     * Checks if the last mapped slot was submitted at a given time.
+     * @param time the current simulation time
+     * @return true if the slot was submitted, false if it wasn't or there is no slot left to map
+     */
+    private boolean isSlotSubmitted(final double time) {
+        return Double.isFinite(nextSubmissionTime) &&
+               time >= nextSubmissionTime - SUBMISSION_TIME_TOLERANCE * Math.max(1, nextSubmissionTime);
+    }
+
+    /**
+     * Reads the tasks of the next non-empty slot, maps them and submits them at the end of the slot.
+     * @param time the current simulation time
+     */
+    private void submitNextSlot(final double time) {
+        if(readTasks >= maxTasks || !trace.hasNext()) {
+            nextSubmissionTime = Double.POSITIVE_INFINITY;
+            return;
+        }
+
+        if(fastForward) {
+            skipIdleSlots(time);
+        }
+
+        final double slotEnd = (Math.floor(Math.max(time, nextArrivalTime()) / slotLength) + 1) * slotLength;
+        final var cloudlets = new ArrayList<Cloudlet>();
+        while (readTasks < maxTasks && nextArrivalTime() < slotEnd) {
+            cloudlets.add(factory.createCloudlet(trace.next().length(), CLOUDLET_PES));
+            readTasks++;
+        }
+
+        final double delay = slotEnd - time;
+        final long startNanos = System.nanoTime();
+        final int tasks = cloudlets.size();
+        final var mappedCloudlets = switch (scenario.getAlgorithm()) {
+            case MARKOV -> mapMarkov(cloudlets, getBacklogMi(delay));
+            case PLAC -> mapPlac(cloudlets, getBacklogMi(delay));
+            case SA -> mapSimulatedAnnealing(cloudlets, getBacklogMi(delay));
+        };
+        final long operations = switch (scenario.getAlgorithm()) {
+            case MARKOV -> ScenarioSimulation.getMarkovOperations(tasks, vmList.size());
+            case PLAC -> ScenarioSimulation.getPlacOperations(scenario, tasks, vmList.size());
+            case SA -> simulatedAnnealing.getEvaluatedNeighbors();
+        };
+        final double latency = scenario.getDecisionLatency().toSeconds(System.nanoTime() - startNanos, operations);
+
+        for (final var cloudlet : mappedCloudlets) {
+            if(cloudlet.isBoundToVm()) {
+                unfinishedCloudlets.get(cloudlet.getVm()).add(cloudlet);
+            }
+            cloudlet.addOnFinishListener(info -> unfinishedCloudlets.get(info.getVm()).remove(info.getCloudlet()));
+        }
+
+        metrics.subscribe(mappedCloudlets);
+        decisionLatency += latency;
+        slots++;
+        nextSubmissionTime = time + delay + latency;
+        broker.submitCloudletList(mappedCloudlets, delay + latency);
+    }
+
+    /**
+     * Gets the simulation time the next task of the trace arrives,
+     * after the time compression and the skipped idle time.
+     */
+    private double nextArrivalTime() {
+        return trace.peekTime() / timeCompression - skippedTime;
+    }
+
+    /**
+     * Skips the whole slots between the time the VMs are expected to become idle and the next arrival.
+     * @param time the current simulation time
+     */
+    private void skipIdleSlots(final double time) {
+        double idleTime = time;
+        for (final var vm : vmList) {
+            final double remainingMi = getRemainingMi(vm);
+            idleTime = Math.max(idleTime, time + remainingMi / vm.getTotalMipsCapacity());
+        }
+
+        final double idleSlots = Math.floor((nextArrivalTime() - idleTime) / slotLength);
+        if(idleSlots > 0) {
+            skippedTime += idleSlots * slotLength;
+        }
+    }
+
+    /**
+     * Binds the Cloudlets of a slot to VMs using Markov.
+     * @return the Cloudlets to submit, which Markov may split
+     */
+    private List<Cloudlet> mapMarkov(final List<Cloudlet> cloudlets, final List<Double> backlogMi) {
+        final var backlogLengths = backlogMi.stream().map(mi -> (int) Math.min(Integer.MAX_VALUE, Math.round(mi))).toList();
+        final int backlogCloudlets = unfinishedCloudlets.values().stream().mapToInt(Set::size).sum();
+        try {
+            return new MarkovLoadBalancerDemo().getAllocatedNewCloudlets(cloudlets, vmList, backlogCloudlets, backlogLengths);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Cloudlet> mapPlac(final List<Cloudlet> cloudlets, final List<Double> backlogMi) {
+        if(plac == null) {
+            plac = ScenarioSimulation.createPlac(scenario, vmList.size());
+        }
+
+        final var backlogExecutionTimes = new ArrayList<Double>(vmList.size());
+        for (int i = 0; i < vmList.size(); i++) {
+            backlogExecutionTimes.add(backlogMi.get(i) / vmList.get(i).getTotalMipsCapacity());
+        }
+
+        try {
+            final var map = plac.implement(cloudlets, vmList, (int) scenario.getParameter("iterations", 50), backlogExecutionTimes);
+            for (int i = 0; i < cloudlets.size(); i++) {
+                final Integer vm = map.get(i);
+                if (vm != null) {
+                    cloudlets.get(i).setVm(vmList.get(vm));
+                }
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return cloudlets;
+    }
+
+    private List<Cloudlet> mapSimulatedAnnealing(final List<Cloudlet> cloudlets, final List<Double> backlogMi) {
+        if(simulatedAnnealing == null) {
+            simulatedAnnealing = ScenarioSimulation.createSimulatedAnnealing(scenario);
+            simulatedAnnealing.setVmList(vmList);
+        }
+
+        final var backlog = new HashMap<Vm, Double>();
+        for (int i = 0; i < vmList.size(); i++) {
+            backlog.put(vmList.get(i), backlogMi.get(i));
+        }
+
+        simulatedAnnealing.getCostModel().setBacklog(backlog);
+        simulatedAnnealing.setCloudletList(cloudlets);
+        if(scenario.getParameter("warmStart", 0) > 0) {
+            simulatedAnnealing.setWarmStart(getGreedyMapping(cloudlets, backlogMi));
+        }
+
+        simulatedAnnealing.solve().getResult().forEach(Cloudlet::setVm);
+        return cloudlets;
+    }
+
+    /**
+     * Maps the longest Cloudlets first, each one to the VM expected to finish it first.
+     * @param cloudlets the Cloudlets to map
+     * @param backlogMi the work (in MI) each VM still has to run when the Cloudlets are submitted
+     * @return the Cloudlet to VM mapping
+     */
+    private Map<Cloudlet, Vm> getGreedyMapping(final List<Cloudlet> cloudlets, final List<Double> backlogMi) {
+        final var workMi = backlogMi.stream().mapToDouble(Double::doubleValue).toArray();
+        final var sortedCloudlets = new ArrayList<>(cloudlets);
+        sortedCloudlets.sort(Comparator.comparingLong(Cloudlet::getLength).reversed());
+        final var mapping = new HashMap<Cloudlet, Vm>();
+        for (final var cloudlet : sortedCloudlets) {
+            int bestVm = 0;
+            double bestFinishTime = Double.MAX_VALUE;
+            for (int i = 0; i < vmList.size(); i++) {
+                final double finishTime = (workMi[i] + cloudlet.getLength()) / vmList.get(i).getTotalMipsCapacity();
+                if(finishTime < bestFinishTime) {
+                    bestFinishTime = finishTime;
+                    bestVm = i;
+                }
+            }
+
+            workMi[bestVm] += cloudlet.getLength();
+            mapping.put(cloudlet, vmList.get(bestVm));
+        }
+
+        return mapping;
+    }
+
+    /**
+     * Gets the work (in MI) each VM is expected to still have to run after some time,
+     * assuming it runs its unfinished Cloudlets at full capacity.
+     * @param delay the time (in seconds) from now
+     */
+    private List<Double> getBacklogMi(final double delay) {
+        final var backlog = new ArrayList<Double>(vmList.size());
+        for (int i = 0; i < vmList.size(); i++) {
+            final var vm = vmList.get(i);
+            backlog.add(Math.max(0, getRemainingMi(vm) - vm.getTotalMipsCapacity() * delay));
+        }
+
+        return backlog;
+    }
+
+    /**
+     * Gets the work (in MI) a VM still has to run for its unfinished Cloudlets.
+     */
+    private double getRemainingMi(final Vm vm) {
+        return unfinishedCloudlets.get(vm).stream().mapToDouble(cloudlet -> cloudlet.getLength() - cloudlet.getFinishedLengthSoFar()).sum();
+    }
+
+    /**
+     * Checks if the idle slots between the backlog and the next arrival are skipped.
+     * @return
+     */
+    public boolean isFastForward() {
+        return fastForward;
+    }
+
+    /**
+     * Sets if the idle slots between the backlog and the next arrival are skipped.
+     * @param fastForward true to skip the idle slots, false to replay the trace in its own time
+     * @return
+     */
+    public TimeslotSimulation setFastForward(final boolean fastForward) {
+        this.fastForward = fastForward;
+        return this;
+    }
+
+    /**
+     * Gets the factor that divides the arrival times of the trace.
+     * @return
+     */
+    public double getTimeCompression() {
+        return timeCompression;
+    }
+
+    /**
+     * Sets the factor that divides the arrival times of the trace,
+     * such as 10 to replay it ten times faster. It must be set before the simulation runs.
+     * @param timeCompression the factor to set
+     * @return
+     */
+    public TimeslotSimulation setTimeCompression(final double timeCompression) {
+        if(timeCompression <= 0)
+            throw new IllegalArgumentException("The time compression must be greater than zero");
+        this.timeCompression = timeCompression;
+        return this;
+    }
+
+    /**
+     * Gets the time of the trace the replay starts at.
+     * @return the start time (in seconds)
+     */
+    public double getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Sets the time of the trace the replay starts at, relative to its first task.
+     * The tasks arriving before are skipped and the slot of the start time is replayed as the first one.
+     * It must be set before the simulation runs.
+     * @param startTime the start time (in seconds) to set
+     * @return
+     */
+    public TimeslotSimulation setStartTime(final double startTime) {
+        if(startTime < 0)
+            throw new IllegalArgumentException("The start time cannot be negative");
+        this.startTime = startTime;
+        return this;
+    }
+
+    /**
+     * Gets the time skipped by the {@link #setStartTime(double) start time}
+     * and the {@link #setFastForward(boolean) fast-forward}.
+     * @return the skipped time (in seconds)
+     */
+    public double getSkippedTime() {
+        return skippedTime;
+    }
+
+    private void createDatacenter() {
+        final int vms = scenario.getVms().getMips().size();
+        final var hostSpec = scenario.getHost();
+        factory.createDatacenter(
+            1, hostSpec.getPes(vms), hostSpec.getMips(vms),
+            hostSpec.getRam(vms), hostSpec.getBw(vms), hostSpec.getStorage(vms));
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import org.cloudsimplus.examples.traces.CompiledTrace;
+import org.cloudsimplus.examples.traces.CompiledTrace.Format;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the tasks of a workload trace in the order they arrive,
+ * so that a trace of any size is replayed without being loaded into memory.
+ * The tasks are read from the {@link CompiledTrace compiled form} of the trace,
+ * which is created on the first read. Traces that cannot be compiled,
+ * such as resources inside a jar, are parsed one line at a time
+ * and decompressed as they are read when gzipped.
+ *
+ * <p>The supported formats, selected by the file name, are:</p>
+ * <ul>
+ *   <li>{@link Format#SWF}: jobs of the <a href="https://www.cs.huji.ac.il/labs/parallel/workload/swf.html">Standard Workload Format</a>,
+ *       such as {@code workload/swf/NASA-iPSC-1993-3.1-cln.swf.gz}.
+ *       The length of a task is the job run time multiplied by a reference MIPS,
+ *       as the {@link org.cloudsimplus.traces.SwfWorkloadFileReader} does.
+ *       Jobs without a run time are skipped;</li>
+ *   <li>{@link Format#GOOGLE_TASK_EVENTS}: the SUBMIT events of a Google cluster task events CSV,
+ *       such as {@code workload/google-traces/task-events-sample-1.csv}.
+ *       Such traces don't have the task durations, so the length of a task is its CPU request
+ *       (a fraction of a machine) multiplied by {@value #GOOGLE_LENGTH_BY_CPU_REQUEST} MI,
+ *       which makes the sample tasks as long as the ones of the E1 experiments.</li>
+ * </ul>
+ *
+ * <p>The arrival times are relative to the first task of the trace.
+ * Compiled traces are {@link #skipTo(double) skipped} to a time without reading the tasks before it.
+ * The file is read from the file system or, if it doesn't exist, from the classpath.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class TraceArrivalReader implements TaskArrivalStream, Closeable {
+    /**
+     * The length (in MI) of a Google task that requests a whole machine CPU.
+     */
+    public static final long GOOGLE_LENGTH_BY_CPU_REQUEST = 48_000;
+
+    private static final double MICROSECONDS = 1_000_000;
+
+    private final String file;
+    private final Format format;
+    private final double mips;
+    private final CompiledTrace compiledTrace;
+    private final BufferedReader reader;
+    private int row;
+    private long lineNumber;
+    private double firstTime;
+    private TaskArrival next;
+
+    /**
+     * Opens a trace to be read.
+     * @param file the path or classpath resource of the trace
+     * @param mips the MIPS that converts the run time of SWF jobs into task lengths
+     * @throws UncheckedIOException when the trace cannot be opened or compiled
+     * @throws IllegalArgumentException when the trace format is not supported, the trace is malformed or the MIPS is not positive
+     */
+    public TraceArrivalReader(final String file, final double mips) {
+        if(mips <= 0)
+            throw new IllegalArgumentException("The MIPS must be greater than zero");
+        this.file = file;
+        this.format = Format.of(file);
+        this.mips = mips;
+        this.firstTime = Double.NaN;
+        this.compiledTrace = CompiledTrace.load(file).orElse(null);
+        try {
+            this.reader = compiledTrace == null ? new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8)) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening trace " + file, e);
+        }
+    }
+
+    private static InputStream open(final String file) throws IOException {
+        final var path = Path.of(file);
+        final InputStream in = Files.exists(path) ?
+                                   Files.newInputStream(path) :
+                                   TraceArrivalReader.class.getClassLoader().getResourceAsStream(file);
+        if(in == null)
+            throw new FileNotFoundException(file);
+        return file.endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws UncheckedIOException when the trace cannot be read
+     * @throws IllegalArgumentException when a line of the trace is malformed
+     */
+    @Override
+    public boolean hasNext() {
+        if(next != null)
+            return true;
+
+        if(compiledTrace != null) {
+            while (next == null && row < compiledTrace.size()) {
+                next = format == Format.SWF ?
+                           newSwfArrival(compiledTrace.getTime(row), compiledTrace.getRunTime(row), compiledTrace.getPes(row)) :
+                           newGoogleArrival(compiledTrace.getTime(row), compiledTrace.getCpuRequest(row));
+                row++;
+            }
+
+            return next != null;
+        }
+
+        try {
+            String line;
+            while (next == null && (line = reader.readLine()) != null) {
+                lineNumber++;
+                next = parse(line.strip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading trace " + file, e);
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public TaskArrival next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+
+        final var arrival = next;
+        next = null;
+        return arrival;
+    }
+
+    @Override
+    public double peekTime() {
+        return hasNext() ? next.time() : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * A compiled trace is {@link CompiledTrace#findRow(double) searched} for the time,
+     * instead of being read up to it.
+     * @throws UncheckedIOException when the trace cannot be read
+     * @throws IllegalArgumentException when a line of the trace is malformed
+     */
+    @Override
+    public void skipTo(final double time) {
+        if(compiledTrace == null || peekTime() >= time) {
+            TaskArrivalStream.super.skipTo(time);
+            return;
+        }
+
+        next = null;
+        row = Math.max(row, compiledTrace.findRow(firstTime + time));
+    }
+
+    /**
+     * Parses a trace line.
+     * @return the task arrival or null if the line is not a task arrival
+     */
+    private TaskArrival parse(final String line) {
+        if(line.isEmpty() || line.startsWith(";") || line.startsWith("#"))
+            return null;
+
+        try {
+            return format == Format.SWF ? parseSwfJob(line.split("\\s+")) : parseGoogleTaskEvent(line.split(",", -1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("%s:%d: malformed %s line: %s".formatted(file, lineNumber, format, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Parses an SWF job, whose fields 2, 4, 5 and 8 are the submit and run time (in seconds),
+     * the allocated and the requested processors.
+     */
+    private TaskArrival parseSwfJob(final String[] fields) {
+        final int allocatedProcs = Integer.parseInt(fields[4]);
+        final int procs = allocatedProcs > 0 ? allocatedProcs : Integer.parseInt(fields[7]);
+        return newSwfArrival(Double.parseDouble(fields[1]), Double.parseDouble(fields[3]), procs);
+    }
+
+    private TaskArrival newSwfArrival(final double submitTime, final double runTime, final int procs) {
+        return runTime <= 0 ? null : newArrival(submitTime, runTime * mips, procs);
+    }
+
+    /**
+     * Parses a Google task event, whose fields 1, 6 and 10 are the timestamp (in microseconds),
+     * the event type and the CPU request.
+     */
+    private TaskArrival parseGoogleTaskEvent(final String[] fields) {
+        final boolean submit = Integer.parseInt(fields[5]) == 0;
+        if(!submit || fields[9].isEmpty())
+            return null;
+
+        return newGoogleArrival(Long.parseLong(fields[0]) / MICROSECONDS, Double.parseDouble(fields[9]));
+    }
+
+    private TaskArrival newGoogleArrival(final double time, final double cpuRequest) {
+        return newArrival(time, cpuRequest * GOOGLE_LENGTH_BY_CPU_REQUEST, 1);
+    }
+
+    private TaskArrival newArrival(final double time, final double length, final int pes) {
+        if(Double.isNaN(firstTime)) {
+            firstTime = time;
+        }
+
+        return new TaskArrival(Math.max(0, time - firstTime), Math.max(1, Math.round(length)), Math.max(1, pes));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(reader != null) {
+            reader.close();
+        }
+    }
+}
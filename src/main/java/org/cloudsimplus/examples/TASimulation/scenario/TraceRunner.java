@@ -0,0 +1,102 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.TASimulation.scenario;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.util.Log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+
+/**
+ * Replays a workload trace on the Datacenter, VMs and algorithm of a {@link Scenario},
+ * mapping the tasks in timeslots with a {@link TimeslotSimulation}.
+ * The result is written to {@code <outputDir>/<scenario name>_<trace name>.csv},
+ * labelled with the trace, the slot length and the number of slots.
+ *
+ * <p>Usage: {@code TraceRunner scenarioFile [traceFile [slotLength [maxTasks [outputDir [rateScale [startTime]]]]]]},
+ * which defaults to the bundled {@value #DEFAULT_TRACE} trace, {@value #DEFAULT_SLOT_LENGTH}-second slots,
+ * the first {@value #DEFAULT_MAX_TASKS} tasks and {@value BatchRunner#DEFAULT_OUTPUT_DIR}.
+ * The run time of SWF jobs is converted into task lengths using the mean MIPS of the scenario VMs.
+ * When a {@code rateScale} is given, a {@link SyntheticWorkload} fitted to the trace is replayed instead,
+ * with the trace arrival rates multiplied by that scale, so that {@code maxTasks} can exceed the trace size.
+ * When a {@code startTime} (in seconds) is given, the replay {@link TimeslotSimulation#setStartTime(double) starts}
+ * at that time of the trace, so that a window of a long trace can be replayed.</p>
+ *
+ * <p>The replay {@link TimeslotSimulation#setFastForward(boolean) fast-forwards} the idle gaps of the trace,
+ * so it lasts as long as the trace activity. The skipped time is added to the result labels.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class TraceRunner {
+    public static final String DEFAULT_TRACE = "workload/swf/NASA-iPSC-1993-3.1-cln.swf.gz";
+    public static final double DEFAULT_SLOT_LENGTH = 60;
+    public static final long DEFAULT_MAX_TASKS = 1000;
+
+    /**
+     * A private constructor to avoid class instantiation.
+     */
+    private TraceRunner() {/**/}
+
+    public static void main(String[] args) throws IOException {
+        if(args.length == 0) {
+            System.err.println("Usage: TraceRunner scenarioFile [traceFile [slotLength [maxTasks [outputDir [rateScale [startTime]]]]]]");
+            System.exit(2);
+        }
+
+        Log.setLevel(Level.WARN);
+        final var scenario = Scenario.read(Path.of(args[0]));
+        final var traceFile = args.length > 1 ? args[1] : DEFAULT_TRACE;
+        final double slotLength = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_SLOT_LENGTH;
+        final long maxTasks = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_TASKS;
+        final var outputDir = Path.of(args.length > 4 ? args[4] : BatchRunner.DEFAULT_OUTPUT_DIR);
+        final double rateScale = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+        final double startTime = args.length > 6 ? Double.parseDouble(args[6]) : 0;
+
+        final double mips = scenario.getVms().getMips().stream().mapToInt(Integer::intValue).average().orElse(1);
+        final var traceFileName = Path.of(traceFile).getFileName().toString().replaceFirst("\\..*$", "");
+        final var traceName = rateScale > 0 ? traceFileName + "_x" + args[5] : traceFileName;
+        try (var reader = new TraceArrivalReader(traceFile, mips);
+             var sink = ResultSink.toFile(outputDir.resolve(scenario.getName() + "_" + traceName + ".csv"), ResultFormat.CSV))
+        {
+            final TaskArrivalStream trace = rateScale > 0 ?
+                                                SyntheticWorkload.fit(reader, (long) scenario.getParameter("seed", -1)).setRateScale(rateScale) :
+                                                reader;
+            final var simulation = new TimeslotSimulation(scenario, trace, slotLength, maxTasks).setFastForward(true).setStartTime(startTime);
+            final var result = simulation.run();
+            final var labels = new LinkedHashMap<String, Object>();
+            labels.put("trace", traceName);
+            labels.put("slotLength", slotLength);
+            labels.put("slots", simulation.getSlots());
+            labels.put("startTime", startTime);
+            labels.put("skippedTime", simulation.getSkippedTime());
+            sink.submit(result, labels);
+            System.err.printf(
+                "%s replayed %d tasks in %d slots of %s: completion time %.4f, max makespan %.4f%n",
+                scenario.getName(), result.cloudlets(), simulation.getSlots(), traceName,
+                result.completionTime(), result.maxMakespan());
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.performance;
+
+import ch.qos.logback.classic.Level;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicy;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyBestFit;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyFirstFit;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicyRoundRobin;
+import org.cloudsimplus.allocationpolicies.VmAllocationPolicySimple;
+import org.cloudsimplus.brokers.DatacenterBrokerSimple;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.resources.Pe;
+import org.cloudsimplus.resources.PeSimple;
+import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
+import org.cloudsimplus.util.Log;
+import org.cloudsimplus.util.TimeUtil;
+import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
+import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
+import org.cloudsimplus.vms.Vm;
+import org.cloudsimplus.vms.VmSimple;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the same kind of scenario built by {@link org.cloudsimplus.examples.LargeScaleExample}
+ * and {@link PerformanceExample1} for a geometric range of sizes,
+ * recording a scaling curve instead of a single elapsed time for one fixed size.
+ *
+ * <p>The number of Hosts starts at {@link #MIN_HOSTS} and is multiplied by {@link #GROWTH_FACTOR}
+ * until it exceeds the maximum given as the first command line argument (default {@link #MAX_HOSTS}).
+ * A curve is recorded for each number of {@link #VMS_BY_HOST VMs by Host}
+ * and {@link #CLOUDLETS_BY_VM Cloudlets by VM}, so that the cost of growing VMs and Cloudlets
+ * can be told apart from the cost of growing Hosts.
+ * The Host resources are evenly split among its VMs, so that all VMs can be placed whatever their number.
+ * Each curve is run for every {@link AllocationPolicy} and {@link #SCHEDULING_INTERVALS scheduling interval}
+ * (the settings those examples toggle) and one CSV row is written for each run with:</p>
+ * <ul>
+ *   <li>the wall-clock time to create the scenario and to run the simulation;</li>
+ *   <li>the peak heap used, sampled every {@value #HEAP_SAMPLING_MILLIS} milliseconds during the run;</li>
+ *   <li>the number of GC collections and the time they took during the run;</li>
+ *   <li>the total time by Cloudlet, which stays flat while the simulator scales linearly.</li>
+ * </ul>
+ *
+ * <p>Once a run of a given configuration takes more than {@link #MAX_RUN_SECS},
+ * larger sizes of that configuration are skipped.
+ * Run with a large heap (such as -Xmx16g), otherwise the largest sizes
+ * measure the GC instead of the simulator.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class ScalingBenchmark {
+    private static final int MIN_HOSTS = 100;
+    private static final int MAX_HOSTS = 100_000;
+    private static final int GROWTH_FACTOR = 4;
+
+    private static final int HOST_PES = 16;
+    private static final int HOST_MIPS = 1000;
+    private static final int HOST_RAM = 2048; //in Megabytes
+    private static final long HOST_BW = 10_000; //in Megabits/s
+    private static final long HOST_STORAGE = 1_000_000; //in Megabytes
+
+    /**
+     * The numbers of VMs by Host to record curves for, which must divide {@link #HOST_PES}.
+     */
+    private static final int[] VMS_BY_HOST = {1, 4, 16};
+    private static final long VM_SIZE = 10_000; //in Megabytes
+
+    /**
+     * The numbers of Cloudlets by VM to record curves for.
+     * Each Cloudlet uses half of the VM PEs (at least one).
+     */
+    private static final int[] CLOUDLETS_BY_VM = {1, 2, 8};
+    private static final int CLOUDLET_LENGTH = HOST_MIPS * 10;
+
+    /**
+     * The scheduling intervals to run each size with.
+     * -1 disables the interval (as in {@link org.cloudsimplus.examples.LargeScaleExample}),
+     * while 1 hour is the value used in {@link PerformanceExample1}.
+     * @see Datacenter#setSchedulingInterval(double)
+     */
+    private static final double[] SCHEDULING_INTERVALS = {-1, TimeUtil.hoursToSeconds(1)};
+
+    /**
+     * A run taking longer than this (setup plus simulation) stops the curve of its configuration.
+     */
+    private static final double MAX_RUN_SECS = 600;
+
+    /**
+     * The period to sample the heap used during a run.
+     * The heap memory pools peak at different times, so the sum of their peaks would overstate the peak heap.
+     */
+    private static final long HEAP_SAMPLING_MILLIS = 10;
+
+    private static final String HEADER =
+        "allocationPolicy,schedulingInterval,hosts,vmsByHost,cloudletsByVm,vms,cloudlets,setupSecs,simulationSecs,"+
+        "peakHeapMB,gcCount,gcSecs,finishedCloudlets,simulatedTime,microsByCloudlet";
+
+    /**
+     * The {@link VmAllocationPolicy} implementations to compare.
+     */
+    private enum AllocationPolicy {
+        FIRST_FIT(VmAllocationPolicyFirstFit::new),
+        BEST_FIT(VmAllocationPolicyBestFit::new),
+        WORST_FIT(VmAllocationPolicySimple::new),
+        ROUND_ROBIN(VmAllocationPolicyRoundRobin::new);
+
+        private final Supplier<VmAllocationPolicy> supplier;
+
+        AllocationPolicy(final Supplier<VmAllocationPolicy> supplier) {
+            this.supplier = supplier;
+        }
+    }
+
+    /**
+     * The measurements of a single simulation run.
+     */
+    private record Measurement(
+        AllocationPolicy policy, double interval, int hosts, int vmsByHost, int cloudletsByVm, int vms, int cloudlets,
+        double setupSecs, double simulationSecs, long peakHeapMB, long gcCount, double gcSecs,
+        int finishedCloudlets, double simulatedTime)
+    {
+        double totalSecs() {
+            return setupSecs + simulationSecs;
+        }
+
+        String toCsvRow() {
+            // Locale.ROOT always uses a dot as decimal separator, which doesn't clash with the CSV commas
+            return String.format(Locale.ROOT, "%s,%.0f,%d,%d,%d,%d,%d,%.3f,%.3f,%d,%d,%.3f,%d,%.2f,%.3f",
+                policy, interval, hosts, vmsByHost, cloudletsByVm, vms, cloudlets, setupSecs, simulationSecs,
+                peakHeapMB, gcCount, gcSecs, finishedCloudlets, simulatedTime,
+                totalSecs() * 1e6 / cloudlets);
+        }
+    }
+
+    private final MemoryMXBean memory;
+    private final List<GarbageCollectorMXBean> collectors;
+
+    /**
+     * Starts the benchmark.
+     * @param args optional arguments: the maximum number of Hosts and the CSV file to write
+     *             (default result/scaling.csv)
+     */
+    public static void main(String[] args) throws IOException {
+        final int maxHosts = args.length > 0 ? Integer.parseInt(args[0]) : MAX_HOSTS;
+        final var outputFile = Path.of(args.length > 1 ? args[1] : "result/scaling.csv");
+        new ScalingBenchmark().run(maxHosts, outputFile);
+    }
+
+    private ScalingBenchmark() {
+        // Disable logging for performance improvements.
+        Log.setLevel(Level.OFF);
+        memory = ManagementFactory.getMemoryMXBean();
+        collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    private void run(final int maxHosts, final Path outputFile) throws IOException {
+        if(maxHosts < MIN_HOSTS) {
+            throw new IllegalArgumentException("The maximum number of Hosts must be at least " + MIN_HOSTS);
+        }
+
+        if(outputFile.getParent() != null) {
+            Files.createDirectories(outputFile.getParent());
+        }
+
+        System.out.printf("%s scaling benchmark from %,d to %,d Hosts%n", CloudSimPlus.VERSION, MIN_HOSTS, maxHosts);
+        // Warms up the JIT so that the first point of the curve isn't dominated by interpretation
+        runSimulation(AllocationPolicy.FIRST_FIT, -1, MIN_HOSTS, VMS_BY_HOST[0], CLOUDLETS_BY_VM[0]);
+
+        try (var out = new PrintStream(Files.newOutputStream(outputFile))) {
+            out.println(HEADER);
+            for (final var policy : AllocationPolicy.values()) {
+                for (final double interval : SCHEDULING_INTERVALS) {
+                    for (final int vmsByHost : VMS_BY_HOST) {
+                        for (final int cloudletsByVm : CLOUDLETS_BY_VM) {
+                            runCurve(out, policy, interval, maxHosts, vmsByHost, cloudletsByVm);
+                        }
+                    }
+                }
+            }
+        }
+
+        System.out.printf("Scaling curves written to %s%n", outputFile);
+    }
+
+    private void runCurve(
+        final PrintStream out, final AllocationPolicy policy, final double interval,
+        final int maxHosts, final int vmsByHost, final int cloudletsByVm)
+    {
+        for (long hosts = MIN_HOSTS; hosts <= maxHosts; hosts *= GROWTH_FACTOR) {
+            final var measurement = runSimulation(policy, interval, (int) hosts, vmsByHost, cloudletsByVm);
+            out.println(measurement.toCsvRow());
+            out.flush();
+            System.out.println(measurement.toCsvRow());
+
+            if(measurement.totalSecs() > MAX_RUN_SECS) {
+                System.out.printf(
+                    "Skipping larger sizes of %s with interval %.0f, %d VMs by Host and %d Cloudlets by VM%n",
+                    policy, interval, vmsByHost, cloudletsByVm);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates and runs a simulation with a given number of Hosts, VMs by Host and Cloudlets by VM.
+     * @return the measurements of the run
+     */
+    private Measurement runSimulation(
+        final AllocationPolicy policy, final double interval,
+        final int hosts, final int vmsByHost, final int cloudletsByVm)
+    {
+        final int vms = hosts * vmsByHost;
+        final int cloudlets = vms * cloudletsByVm;
+        final int vmPes = HOST_PES / vmsByHost;
+
+        // Starts from a clean heap, so that garbage from the previous run isn't accounted for this one
+        System.gc();
+        final long gcCountBefore = gcCount();
+        final long gcMillisBefore = gcMillis();
+        final var peakHeapSampler = new PeakHeapSampler();
+
+        final long startNanos = System.nanoTime();
+        final var simulation = new CloudSimPlus();
+        createDatacenter(simulation, policy, interval, hosts);
+        final var broker0 = new DatacenterBrokerSimple(simulation);
+        broker0.submitVmList(createVms(vms, vmsByHost));
+        broker0.submitCloudletList(createCloudlets(cloudlets, Math.max(1, vmPes / 2)));
+        final long setupNanos = System.nanoTime() - startNanos;
+
+        simulation.start();
+        final long simulationNanos = System.nanoTime() - startNanos - setupNanos;
+
+        final long peakHeap = peakHeapSampler.stop();
+        return new Measurement(
+            policy, interval, hosts, vmsByHost, cloudletsByVm, vms, cloudlets,
+            setupNanos / 1e9, simulationNanos / 1e9,
+            peakHeap / (1024 * 1024), gcCount() - gcCountBefore, (gcMillis() - gcMillisBefore) / 1000.0,
+            broker0.getCloudletFinishedList().size(), simulation.clock());
+    }
+
+    /**
+     * Samples the heap used at the {@link #HEAP_SAMPLING_MILLIS sampling period} in a daemon thread, keeping the maximum.
+     */
+    private final class PeakHeapSampler {
+        private final ScheduledExecutorService executor;
+        private long peakHeap;
+
+        PeakHeapSampler() {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final var thread = new Thread(runnable, "heap-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleAtFixedRate(this::sample, 0, HEAP_SAMPLING_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void sample() {
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+        }
+
+        /**
+         * Stops sampling.
+         * @return the peak heap used (in bytes), including a last sample
+         */
+        long stop() {
+            executor.shutdownNow();
+            sample();
+            return peakHeap;
+        }
+    }
+
+    private long gcCount() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private long gcMillis() {
+        return collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private Datacenter createDatacenter(
+        final CloudSimPlus simulation, final AllocationPolicy policy,
+        final double interval, final int hosts)
+    {
+        final var hostList = new ArrayList<Host>(hosts);
+        for (int i = 0; i < hosts; i++) {
+            hostList.add(createHost());
+        }
+
+        return new DatacenterSimple(simulation, hostList)
+            .setVmAllocationPolicy(policy.supplier.get())
+            .setSchedulingInterval(interval);
+    }
+
+    private Host createHost() {
+        final var peList = new ArrayList<Pe>(HOST_PES);
+        for (int i = 0; i < HOST_PES; i++) {
+            peList.add(new PeSimple(HOST_MIPS));
+        }
+
+        final var host = new HostSimple(HOST_RAM, HOST_BW, HOST_STORAGE, peList);
+        host.setVmScheduler(new VmSchedulerTimeShared());
+        return host;
+    }
+
+    private List<Vm> createVms(final int vms, final int vmsByHost) {
+        final var vmList = new ArrayList<Vm>(vms);
+        for (int i = 0; i < vms; i++) {
+            final var vm = new VmSimple(i, HOST_MIPS, HOST_PES / vmsByHost);
+            vm.setRam(HOST_RAM / vmsByHost).setBw(HOST_BW / vmsByHost).setSize(VM_SIZE);
+            vmList.add(vm);
+        }
+
+        return vmList;
+    }
+
+    private List<Cloudlet> createCloudlets(final int cloudlets, final int cloudletPes) {
+        final var cloudletList = new ArrayList<Cloudlet>(cloudlets);
+        final var ramBwModel = new UtilizationModelDynamic(0.2);
+        final var cpuModel = new UtilizationModelFull();
+        for (int i = 0; i < cloudlets; i++) {
+            final var cloudlet = new CloudletSimple(i, CLOUDLET_LENGTH, cloudletPes);
+            cloudlet.setSizes(1024)
+                    .setUtilizationModelCpu(cpuModel)
+                    .setUtilizationModelRam(ramBwModel)
+                    .setUtilizationModelBw(ramBwModel);
+            cloudletList.add(cloudlet);
+        }
+
+        return cloudletList;
+    }
+}
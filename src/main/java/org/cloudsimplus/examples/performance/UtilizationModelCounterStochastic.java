@@ -0,0 +1,92 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.performance;
+
+import org.cloudsimplus.utilizationmodels.UtilizationModelAbstract;
+import org.cloudsimplus.utilizationmodels.UtilizationModelStochastic;
+
+/**
+ * A stochastic {@link org.cloudsimplus.utilizationmodels.UtilizationModel} that uses constant memory,
+ * whatever the length of the simulation.
+ * As the {@link UtilizationModelStochastic} with history enabled, the utilization is uniformly distributed
+ * in [0, 1) and the same value is returned whenever the utilization for a given time is requested again.
+ * However, instead of storing the generated values in a history map that grows for every new time,
+ * each value is regenerated from the seed and the time by a counter-based generator:
+ * the bits of the time are mixed with the seed by the SplitMix64 finalizer,
+ * which has no state to keep between calls.
+ *
+ * <p>Instances with the same seed return the same utilization for the same time,
+ * so give a distinct seed to each Cloudlet that needs an independent utilization.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ * @see UtilizationModelStochasticPerformance
+ */
+public class UtilizationModelCounterStochastic extends UtilizationModelAbstract {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private final long seed;
+    private final long mixedSeed;
+
+    /**
+     * Creates a stochastic utilization model with a random seed.
+     */
+    public UtilizationModelCounterStochastic() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Creates a stochastic utilization model with a given seed.
+     * @param seed the seed that, together with the time, defines each utilization value
+     */
+    public UtilizationModelCounterStochastic(final long seed) {
+        super();
+        this.seed = seed;
+        this.mixedSeed = mix(seed);
+    }
+
+    @Override
+    protected double getUtilizationInternal(final double time) {
+        //Adding 0.0 turns -0.0 into 0.0, so that both times have the same utilization
+        final long counter = Double.doubleToLongBits(time + 0.0);
+        return (mix(mixedSeed + counter * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * The SplitMix64 finalizer, which maps each value to a seemingly random one.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Gets the seed that, together with the time, defines each utilization value.
+     * @return
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -76,6 +76,9 @@ import static java.util.stream.Collectors.toCollection;
  * documentation.
  * </p>
  *
+ * <p>Setting {@link #COUNTER_BASED_UTILIZATION_MODEL} to true uses a {@link UtilizationModelCounterStochastic} instead,
+ * which regenerates the same values from the seed and the time, without keeping any history.</p>
+ *
  * @author Manoel Campos da Silva Filho
  * @since CloudSim Plus 4.3.6
  * @see <a href="https://github.com/cloudsimplus/cloudsimplus/issues/197">Issue #197 for more details</a>
@@ -119,6 +122,14 @@ public class UtilizationModelStochasticPerformance {
      */
     private static final boolean STORE_CLOUDLETS_CPU_UTILIZATION_HISTORY = true;
 
+    /**
+     * Indicates if a {@link UtilizationModelCounterStochastic} will be used instead of
+     * the {@link UtilizationModelStochastic}. It returns the same value for the same time
+     * as a history would, but its memory consumption doesn't grow with the simulation time.
+     * The other utilization model flags are ignored, except {@link #MULTIPLE_UTILIZATION_MODELS}.
+     */
+    private static final boolean COUNTER_BASED_UTILIZATION_MODEL = false;
+
     private static final VmAllocationPolicy VM_ALLOCATION_POLICY = new VmAllocationPolicyFirstFit();
     private static final long SEED = 123456;
 
@@ -127,7 +138,7 @@ public class UtilizationModelStochasticPerformance {
     private List<Vm> vmList;
     private List<Cloudlet> cloudletList;
     private Datacenter datacenter0;
-    private UtilizationModelStochastic um;
+    private UtilizationModel um;
 
     public static void main(String[] args) {
         new UtilizationModelStochasticPerformance();
@@ -153,8 +164,8 @@ public class UtilizationModelStochasticPerformance {
 
         final double execMinutes = TimeUtil.millisecsToMinutes(System.currentTimeMillis() - startMillis);
         System.out.printf(
-            "Multiple Utilization Models: %s | Store Utilization History: %s%n%n",
-            MULTIPLE_UTILIZATION_MODELS, STORE_CLOUDLETS_CPU_UTILIZATION_HISTORY);
+            "Multiple Utilization Models: %s | Store Utilization History: %s | Counter-based Utilization Model: %s%n%n",
+            MULTIPLE_UTILIZATION_MODELS, STORE_CLOUDLETS_CPU_UTILIZATION_HISTORY, COUNTER_BASED_UTILIZATION_MODEL);
 
         System.out.println("| Execution time | Simulation time | Max Heap Used | VmAllocationPolicy | Hosts      | VMs        | Cloudlets  | Cloudlet Len | DC Scheduling Interval |");
         System.out.println("| ---------------|-----------------|---------------|--------------------|------------|------------|------------|--------------|------------------------|");
@@ -218,14 +229,20 @@ public class UtilizationModelStochasticPerformance {
         final var newCloudletList = new ArrayList<Cloudlet>(CLOUDLETS);
         for (int i = 0; i < CLOUDLETS; i++) {
             final var cloudlet = new CloudletSimple(CLOUDLET_LENGTH, CLOUDLET_PES);
-            this.um = MULTIPLE_UTILIZATION_MODELS || this.um == null ? new UtilizationModelStochastic(SEED) : this.um;
-            this.um
-                .setHistoryEnabled(STORE_CLOUDLETS_CPU_UTILIZATION_HISTORY)
-                .setAlwaysGenNewRandUtilization(ALWAYS_GENERATE_NEW_RANDOM_UTILIZATION);
+            this.um = MULTIPLE_UTILIZATION_MODELS || this.um == null ? createUtilizationModel(i) : this.um;
             cloudlet.setUtilizationModelCpu(um).setSizes(1024);
             newCloudletList.add(cloudlet);
         }
 
         return newCloudletList;
     }
+
+    private UtilizationModel createUtilizationModel(final int cloudletIndex) {
+        if(COUNTER_BASED_UTILIZATION_MODEL)
+            return new UtilizationModelCounterStochastic(SEED + cloudletIndex);
+
+        return new UtilizationModelStochastic(SEED)
+                    .setHistoryEnabled(STORE_CLOUDLETS_CPU_UTILIZATION_HISTORY)
+                    .setAlwaysGenNewRandUtilization(ALWAYS_GENERATE_NEW_RANDOM_UTILIZATION);
+    }
 }
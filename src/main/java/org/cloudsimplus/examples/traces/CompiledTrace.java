@@ -0,0 +1,466 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A workload trace compiled into a columnar binary file, so that it's parsed only once
+ * and then read by the trace readers (such as the {@link SwfWorkloadStream}) straight from memory-mapped
+ * primitive columns, instead of decompressing and parsing its text on every run.
+ *
+ * <p>The compiled file is stored next to the trace, with the {@value #EXTENSION} extension
+ * (or in the temporary directory, when the trace directory is not writable).
+ * It records a CRC32C checksum of the trace, so that it's compiled again when the trace changes.</p>
+ *
+ * <p>Each row of a compiled trace is a task with the columns:</p>
+ * <ul>
+ *   <li>{@link #getId(int) id}: the SWF job number or the Google job id;</li>
+ *   <li>{@link #getTime(int) time}: the submit time (in seconds);</li>
+ *   <li>{@link #getRunTime(int) run time}: the SWF job run time (in seconds), or NaN for Google tasks;</li>
+ *   <li>{@link #getPes(int) PEs}: the SWF allocated (or requested) processors, or 1 for Google tasks;</li>
+ *   <li>{@link #getCpuRequest(int) CPU request}: the Google task CPU request (a fraction of a machine), or NaN for SWF jobs.</li>
+ * </ul>
+ * SWF jobs without a run time and Google task events other than SUBMIT are not stored.
+ * The rows keep the trace order and a sparse index of the time of every {@value #INDEX_STRIDE}th row
+ * allows {@link #findRow(double) finding} the tasks submitted from a given time on.
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class CompiledTrace {
+    /**
+     * The extension of compiled trace files.
+     */
+    public static final String EXTENSION = ".columns";
+
+    /**
+     * The number of rows between consecutive entries of the time index.
+     */
+    public static final int INDEX_STRIDE = 1024;
+
+    private static final int MAGIC = 0x43545243; //"CTRC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+    private static final double MICROSECONDS = 1_000_000;
+
+    /**
+     * The trace formats that can be compiled.
+     */
+    public enum Format {
+        SWF, GOOGLE_TASK_EVENTS;
+
+        /**
+         * Gets the format of a trace from its file name.
+         * @param file the trace file name
+         * @return the trace format
+         * @throws IllegalArgumentException when the file extension is not supported
+         */
+        public static Format of(final String file) {
+            final var name = file.toLowerCase().replaceFirst("\\.gz$", "");
+            if(name.endsWith(".swf"))
+                return SWF;
+            if(name.endsWith(".csv"))
+                return GOOGLE_TASK_EVENTS;
+            throw new IllegalArgumentException("Unsupported trace file " + file + ". It must be a .swf or .csv file, optionally gzipped");
+        }
+    }
+
+    private final Format format;
+    private final int rows;
+    private final int maxProcs;
+    private final LongBuffer ids;
+    private final DoubleBuffer times;
+    private final DoubleBuffer runTimes;
+    private final DoubleBuffer cpuRequests;
+    private final IntBuffer pes;
+    private final DoubleBuffer index;
+
+    private CompiledTrace(final Format format, final ByteBuffer buffer) {
+        this.format = format;
+        buffer.position(24);
+        this.rows = (int) buffer.getLong();
+        this.maxProcs = buffer.getInt();
+        final int indexSize = buffer.getInt();
+
+        int offset = HEADER_BYTES;
+        this.ids = buffer.slice(offset, rows * Long.BYTES).asLongBuffer();
+        offset += rows * Long.BYTES;
+        this.times = buffer.slice(offset, rows * Double.BYTES).asDoubleBuffer();
+        offset += rows * Double.BYTES;
+        this.runTimes = buffer.slice(offset, rows * Double.BYTES).asDoubleBuffer();
+        offset += rows * Double.BYTES;
+        this.cpuRequests = buffer.slice(offset, rows * Double.BYTES).asDoubleBuffer();
+        offset += rows * Double.BYTES;
+        this.index = buffer.slice(offset, indexSize * Double.BYTES).asDoubleBuffer();
+        offset += indexSize * Double.BYTES;
+        this.pes = buffer.slice(offset, rows * Integer.BYTES).asIntBuffer();
+    }
+
+    /**
+     * Gets the compiled form of a trace, compiling it if it was not compiled yet or the trace has changed.
+     *
+     * @param trace the path or classpath resource of the trace, which may be gzipped
+     * @return an {@link Optional} with the compiled trace,
+     *         or an empty one if the trace is not a file (such as a resource inside a jar)
+     * @throws UncheckedIOException when the trace cannot be read or compiled
+     * @throws IllegalArgumentException when the trace format is not supported or the trace is malformed
+     */
+    public static Optional<CompiledTrace> load(final String trace) {
+        final var format = Format.of(trace);
+        try {
+            final var source = resolve(trace);
+            if(source == null)
+                return Optional.empty();
+
+            final long checksum = checksum(source);
+            final var compiledFile = getCompiledFile(source);
+            if(!isCompiled(compiledFile, format, checksum)) {
+                compile(source, format, checksum, compiledFile);
+            }
+
+            return Optional.of(open(compiledFile, format));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error compiling trace " + trace, e);
+        }
+    }
+
+    private static Path resolve(final String trace) throws IOException {
+        final var path = Path.of(trace);
+        if(Files.isRegularFile(path))
+            return path;
+
+        final var url = CompiledTrace.class.getClassLoader().getResource(trace);
+        if(url == null)
+            throw new FileNotFoundException(trace);
+        if(!"file".equals(url.getProtocol()))
+            return null;
+
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static Path getCompiledFile(final Path source) {
+        final var name = source.getFileName() + EXTENSION;
+        final var dir = source.toAbsolutePath().getParent();
+        return Files.isWritable(dir) ? dir.resolve(name) : Path.of(System.getProperty("java.io.tmpdir"), name);
+    }
+
+    private static long checksum(final Path source) throws IOException {
+        final var crc = new CRC32C();
+        try (var channel = FileChannel.open(source)) {
+            final var buffer = ByteBuffer.allocateDirect(1 << 16);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static boolean isCompiled(final Path compiledFile, final Format format, final long checksum) throws IOException {
+        if(!Files.isRegularFile(compiledFile) || Files.size(compiledFile) < HEADER_BYTES)
+            return false;
+
+        try (var channel = FileChannel.open(compiledFile)) {
+            final var header = ByteBuffer.allocate(24);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC && header.getInt() == VERSION &&
+                   header.getInt() == format.ordinal() && header.getLong(16) == checksum;
+        }
+    }
+
+    private static CompiledTrace open(final Path compiledFile, final Format format) throws IOException {
+        try (var channel = FileChannel.open(compiledFile)) {
+            //The mapping remains valid after the channel is closed
+            return new CompiledTrace(format, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Parses a trace and writes its compiled form.
+     * Each column is written to its own temporary file while the trace is parsed,
+     * so that the trace is not loaded into memory, and the columns are then appended to the compiled file.
+     */
+    private static void compile(final Path source, final Format format, final long checksum, final Path compiledFile) throws IOException {
+        final var dir = compiledFile.toAbsolutePath().getParent();
+        final var columnFiles = new ArrayList<Path>();
+        final var tmpFile = Files.createTempFile(dir, compiledFile.getFileName().toString(), ".tmp");
+        try {
+            for (int i = 0; i < 6; i++) {
+                columnFiles.add(Files.createTempFile(dir, compiledFile.getFileName().toString(), ".col"));
+            }
+
+            final var writer = new ColumnWriter(columnFiles);
+            try (writer; var reader = new BufferedReader(new InputStreamReader(openSource(source), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.parse(format, line.strip());
+                }
+            }
+
+            try (var out = FileChannel.open(tmpFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final var header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).putInt(format.ordinal()).putInt(0).putLong(checksum)
+                      .putLong(writer.rows).putInt(writer.maxProcs).putInt(writer.indexSize());
+                header.flip();
+                out.write(header);
+                for (final var columnFile : columnFiles) {
+                    try (var in = FileChannel.open(columnFile)) {
+                        long position = 0;
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                }
+            }
+
+            Files.move(tmpFile, compiledFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+            for (final var columnFile : columnFiles) {
+                Files.deleteIfExists(columnFile);
+            }
+        }
+    }
+
+    private static InputStream openSource(final Path source) throws IOException {
+        final var in = Files.newInputStream(source);
+        return source.toString().endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+    }
+
+    /**
+     * Writes the parsed rows to one temporary file by column, in the order of the compiled file:
+     * ids, times, run times, CPU requests, then the time index and the PEs.
+     * The 4-byte PEs column is the last one, so that the 8-byte columns stay aligned.
+     */
+    private static final class ColumnWriter implements AutoCloseable {
+        private final List<DataOutputStream> columns;
+        private long rows;
+        private int maxProcs = -1;
+
+        ColumnWriter(final List<Path> files) throws IOException {
+            this.columns = new ArrayList<>(files.size());
+            for (final var file : files) {
+                columns.add(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)));
+            }
+        }
+
+        int indexSize() {
+            return (int) ((rows + INDEX_STRIDE - 1) / INDEX_STRIDE);
+        }
+
+        void parse(final Format format, final String line) throws IOException {
+            if(format == Format.SWF && line.startsWith(";")) {
+                final var field = line.substring(1).strip();
+                if(field.startsWith("MaxProcs:")) {
+                    maxProcs = Integer.parseInt(field.substring("MaxProcs:".length()).strip());
+                }
+                return;
+            }
+
+            if(line.isEmpty() || line.startsWith("#"))
+                return;
+
+            try {
+                if(format == Format.SWF)
+                    parseSwfJob(line.split("\\s+"));
+                else parseGoogleTaskEvent(line.split(",", -1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed %s line: %s".formatted(format, line), e);
+            }
+        }
+
+        /**
+         * Parses an SWF job, whose fields 1, 2, 4, 5 and 8 are the job number, the submit and run time (in seconds),
+         * the allocated and the requested processors.
+         */
+        private void parseSwfJob(final String[] fields) throws IOException {
+            final double runTime = Double.parseDouble(fields[3]);
+            if(runTime <= 0)
+                return;
+
+            final int allocatedProcs = Integer.parseInt(fields[4]);
+            final int procs = allocatedProcs > 0 ? allocatedProcs : Integer.parseInt(fields[7]);
+            write(Long.parseLong(fields[0]), Double.parseDouble(fields[1]), runTime, Double.NaN, procs);
+        }
+
+        /**
+         * Parses a Google task event, whose fields 1, 3, 6 and 10 are the timestamp (in microseconds),
+         * the job id, the event type and the CPU request.
+         */
+        private void parseGoogleTaskEvent(final String[] fields) throws IOException {
+            final boolean submit = Integer.parseInt(fields[5]) == 0;
+            if(!submit || fields[9].isEmpty())
+                return;
+
+            write(Long.parseLong(fields[2]), Long.parseLong(fields[0]) / MICROSECONDS, Double.NaN, Double.parseDouble(fields[9]), 1);
+        }
+
+        private void write(final long id, final double time, final double runTime, final double cpuRequest, final int pes) throws IOException {
+            if(rows % INDEX_STRIDE == 0) {
+                columns.get(4).writeDouble(time);
+            }
+
+            columns.get(0).writeLong(id);
+            columns.get(1).writeDouble(time);
+            columns.get(2).writeDouble(runTime);
+            columns.get(3).writeDouble(cpuRequest);
+            columns.get(5).writeInt(pes);
+            rows++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (final var column : columns) {
+                column.close();
+            }
+        }
+    }
+
+    /**
+     * Gets the format of the compiled trace.
+     * @return
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the number of tasks in the trace.
+     * @return
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the maximum number of processors a job can use, from the SWF header.
+     * @return the maximum number of processors or -1 if it's unknown
+     */
+    public int getMaxProcs() {
+        return maxProcs;
+    }
+
+    /**
+     * Gets the SWF job number or the Google job id of a task.
+     * @param row the row of the task
+     * @return
+     */
+    public long getId(final int row) {
+        return ids.get(row);
+    }
+
+    /**
+     * Gets the submit time of a task (in seconds).
+     * @param row the row of the task
+     * @return
+     */
+    public double getTime(final int row) {
+        return times.get(row);
+    }
+
+    /**
+     * Gets the run time of an SWF job (in seconds).
+     * @param row the row of the task
+     * @return the run time or NaN for Google tasks
+     */
+    public double getRunTime(final int row) {
+        return runTimes.get(row);
+    }
+
+    /**
+     * Gets the number of processors of a task.
+     * @param row the row of the task
+     * @return
+     */
+    public int getPes(final int row) {
+        return pes.get(row);
+    }
+
+    /**
+     * Gets the CPU request of a Google task, as a fraction of a machine.
+     * @param row the row of the task
+     * @return the CPU request or NaN for SWF jobs
+     */
+    public double getCpuRequest(final int row) {
+        return cpuRequests.get(row);
+    }
+
+    /**
+     * Finds the first task submitted at or after a given time,
+     * using the time index to scan at most {@value #INDEX_STRIDE} rows.
+     * The rows are expected to be in submit time order, as traces are.
+     *
+     * @param time the time to search (in seconds)
+     * @return the row of the task or {@link #size()} if all tasks are submitted before the time
+     */
+    public int findRow(final double time) {
+        int low = 0;
+        int high = index.limit() - 1;
+        int block = 0;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            if(index.get(middle) < time) {
+                block = middle;
+                low = middle + 1;
+            } else high = middle - 1;
+        }
+
+        int row = block * INDEX_STRIDE;
+        while (row < rows && times.get(row) < time) {
+            row++;
+        }
+
+        return row;
+    }
+}
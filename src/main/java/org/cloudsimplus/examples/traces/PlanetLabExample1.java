@@ -40,11 +40,13 @@ import org.cloudsimplus.resources.PeSimple;
 import org.cloudsimplus.schedulers.cloudlet.CloudletSchedulerTimeShared;
 import org.cloudsimplus.schedulers.vm.VmSchedulerTimeShared;
 import org.cloudsimplus.util.TimeUtil;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
 import org.cloudsimplus.utilizationmodels.UtilizationModelDynamic;
 import org.cloudsimplus.utilizationmodels.UtilizationModelPlanetLab;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.vms.VmSimple;
 
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -55,6 +57,11 @@ import java.util.stream.IntStream;
  * to define Cloudlets' CPU utilization based on <a href="https://www.planet-lab.org">PlanetLab's</a> trace files.
  * Check the {@link #createCloudlets()} method.
  *
+ * <p>The traces can be also replayed from a {@link PlanetLabTraceStore},
+ * which converts the whole trace directory once into a memory-mapped file shared by all Cloudlets,
+ * so that simulations with many Cloudlets don't hold a copy of the samples for each one.
+ * Set {@link #USE_TRACE_STORE} to true to use it.</p>
+ *
  * @author Manoel Campos da Silva Filho
  * @since CloudSim Plus 4.0.0
  */
@@ -70,7 +77,20 @@ public class PlanetLabExample1 {
     private static final int CLOUDLET_PES = 2;
     private static final int CLOUDLET_LENGTH = 100000000;
 
-    private static final String TRACE_FILE = "workload/planetlab/20110303/75-130-96-12_static_oxfr_ma_charter_com_irisaple_wup";
+    private static final String TRACE_DIR = "workload/planetlab/20110303";
+    private static final String TRACE_NAME = "75-130-96-12_static_oxfr_ma_charter_com_irisaple_wup";
+    private static final String TRACE_FILE = TRACE_DIR + "/" + TRACE_NAME;
+
+    /**
+     * Indicates if the CPU utilization is replayed from a {@link PlanetLabTraceStore}
+     * or from a {@link UtilizationModelPlanetLab} that reads the {@link #TRACE_FILE}.
+     */
+    private static final boolean USE_TRACE_STORE = false;
+
+    /**
+     * The file the {@link PlanetLabTraceStore} is created in the first time it's used.
+     */
+    private static final Path TRACE_STORE_FILE = Path.of(System.getProperty("java.io.tmpdir"), "planetlab-20110303.store");
 
     /**
      * The time interval in which precise values can be got from
@@ -174,7 +194,10 @@ public class PlanetLabExample1 {
      */
     private List<Cloudlet> createCloudlets() {
         final var list = new ArrayList<Cloudlet>(CLOUDLETS);
-        final var utilizationCpu = UtilizationModelPlanetLab.getInstance(TRACE_FILE, SCHEDULING_INTERVAL);
+        final UtilizationModel utilizationCpu =
+            USE_TRACE_STORE ?
+                PlanetLabTraceStore.getInstance(TRACE_DIR, TRACE_STORE_FILE).getUtilizationModel(TRACE_NAME, SCHEDULING_INTERVAL) :
+                UtilizationModelPlanetLab.getInstance(TRACE_FILE, SCHEDULING_INTERVAL);
         for (int i = 0; i < CLOUDLETS; i++) {
             final var cloudlet =
                 new CloudletSimple(i, CLOUDLET_LENGTH, CLOUDLET_PES)
@@ -0,0 +1,341 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces;
+
+import org.cloudsimplus.utilizationmodels.UtilizationModelAbstract;
+import org.cloudsimplus.utilizationmodels.UtilizationModelPlanetLab;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Stores a directory of PlanetLab trace files (such as {@code workload/planetlab/20110303})
+ * in a single compact binary file, which is memory-mapped and shared by all Cloudlets
+ * that replay the traces.
+ * Instead of each {@link UtilizationModelPlanetLab} reading a trace file and holding
+ * its samples as an array of doubles, the {@link #getUtilizationModel(String, double) utilization models}
+ * created by the store are flyweights that just know where their samples are in the shared buffer.
+ * The OS pages the buffer in and out as needed, so it doesn't even take heap space.
+ *
+ * <p>Each trace is stored as {@value #SAMPLES_BY_TRACE} {@code short} samples
+ * (a day of CPU utilization measured every 5 minutes), in hundredths of percent.
+ * Missing samples of shorter traces are zero and extra samples of longer traces are ignored.
+ * The store file is created by {@link #getInstance(String, Path)} the first time.
+ * It records a CRC32C checksum of the trace names and contents, so that it's created again
+ * when a trace is added, removed or edited in place.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class PlanetLabTraceStore {
+    /**
+     * The number of samples of each trace: one every 5 minutes for a day.
+     */
+    public static final int SAMPLES_BY_TRACE = 288;
+
+    private static final int MAGIC = 0x504C5453; //"PLTS"
+    private static final int VERSION = 2;
+
+    /** The samples are stored in hundredths of percent. */
+    private static final double SAMPLE_SCALE = 10_000.0;
+
+    private final List<String> names;
+    private final Map<String, Integer> indexByName;
+    private final ShortBuffer samples;
+
+    private PlanetLabTraceStore(final List<String> names, final ShortBuffer samples) {
+        this.names = Collections.unmodifiableList(names);
+        this.indexByName = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            indexByName.put(names.get(i), i);
+        }
+
+        this.samples = samples;
+    }
+
+    /**
+     * Gets a store for a directory of PlanetLab traces, creating the store file
+     * if it doesn't exist or was created from different traces.
+     *
+     * @param traceDir the path or classpath directory of the trace files
+     * @param storeFile the store file to create or open
+     * @return the store
+     * @throws UncheckedIOException when the traces cannot be read or the store file cannot be written
+     */
+    public static PlanetLabTraceStore getInstance(final String traceDir, final Path storeFile) {
+        try {
+            final var files = listTraces(resolveDirectory(traceDir));
+            final long checksum = checksum(files);
+            if(!isCompiled(storeFile, checksum)) {
+                compile(files, checksum, storeFile);
+            }
+
+            return open(storeFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error loading the PlanetLab traces of " + traceDir, e);
+        }
+    }
+
+    private static Path resolveDirectory(final String traceDir) throws IOException {
+        final var path = Path.of(traceDir);
+        if(Files.isDirectory(path))
+            return path;
+
+        final var url = PlanetLabTraceStore.class.getClassLoader().getResource(traceDir);
+        if(url == null || !"file".equals(url.getProtocol()))
+            throw new FileNotFoundException(traceDir + " is not a directory");
+
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Converts every file in a directory of PlanetLab traces into a store file.
+     * The traces are stored in the alphabetical order of their names.
+     * The file is written to a temporary file and then moved, so that a store file is never partially written.
+     *
+     * @param traceDir the directory of the trace files
+     * @param storeFile the store file to create
+     * @throws IOException when the traces cannot be read or the store file cannot be written
+     */
+    public static void compile(final Path traceDir, final Path storeFile) throws IOException {
+        final var files = listTraces(traceDir);
+        compile(files, checksum(files), storeFile);
+    }
+
+    private static List<Path> listTraces(final Path traceDir) throws IOException {
+        try (var paths = Files.list(traceDir)) {
+            return paths.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    /**
+     * Computes the checksum of the names and contents of the trace files.
+     */
+    private static long checksum(final List<Path> files) throws IOException {
+        final var crc = new CRC32C();
+        final var buffer = ByteBuffer.allocateDirect(1 << 16);
+        for (final var file : files) {
+            crc.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            try (var channel = FileChannel.open(file)) {
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    crc.update(buffer);
+                    buffer.clear();
+                }
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    private static boolean isCompiled(final Path storeFile, final long checksum) throws IOException {
+        if(!Files.isRegularFile(storeFile))
+            return false;
+
+        try (var in = new DataInputStream(Files.newInputStream(storeFile))) {
+            return Files.size(storeFile) >= 16 && in.readInt() == MAGIC && in.readInt() == VERSION && in.readLong() == checksum;
+        }
+    }
+
+    private static void compile(final List<Path> files, final long checksum, final Path storeFile) throws IOException {
+        final var tmpFile = Files.createTempFile(storeFile.toAbsolutePath().getParent(), storeFile.getFileName().toString(), ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum);
+            out.writeInt(files.size());
+            out.writeInt(SAMPLES_BY_TRACE);
+            for (final var file : files) {
+                out.writeUTF(file.getFileName().toString());
+            }
+
+            for (final var file : files) {
+                writeSamples(file, out);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmpFile);
+            throw e;
+        }
+
+        Files.move(tmpFile, storeFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeSamples(final Path file, final DataOutputStream out) throws IOException {
+        int written = 0;
+        try (var lines = Files.newBufferedReader(file)) {
+            String line;
+            while (written < SAMPLES_BY_TRACE && (line = lines.readLine()) != null) {
+                if(line.isBlank())
+                    continue;
+
+                final double percent = Double.parseDouble(line.strip());
+                out.writeShort((int) Math.round(Math.min(Math.max(percent, 0), 100) * 100));
+                written++;
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid sample in " + file, e);
+        }
+
+        for (; written < SAMPLES_BY_TRACE; written++) {
+            out.writeShort(0);
+        }
+    }
+
+    /**
+     * Opens an existing store file, memory-mapping its samples.
+     * @param storeFile the store file to open
+     * @return the store
+     * @throws IOException when the store file cannot be read or is not a valid store
+     */
+    public static PlanetLabTraceStore open(final Path storeFile) throws IOException {
+        try (var channel = FileChannel.open(storeFile)) {
+            final var in = new DataInputStream(Channels.newInputStream(channel));
+            if(in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException(storeFile + " is not a PlanetLab trace store");
+
+            in.readLong(); //the checksum of the traces
+            final int traces = in.readInt();
+            final int samplesByTrace = in.readInt();
+            if(samplesByTrace != SAMPLES_BY_TRACE)
+                throw new IOException(storeFile + " has " + samplesByTrace + " samples by trace instead of " + SAMPLES_BY_TRACE);
+
+            final var names = new ArrayList<String>(traces);
+            for (int i = 0; i < traces; i++) {
+                names.add(in.readUTF());
+            }
+
+            //Channels.newInputStream doesn't buffer, so the channel is positioned right after the header
+            final long dataOffset = channel.position();
+            final long dataSize = (long) traces * SAMPLES_BY_TRACE * Short.BYTES;
+            if(channel.size() < dataOffset + dataSize)
+                throw new IOException(storeFile + " is truncated");
+
+            //The mapping remains valid after the channel is closed
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize);
+            return new PlanetLabTraceStore(names, buffer.asShortBuffer());
+        }
+    }
+
+    /**
+     * Gets the names of the traces, in the order they are stored.
+     * @return
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * Gets the number of traces in the store.
+     * @return
+     */
+    public int size() {
+        return names.size();
+    }
+
+    /**
+     * Gets a CPU utilization model that replays a trace.
+     * @param name the name of the trace file
+     * @param schedulingInterval the interval (in seconds) between the trace samples,
+     *                           which must be also the Datacenter scheduling interval
+     * @return the utilization model
+     * @throws IllegalArgumentException when there is no trace with the given name
+     */
+    public UtilizationModelAbstract getUtilizationModel(final String name, final double schedulingInterval) {
+        final Integer index = indexByName.get(name);
+        if(index == null)
+            throw new IllegalArgumentException("There is no trace named " + name);
+        return getUtilizationModel(index, schedulingInterval);
+    }
+
+    /**
+     * Gets a CPU utilization model that replays a trace.
+     * @param index the index of the trace, between 0 and {@link #size()} - 1
+     * @param schedulingInterval the interval (in seconds) between the trace samples,
+     *                           which must be also the Datacenter scheduling interval
+     * @return the utilization model
+     */
+    public UtilizationModelAbstract getUtilizationModel(final int index, final double schedulingInterval) {
+        if(index < 0 || index >= names.size())
+            throw new IndexOutOfBoundsException("Trace index must be between 0 and " + (names.size() - 1));
+        if(schedulingInterval <= 0)
+            throw new IllegalArgumentException("The scheduling interval must be greater than zero");
+        return new TraceUtilizationModel(samples, index * SAMPLES_BY_TRACE, schedulingInterval);
+    }
+
+    /**
+     * A utilization model that reads the samples of a trace from the shared buffer of the store,
+     * interpolating them as the {@link UtilizationModelPlanetLab} does.
+     * Times after the end of the trace wrap around to its beginning.
+     */
+    private static final class TraceUtilizationModel extends UtilizationModelAbstract {
+        private final ShortBuffer samples;
+        private final int offset;
+        private final double schedulingInterval;
+
+        TraceUtilizationModel(final ShortBuffer samples, final int offset, final double schedulingInterval) {
+            super();
+            this.samples = samples;
+            this.offset = offset;
+            this.schedulingInterval = schedulingInterval;
+        }
+
+        @Override
+        protected double getUtilizationInternal(final double time) {
+            final double position = time / schedulingInterval;
+            final long previous = (long) Math.floor(position);
+            final double previousUtilization = getSample(previous);
+            final double fraction = position - previous;
+            if(fraction == 0)
+                return previousUtilization;
+
+            return previousUtilization + (getSample(previous + 1) - previousUtilization) * fraction;
+        }
+
+        private double getSample(final long index) {
+            return samples.get(offset + (int) Math.floorMod(index, SAMPLES_BY_TRACE)) / SAMPLE_SCALE;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.cloudsimplus.datacenters.Datacenter;
 import org.cloudsimplus.datacenters.DatacenterSimple;
 import org.cloudsimplus.hosts.Host;
 import org.cloudsimplus.hosts.HostSimple;
+import org.cloudsimplus.listeners.CloudletVmEventInfo;
 import org.cloudsimplus.listeners.DatacenterBrokerEventInfo;
 import org.cloudsimplus.listeners.EventListener;
 import org.cloudsimplus.resources.Pe;
@@ -45,6 +46,7 @@ import org.cloudsimplus.util.TimeUtil;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.vms.VmSimple;
 
+import java.io.IOException;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -74,6 +76,13 @@ import java.util.List;
  * page</a>.
  * </p>
  *
+ * <p>By default, the workload file is read while the simulation runs by a {@link SwfWorkloadStream},
+ * which creates each Cloudlet only when its submit time approaches the simulation clock,
+ * so that the memory taken doesn't depend on the number of jobs in the file.
+ * For the same reason, the results of the Cloudlets are aggregated as they finish
+ * and a summary is printed, instead of a table with every finished Cloudlet.
+ * Set {@link #STREAM_WORKLOAD_FILE} to false to create all Cloudlets before the simulation starts.</p>
+ *
  * <p>Check important details at {@link SwfWorkloadFileReader}
  * and {@link TraceReaderAbstract}.</p>
  *
@@ -86,6 +95,12 @@ public class SwfWorkloadFormatExample1 {
      */
     private static final String WORKLOAD_FILENAME = "workload/swf/NASA-iPSC-1993-3.1-cln.swf.gz";
 
+    /**
+     * Indicates if the workload file is read while the simulation runs, by a {@link SwfWorkloadStream},
+     * or all Cloudlets are created before it starts, by a {@link SwfWorkloadFileReader}.
+     */
+    private static final boolean STREAM_WORKLOAD_FILE = true;
+
     private final CloudSimPlus simulation;
 
     /**
@@ -105,10 +120,17 @@ public class SwfWorkloadFormatExample1 {
     private static final long VM_BW = 50000;
 
     private List<Cloudlet> cloudletList;
+    private SwfWorkloadStream workloadStream;
     private List<Vm> vmlist;
     private Datacenter datacenter0;
     private DatacenterBroker broker;
 
+    /** Results of the streamed Cloudlets, aggregated as they finish. */
+    private long finishedCloudlets;
+    private double sumExecutionTime;
+    private double sumWaitTime;
+    private double lastFinishTime;
+
     /**
      * Creates main() to run this example.
      *
@@ -135,24 +157,37 @@ public class SwfWorkloadFormatExample1 {
 
             /*Vms and cloudlets are created before the Datacenter and host
             because the example is creating: (i) hosts based on VM requirements;
-            (ii) VMs based on cloudlet requirements.*/
-            createCloudletsFromWorkloadFile();
-            createVms();
+            (ii) VMs based on cloudlet requirements (or on the workload file header, when it is streamed).*/
+            if(STREAM_WORKLOAD_FILE) {
+                openWorkloadStream();
+                createVms(getVmsNumberFromWorkloadHeader());
+            } else {
+                createCloudletsFromWorkloadFile();
+                createVms(getVmsNumberFromCloudlets());
+            }
 
             datacenter0 = createDatacenter();
 
             broker.submitVmList(vmlist);
-            broker.submitCloudletList(cloudletList);
+            if(STREAM_WORKLOAD_FILE)
+                workloadStream.submitTo(simulation, broker);
+            else broker.submitCloudletList(cloudletList);
             broker.addOnVmsCreatedListener(this::onVmsCreated);
 
             simulation.start();
+            if(STREAM_WORKLOAD_FILE) {
+                System.out.printf("# Created %12d Cloudlets for %s%n", workloadStream.getCreatedCloudlets(), broker);
+            }
 
-            final var cloudletFinishedList = broker.getCloudletFinishedList();
-            new CloudletsTableBuilder(cloudletFinishedList).build();
+            if(STREAM_WORKLOAD_FILE)
+                printStreamedCloudletsSummary();
+            else new CloudletsTableBuilder(broker.getCloudletFinishedList()).build();
 
             System.out.printf("Simulation finished at %s. Execution time: %.2f seconds%n", LocalTime.now(), TimeUtil.elapsedSeconds(startSecs));
         } catch (Exception e) {
             System.out.printf("Error during simulation execution: %s%n", e.getMessage());
+        } finally {
+            closeWorkloadStream();
         }
     }
 
@@ -175,15 +210,30 @@ public class SwfWorkloadFormatExample1 {
     }
 
     /**
-     * Creates a list of VMs according to the number of Cloudlets,
+     * Gets a number of VMs according to the number of Cloudlets,
      * in order to try accommodating all Cloudlets into those VMs.
      */
-    private void createVms() {
+    private int getVmsNumberFromCloudlets() {
         final double totalCloudletPes = cloudletList.stream().mapToDouble(Cloudlet::getPesNumber).sum();
         /* The number to multiply the VM_PES was chosen at random.
         * It's used to reduce the number of VMs to create. */
-        final int totalVms = (int)Math.ceil(totalCloudletPes / (VM_PES*6));
+        return (int)Math.ceil(totalCloudletPes / (VM_PES*6));
+    }
 
+    /**
+     * Gets a number of VMs enough to run the largest job of the workload file,
+     * since the Cloudlets aren't known before the simulation starts.
+     */
+    private int getVmsNumberFromWorkloadHeader() {
+        final int maxProcs = workloadStream.getMaxProcs() > 0 ? workloadStream.getMaxProcs() : VM_PES;
+        return Math.max(2, (int)Math.ceil(maxProcs / (double)VM_PES));
+    }
+
+    /**
+     * Creates a list of VMs.
+     * @param totalVms the number of VMs to create
+     */
+    private void createVms(final int totalVms) {
         vmlist = new ArrayList<>();
         for (int i = 0; i < totalVms; i++) {
             final var vm = new VmSimple(VM_MIPS, VM_PES)
@@ -203,6 +253,40 @@ public class SwfWorkloadFormatExample1 {
         System.out.printf("# Created %12d Cloudlets for %s%n", this.cloudletList.size(), broker);
     }
 
+    private void openWorkloadStream() {
+        workloadStream = new SwfWorkloadStream(WORKLOAD_FILENAME, VM_MIPS)
+                            .setMaxJobs(maxCloudletsToCreateFromWorkloadFile)
+                            .addOnCloudletFinishListener(this::onStreamedCloudletFinish);
+        System.out.printf("# Streaming Cloudlets for %s from %s%n", broker, WORKLOAD_FILENAME);
+    }
+
+    private void onStreamedCloudletFinish(final CloudletVmEventInfo info) {
+        final var cloudlet = info.getCloudlet();
+        finishedCloudlets++;
+        sumExecutionTime += cloudlet.getTotalExecutionTime();
+        sumWaitTime += cloudlet.getStartWaitTime();
+        lastFinishTime = Math.max(lastFinishTime, cloudlet.getFinishTime());
+    }
+
+    private void printStreamedCloudletsSummary() {
+        final long cloudlets = Math.max(1, finishedCloudlets);
+        System.out.printf("# Finished %11d Cloudlets%n", finishedCloudlets);
+        System.out.printf("# Mean execution time: %.2f seconds%n", sumExecutionTime / cloudlets);
+        System.out.printf("# Mean wait time:      %.2f seconds%n", sumWaitTime / cloudlets);
+        System.out.printf("# Last finish time:    %.2f seconds%n", lastFinishTime);
+    }
+
+    private void closeWorkloadStream() {
+        if(workloadStream == null)
+            return;
+
+        try {
+            workloadStream.close();
+        } catch (IOException e) {
+            System.out.printf("Error closing the workload file: %s%n", e.getMessage());
+        }
+    }
+
     /**
      * Creates the Datacenter with a number of Hosts according to the number of created VMs,
      * in order to try accommodating all VMs into those Hosts.
@@ -0,0 +1,378 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces;
+
+import org.cloudsimplus.brokers.DatacenterBroker;
+import org.cloudsimplus.cloudlets.Cloudlet;
+import org.cloudsimplus.cloudlets.CloudletSimple;
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.listeners.CloudletVmEventInfo;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.listeners.EventListener;
+import org.cloudsimplus.traces.SwfWorkloadFileReader;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a workload file in the <a href="https://www.cs.huji.ac.il/labs/parallel/workload/swf.html">Standard Workload Format</a>
+ * while the simulation runs, creating each Cloudlet only when its submit time approaches the simulation clock.
+ * Unlike the {@link SwfWorkloadFileReader}, which creates the Cloudlets for the whole file before the simulation starts,
+ * the memory it takes doesn't depend on the file length.
+ *
+ * <p>The jobs are read from the {@link CompiledTrace compiled form} of the file, which is created on the first read.
+ * Files that cannot be compiled, such as resources inside a jar, are parsed one line at a time
+ * (and decompressed as they are read when gzipped). At most {@link #getLookahead() lookahead}
+ * parsed jobs are kept waiting to become Cloudlets. At every clock tick, the Cloudlets whose jobs are submitted
+ * until the current time plus the {@link #getHorizon() horizon} are created and submitted to the broker,
+ * with a submission delay that makes them arrive at the job submit time.
+ * At least the next job is always submitted ahead, so that the simulation doesn't end
+ * before the file is read to the end.</p>
+ *
+ * <p>Cloudlets are created as the {@link SwfWorkloadFileReader} does: the job number is the Cloudlet id,
+ * the length is the job run time multiplied by the given MIPS and the PEs are the allocated processors
+ * (or the requested ones, when the allocated are unknown). Jobs without a run time are skipped.
+ * Since the stream doesn't keep the Cloudlets, their results can be aggregated as they finish
+ * by {@link #addOnCloudletFinishListener(EventListener) listeners} added to every created Cloudlet.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class SwfWorkloadStream implements Closeable {
+    /**
+     * The default number of parsed jobs kept waiting to become Cloudlets.
+     */
+    public static final int DEF_LOOKAHEAD = 1024;
+
+    /**
+     * The default time (in seconds) Cloudlets are created before the submit time of their jobs.
+     */
+    public static final double DEF_HORIZON = 60;
+
+    /**
+     * A parsed job waiting to become a Cloudlet.
+     */
+    private record Job(long id, double submitTime, long length, int pes) {}
+
+    private final String file;
+    private final double mips;
+    private final CompiledTrace compiledTrace;
+    private final BufferedReader reader;
+    private final Deque<Job> window;
+    private final UtilizationModel utilizationModel;
+    private final List<EventListener<CloudletVmEventInfo>> onCloudletFinishListeners;
+    private int lookahead;
+    private double horizon;
+    private long maxJobs;
+    private long readJobs;
+    private long createdCloudlets;
+    private int row;
+    private int maxProcs;
+    private double lastSubmitTime;
+    private boolean endOfFile;
+
+    /**
+     * Opens an SWF file to be read while the simulation runs.
+     *
+     * @param file the path or classpath resource of the file, which may be gzipped
+     * @param mips the MIPS of each PE that runs the Cloudlets, which converts the job run time into a Cloudlet length
+     * @throws UncheckedIOException when the file cannot be opened or compiled
+     * @throws IllegalArgumentException when the MIPS is not positive or the file is malformed
+     */
+    public SwfWorkloadStream(final String file, final double mips) {
+        if(mips <= 0)
+            throw new IllegalArgumentException("The MIPS must be greater than zero");
+
+        this.file = file;
+        this.mips = mips;
+        this.window = new ArrayDeque<>();
+        this.utilizationModel = new UtilizationModelFull();
+        this.onCloudletFinishListeners = new ArrayList<>();
+        this.lookahead = DEF_LOOKAHEAD;
+        this.horizon = DEF_HORIZON;
+        this.maxJobs = Long.MAX_VALUE;
+        this.maxProcs = -1;
+        this.lastSubmitTime = -1;
+        this.compiledTrace = CompiledTrace.load(file).orElse(null);
+        try {
+            this.reader = compiledTrace == null ? new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8)) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error opening workload file " + file, e);
+        }
+
+        readHeader();
+    }
+
+    private static InputStream open(final String file) throws IOException {
+        final var path = Path.of(file);
+        final InputStream in = Files.exists(path) ?
+                                   Files.newInputStream(path) :
+                                   SwfWorkloadStream.class.getClassLoader().getResourceAsStream(file);
+        if(in == null)
+            throw new FileNotFoundException(file);
+        return file.endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    /**
+     * Starts submitting the Cloudlets to a broker as the simulation clock advances.
+     * It must be called before the simulation starts.
+     *
+     * @param simulation the simulation whose clock drives the Cloudlets creation
+     * @param broker the broker to submit the Cloudlets to
+     * @return
+     */
+    public SwfWorkloadStream submitTo(final CloudSimPlus simulation, final DatacenterBroker broker) {
+        submitDueCloudlets(broker, simulation.clock());
+        simulation.addOnClockTickListener((EventInfo info) -> submitDueCloudlets(broker, info.getTime()));
+        return this;
+    }
+
+    /**
+     * Creates and submits the Cloudlets whose jobs are submitted until the given time plus the horizon,
+     * or at least the next one if no Cloudlet is waiting to arrive.
+     * @param broker the broker to submit the Cloudlets to
+     * @param time the current simulation time
+     */
+    private void submitDueCloudlets(final DatacenterBroker broker, final double time) {
+        final var cloudlets = new ArrayList<Cloudlet>();
+        while (!window.isEmpty() && (window.peek().submitTime() <= time + horizon || (cloudlets.isEmpty() && lastSubmitTime <= time))) {
+            final var job = window.poll();
+            cloudlets.add(createCloudlet(job, time));
+            lastSubmitTime = job.submitTime();
+            fill();
+        }
+
+        if(!cloudlets.isEmpty()) {
+            createdCloudlets += cloudlets.size();
+            broker.submitCloudletList(cloudlets);
+        }
+    }
+
+    private Cloudlet createCloudlet(final Job job, final double time) {
+        final var cloudlet = new CloudletSimple(job.id(), job.length(), job.pes());
+        cloudlet.setUtilizationModel(utilizationModel);
+        cloudlet.setSubmissionDelay(Math.max(0, job.submitTime() - time));
+        onCloudletFinishListeners.forEach(cloudlet::addOnFinishListener);
+        return cloudlet;
+    }
+
+    /**
+     * Reads the file header and the first job, which the first clock tick submits.
+     */
+    private void readHeader() {
+        if(compiledTrace != null) {
+            maxProcs = compiledTrace.getMaxProcs();
+        }
+
+        final int initialLookahead = lookahead;
+        lookahead = 1;
+        fill();
+        lookahead = initialLookahead;
+    }
+
+    /**
+     * Reads jobs until the lookahead window is full, the maximum number of jobs is read or the file ends.
+     * @throws UncheckedIOException when the file cannot be read
+     * @throws IllegalArgumentException when a job line is malformed
+     */
+    private void fill() {
+        if(compiledTrace != null) {
+            while (!endOfFile && window.size() < lookahead && readJobs < maxJobs) {
+                if(row == compiledTrace.size())
+                    endOfFile = true;
+                else addJob(compiledTrace.getId(row), compiledTrace.getTime(row), compiledTrace.getRunTime(row), compiledTrace.getPes(row));
+                row++;
+            }
+
+            return;
+        }
+
+        try {
+            String line;
+            while (!endOfFile && window.size() < lookahead && readJobs < maxJobs) {
+                if((line = reader.readLine()) == null) {
+                    endOfFile = true;
+                    reader.close();
+                } else parseLine(line.strip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading workload file " + file, e);
+        }
+    }
+
+    private void parseLine(final String line) {
+        if(line.startsWith(";")) {
+            parseHeaderField(line.substring(1).strip());
+            return;
+        }
+
+        if(line.isEmpty())
+            return;
+
+        final String[] fields = line.split("\\s+");
+        try {
+            final double runTime = Double.parseDouble(fields[3]);
+            final int allocatedProcs = Integer.parseInt(fields[4]);
+            final int pes = allocatedProcs > 0 ? allocatedProcs : Integer.parseInt(fields[7]);
+            addJob(Long.parseLong(fields[0]), Double.parseDouble(fields[1]), runTime, pes);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed job in " + file + ": " + line, e);
+        }
+    }
+
+    private void addJob(final long id, final double submitTime, final double runTime, final int pes) {
+        if(runTime > 0 && pes > 0) {
+            window.add(new Job(id, submitTime, (long) (runTime * mips), pes));
+            readJobs++;
+        }
+    }
+
+    /**
+     * Parses the header fields needed before the jobs are read, such as "MaxProcs: 128".
+     */
+    private void parseHeaderField(final String field) {
+        if(field.startsWith("MaxProcs:")) {
+            maxProcs = Integer.parseInt(field.substring("MaxProcs:".length()).strip());
+        }
+    }
+
+    /**
+     * Gets the maximum number of processors a job of the file can use, from the file header.
+     * It's available before any Cloudlet is created, to size the VMs.
+     * @return the maximum number of processors or -1 if the header doesn't define it
+     */
+    public int getMaxProcs() {
+        return maxProcs;
+    }
+
+    /**
+     * Gets the maximum number of parsed jobs kept waiting to become Cloudlets.
+     * @return
+     */
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Sets the maximum number of parsed jobs kept waiting to become Cloudlets.
+     * @param lookahead the number of jobs to set
+     * @return
+     */
+    public SwfWorkloadStream setLookahead(final int lookahead) {
+        if(lookahead <= 0)
+            throw new IllegalArgumentException("The lookahead must be greater than zero");
+        this.lookahead = lookahead;
+        return this;
+    }
+
+    /**
+     * Gets the time (in seconds) Cloudlets are created before the submit time of their jobs.
+     * @return
+     */
+    public double getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Sets the time (in seconds) Cloudlets are created before the submit time of their jobs.
+     * @param horizon the time to set
+     * @return
+     */
+    public SwfWorkloadStream setHorizon(final double horizon) {
+        if(horizon < 0)
+            throw new IllegalArgumentException("The horizon cannot be negative");
+        this.horizon = horizon;
+        return this;
+    }
+
+    /**
+     * Gets the maximum number of jobs to read from the file.
+     * @return
+     */
+    public long getMaxJobs() {
+        return maxJobs;
+    }
+
+    /**
+     * Sets the maximum number of jobs to read from the file.
+     * Jobs already in the lookahead window are still submitted.
+     * @param maxJobs the number of jobs to set
+     * @return
+     */
+    public SwfWorkloadStream setMaxJobs(final long maxJobs) {
+        if(maxJobs <= 0)
+            throw new IllegalArgumentException("The maximum number of jobs must be greater than zero");
+        this.maxJobs = maxJobs;
+        return this;
+    }
+
+    /**
+     * Adds a listener notified when any Cloudlet created by the stream finishes.
+     * It must be added before the Cloudlets are created.
+     * @param listener the listener to add
+     * @return
+     */
+    public SwfWorkloadStream addOnCloudletFinishListener(final EventListener<CloudletVmEventInfo> listener) {
+        onCloudletFinishListeners.add(Objects.requireNonNull(listener));
+        return this;
+    }
+
+    /**
+     * Gets the number of Cloudlets created so far.
+     * @return
+     */
+    public long getCreatedCloudlets() {
+        return createdCloudlets;
+    }
+
+    /**
+     * Checks if all jobs were read and submitted as Cloudlets.
+     * @return
+     */
+    public boolean isFinished() {
+        return window.isEmpty() && (endOfFile || readJobs >= maxJobs);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(reader != null) {
+            reader.close();
+        }
+    }
+}
@@ -47,6 +47,9 @@ import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.vms.VmSimple;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -67,6 +70,18 @@ import java.util.function.Function;
  * </p>
  *
  * <p>
+ * The shards listed in {@link #TRACE_SHARDS} are parsed in parallel by a {@link GoogleTraceShardMerger},
+ * which merges their records in timestamp order for the reader, so that a full trace
+ * (split into hundreds of gzipped shards) can be read as well.
+ * </p>
+ *
+ * <p>
+ * If {@link #POOLED_HOST_LIFECYCLE} is enabled, the trace is replayed by a {@link GoogleMachineHostPool} instead,
+ * which creates a single Host for each machine and recovers it when the machine is added again,
+ * adding the Hosts of new machines to the second Datacenter in a batch by timestamp.
+ * </p>
+ *
+ * <p>
  * Check important details at {@link TraceReaderAbstract}. To better understand
  * the structure of trace files, check the google-cluster-data-samples.xlsx
  * spreadsheet inside the docs dir.
@@ -79,6 +94,27 @@ import java.util.function.Function;
  */
 public class GoogleMachineEventsExample1 {
     private static final String TRACE_FILENAME = "workload/google-traces/machine-events-sample-1.csv";
+
+    /**
+     * The shards of the "machine events" table, such as the ones listed by
+     * {@link GoogleTraceShardMerger#listShards(java.nio.file.Path, String)} for a full trace.
+     */
+    private static final List<String> TRACE_SHARDS = List.of(TRACE_FILENAME);
+
+    /**
+     * Indicates if the Hosts must be created and recycled by a {@link GoogleMachineHostPool},
+     * instead of a new Host being created by the {@link GoogleMachineEventsTraceReader} for every ADD event.
+     */
+    private static final boolean POOLED_HOST_LIFECYCLE = false;
+
+    /**
+     * The interval to update the Datacenters when {@link #POOLED_HOST_LIFECYCLE} is enabled,
+     * so that the simulation clock reaches the machine events, which are 10 milliseconds apart in the sample trace.
+     */
+    private static final double SCHEDULING_INTERVAL = 0.01;
+
+    private static final int MAX_CPU_CORES = 10;
+    private static final int MAX_RAM_CAPACITY = 32;
     private static final int HOST_BW = 10;
     private static final long HOST_STORAGE = 100000;
     private static final double HOST_MIPS = 1000;
@@ -89,6 +125,7 @@ public class GoogleMachineEventsExample1 {
     private final CloudSimPlus simulation;
     private final DatacenterBroker broker0;
     private List<Datacenter> datacenters;
+    private GoogleMachineHostPool hostPool;
 
     public static void main(String[] args) {
         new GoogleMachineEventsExample1();
@@ -114,6 +151,11 @@ public class GoogleMachineEventsExample1 {
         datacenters.get(1).addOnHostAvailableListener(this::onHostAvailableListener);
 
         simulation.start();
+        if(hostPool != null) {
+            System.out.printf(
+                "%n# %d Hosts created, %d times recovered after a removal and %d batches of later Hosts added%n%n",
+                hostPool.getCreatedHosts(), hostPool.getRecoveredHosts(), hostPool.getBatches());
+        }
 
         final var cloudletFinishedList = broker0.getCloudletFinishedList();
         new CloudletsTableBuilder(cloudletFinishedList)
@@ -149,11 +191,17 @@ public class GoogleMachineEventsExample1 {
      * </p>
      */
     private void createDatacenters() {
+        if(POOLED_HOST_LIFECYCLE) {
+            createDatacentersFromHostPool();
+            return;
+        }
+
         datacenters = new ArrayList<>(DATACENTERS_NUMBER);
 
-        final GoogleMachineEventsTraceReader reader = GoogleMachineEventsTraceReader.getInstance(TRACE_FILENAME, this::createHost);
-        reader.setMaxRamCapacity(32);
-        reader.setMaxCpuCores(10);
+        final var machineEvents = openTrace(TRACE_SHARDS);
+        final var reader = new GoogleMachineEventsTraceReader(TRACE_FILENAME, machineEvents, this::createHost);
+        reader.setMaxRamCapacity(MAX_RAM_CAPACITY);
+        reader.setMaxCpuCores(MAX_CPU_CORES);
 
         //Creates Datacenters with no hosts.
         for(int i = 0; i < DATACENTERS_NUMBER; i++){
@@ -166,6 +214,7 @@ public class GoogleMachineEventsExample1 {
         * */
         reader.setDatacenterForLaterHosts(datacenters.get(1));
         final var hostList = new ArrayList<Host>(reader.process());
+        closeTrace(machineEvents);
 
         System.out.println();
         System.out.printf("# Created %d Hosts that were immediately available from the Google trace file%n", hostList.size());
@@ -176,6 +225,50 @@ public class GoogleMachineEventsExample1 {
         datacenters.get(0).addHostList(hostList);
     }
 
+    /**
+     * Creates the Datacenters and Hosts, where Hosts are created and recycled by a {@link GoogleMachineHostPool}
+     * that replays the "machine events" trace.
+     */
+    private void createDatacentersFromHostPool() {
+        datacenters = new ArrayList<>(DATACENTERS_NUMBER);
+        for(int i = 0; i < DATACENTERS_NUMBER; i++){
+            datacenters.add(new DatacenterSimple(simulation, new VmAllocationPolicySimple()).setSchedulingInterval(SCHEDULING_INTERVAL));
+        }
+
+        hostPool = new GoogleMachineHostPool(new GoogleTraceShardMerger(TRACE_SHARDS), this::createHost)
+                        .setMaxRamCapacity(MAX_RAM_CAPACITY)
+                        .setMaxCpuCores(MAX_CPU_CORES)
+                        .setDatacenterForLaterHosts(datacenters.get(1));
+        final var hostList = hostPool.process();
+        hostPool.replayOn(simulation);
+
+        System.out.println();
+        System.out.printf("# Created %d Hosts that were immediately available from the Google trace file%n", hostList.size());
+        System.out.printf("# %d machine events will be replayed later on (according to the trace timestamp)%n%n", hostPool.getPendingEvents());
+        datacenters.get(0).addHostList(hostList);
+    }
+
+    /**
+     * Starts reading the shards of a trace in parallel, merging them in timestamp order.
+     * @param shards the shards to read
+     * @return the stream with the merged records
+     */
+    private InputStream openTrace(final List<String> shards) {
+        try {
+            return new GoogleTraceShardMerger(shards).open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeTrace(final InputStream trace) {
+        try {
+            trace.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * A method that is used to actually create each Host defined in the trace file.
      * The researcher can write his/her own code inside this method to define
@@ -185,8 +278,12 @@ public class GoogleMachineEventsExample1 {
      * @return
      */
     private Host createHost(final MachineEvent event) {
-        final Host host = new HostSimple(event.getRam(), HOST_BW, HOST_STORAGE, createPesList(event.getCpuCores()));
-        host.setId(event.getMachineId());
+        return createHost(event.getMachineId(), event.getCpuCores(), event.getRam());
+    }
+
+    private Host createHost(final long machineId, final int cpuCores, final long ram) {
+        final Host host = new HostSimple(ram, HOST_BW, HOST_STORAGE, createPesList(cpuCores));
+        host.setId(machineId);
         return host;
     }
 
@@ -0,0 +1,414 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces.google;
+
+import org.cloudsimplus.core.CloudSimPlus;
+import org.cloudsimplus.datacenters.Datacenter;
+import org.cloudsimplus.faultinjection.HostFaultInjection;
+import org.cloudsimplus.hosts.Host;
+import org.cloudsimplus.listeners.EventInfo;
+import org.cloudsimplus.traces.google.GoogleMachineEventsTraceReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays the Host lifecycle of a <a href="https://github.com/google/cluster-data">Google Cluster Data</a>
+ * "machine events" trace, keeping a single {@link Host} for each machine.
+ *
+ * <p>The {@link GoogleMachineEventsTraceReader} creates a new Host (and its PEs) for every ADD event,
+ * so a machine that is removed and added again many times, as machines churn in full traces, leaves
+ * a failed Host behind for each removal. This pool creates the Host of a machine only for its first ADD event.
+ * A REMOVE event sets the Host as failed and a later ADD event recovers that same Host, with the same PEs.
+ * The VMs of a removed Host are failed as the Datacenter does for a {@code HOST_REMOVE} event, through a {@link HostFaultInjection},
+ * which destroys them or, when their broker has a VM cloner, recreates them on other Hosts.
+ * The Hosts of machines added after the simulation starts are added to the {@link #setDatacenterForLaterHosts(Datacenter)
+ * Datacenter for later Hosts} in a single batch for each timestamp.</p>
+ *
+ * <p>The later events are kept in primitive arrays and applied by a clock tick listener,
+ * as the simulation reaches their timestamp. Events whose timestamps are passed between
+ * two clock ticks are applied together at the next tick, one timestamp after the other.
+ * Therefore, the simulation must be running at the time of the events, for instance by calling
+ * {@link Datacenter#setSchedulingInterval(double)} while there are Cloudlets running.
+ * UPDATE events are ignored, as the {@link GoogleMachineEventsTraceReader} does.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class GoogleMachineHostPool {
+    private static final double MICROSECONDS = 1_000_000;
+    private static final int ADD = 0;
+    private static final int REMOVE = 1;
+
+    /**
+     * Creates the Host of a machine when it's added for the first time.
+     */
+    @FunctionalInterface
+    public interface HostFactory {
+        /**
+         * Creates a Host.
+         * @param machineId the id of the machine in the trace
+         * @param cpuCores the number of CPU cores of the machine
+         * @param ram the RAM capacity of the machine (in Megabytes)
+         * @return the new Host
+         */
+        Host create(long machineId, int cpuCores, long ram);
+    }
+
+    /**
+     * A machine event, parsed from a line of the trace, whose fields 1, 2, 3, 5 and 6 are the timestamp
+     * (in microseconds), the machine id, the event type and the normalized CPU and RAM capacities.
+     * The capacities are only parsed for ADD events.
+     */
+    private record MachineEventRecord(long time, long machineId, int type, double cpu, double ram) {
+        static MachineEventRecord parse(final String line) {
+            final String[] fields = line.strip().split(",", -1);
+            final int type = Integer.parseInt(fields[2]);
+            final boolean added = type == ADD;
+            return new MachineEventRecord(
+                Long.parseLong(fields[0]), Long.parseLong(fields[1]), type,
+                added ? Double.parseDouble(fields[4]) : 0, added ? Double.parseDouble(fields[5]) : 0);
+        }
+    }
+
+    private final String file;
+    private final InputStream in;
+    private final GoogleTraceShardMerger shards;
+    private final HostFactory hostFactory;
+    private final Map<Long, Host> hostsByMachine;
+    private int maxCpuCores;
+    private long maxRamCapacity;
+    private Datacenter datacenterForLaterHosts;
+
+    /** The events after the simulation start, in timestamp order. */
+    private long[] eventTimes;
+    private long[] eventMachines;
+    private byte[] eventTypes;
+    private int[] eventCpuCores;
+    private long[] eventRam;
+    private int events;
+    private int nextEvent;
+
+    private long createdHosts;
+    private long recoveredHosts;
+    private long batches;
+
+    /**
+     * Creates a pool to replay a "machine events" trace.
+     *
+     * @param file the name of the trace, used in error messages
+     * @param in the stream to read the trace from, which is not closed
+     * @param hostFactory the function that creates the Host of a machine
+     * @see #GoogleMachineHostPool(GoogleTraceShardMerger, HostFactory)
+     */
+    public GoogleMachineHostPool(final String file, final InputStream in, final HostFactory hostFactory) {
+        this(file, in, null, hostFactory);
+    }
+
+    /**
+     * Creates a pool to replay the shards of a "machine events" trace,
+     * whose lines are parsed by the threads of the merger.
+     *
+     * @param shards the merger of the trace shards
+     * @param hostFactory the function that creates the Host of a machine
+     */
+    public GoogleMachineHostPool(final GoogleTraceShardMerger shards, final HostFactory hostFactory) {
+        this(shards.getName(), null, shards, hostFactory);
+    }
+
+    private GoogleMachineHostPool(
+        final String file, final InputStream in, final GoogleTraceShardMerger shards, final HostFactory hostFactory)
+    {
+        this.file = file;
+        this.in = in;
+        this.shards = shards;
+        this.hostFactory = hostFactory;
+        this.hostsByMachine = new HashMap<>();
+        this.maxCpuCores = 1;
+        this.maxRamCapacity = 1;
+        this.eventTimes = new long[0];
+        this.eventMachines = new long[0];
+        this.eventTypes = new byte[0];
+        this.eventCpuCores = new int[0];
+        this.eventRam = new long[0];
+    }
+
+    /**
+     * Reads the trace, creating the Hosts of the machines added at timestamp zero
+     * and keeping the later events to be replayed.
+     *
+     * @return the Hosts available at timestamp zero, to be added to a Datacenter
+     * @throws UncheckedIOException when the trace cannot be read
+     * @throws IllegalArgumentException when a line of the trace is malformed
+     * @see #replayOn(CloudSimPlus)
+     */
+    public List<Host> process() {
+        final var initialHosts = new ArrayList<Host>();
+        if(shards != null) {
+            try (var records = shards.open(MachineEventRecord::parse)) {
+                records.forEachRemaining(record -> addEvent(record, initialHosts));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading machine events trace " + file, e);
+            }
+
+            return initialHosts;
+        }
+
+        final var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if(line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                final MachineEventRecord record;
+                try {
+                    record = MachineEventRecord.parse(line);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("%s:%d: malformed machine event line: %s".formatted(file, lineNumber, e.getMessage()), e);
+                }
+                addEvent(record, initialHosts);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading machine events trace " + file, e);
+        }
+
+        return initialHosts;
+    }
+
+    /**
+     * Adds a machine event, converting the normalized capacities of the machine.
+     * Events at timestamp zero are applied at once, creating the initial Hosts.
+     */
+    private void addEvent(final MachineEventRecord record, final List<Host> initialHosts) {
+        final long time = record.time();
+        final long machineId = record.machineId();
+        final int type = record.type();
+        if(type != ADD && type != REMOVE)
+            return;
+
+        final int cpuCores = type == ADD ? (int) Math.max(1, Math.ceil(record.cpu() * maxCpuCores)) : 0;
+        final long ram = type == ADD ? Math.max(1, (long) Math.ceil(record.ram() * maxRamCapacity)) : 0;
+        if(time == 0) {
+            apply(type, machineId, cpuCores, ram, initialHosts);
+            return;
+        }
+
+        if(events == eventTimes.length) {
+            final int capacity = Math.max(64, events * 2);
+            eventTimes = Arrays.copyOf(eventTimes, capacity);
+            eventMachines = Arrays.copyOf(eventMachines, capacity);
+            eventTypes = Arrays.copyOf(eventTypes, capacity);
+            eventCpuCores = Arrays.copyOf(eventCpuCores, capacity);
+            eventRam = Arrays.copyOf(eventRam, capacity);
+        }
+
+        eventTimes[events] = time;
+        eventMachines[events] = machineId;
+        eventTypes[events] = (byte) type;
+        eventCpuCores[events] = cpuCores;
+        eventRam[events] = ram;
+        events++;
+    }
+
+    /**
+     * Applies an event to the Host of a machine.
+     * @param newHosts the list where to add the Hosts created for machines added for the first time
+     */
+    private void apply(final int type, final long machineId, final int cpuCores, final long ram, final List<Host> newHosts) {
+        final var host = hostsByMachine.get(machineId);
+        if(type == REMOVE) {
+            if(host != null && !host.isFailed()) {
+                remove(host);
+            }
+            return;
+        }
+
+        if(host == null) {
+            final var newHost = hostFactory.create(machineId, cpuCores, ram);
+            hostsByMachine.put(machineId, newHost);
+            newHosts.add(newHost);
+            createdHosts++;
+        } else if(host.isFailed()) {
+            host.setFailed(false);
+            recoveredHosts++;
+        }
+    }
+
+    /**
+     * Fails a Host and its VMs, as the Datacenter does when it processes a {@code HOST_REMOVE} event.
+     * The Host is set as failed first, so the fault injection fails all its PEs and therefore all its VMs.
+     */
+    private void remove(final Host host) {
+        host.setFailed(true);
+        if(host.getVmList().isEmpty())
+            return;
+
+        final var fault = new HostFaultInjection(host.getDatacenter());
+        try {
+            fault.generateHostFault(host);
+        } finally {
+            fault.shutdown();
+        }
+    }
+
+    /**
+     * Starts replaying the events after timestamp zero as the simulation clock advances.
+     * It must be called after {@link #process()} and before the simulation starts.
+     *
+     * @param simulation the simulation whose clock drives the replay
+     * @return
+     * @throws IllegalStateException when there are machines added after timestamp zero
+     *                               but no {@link #setDatacenterForLaterHosts(Datacenter) Datacenter for them}
+     */
+    public GoogleMachineHostPool replayOn(final CloudSimPlus simulation) {
+        if(datacenterForLaterHosts == null && events > 0)
+            throw new IllegalStateException("The Datacenter for the Hosts added after timestamp zero was not set");
+
+        simulation.addOnClockTickListener(this::onClockTick);
+        return this;
+    }
+
+    /**
+     * Applies the events whose timestamp was reached, adding the new Hosts of each timestamp in a single batch.
+     */
+    private void onClockTick(final EventInfo info) {
+        while (nextEvent < events && eventTimes[nextEvent] / MICROSECONDS <= info.getTime()) {
+            final long time = eventTimes[nextEvent];
+            final var newHosts = new ArrayList<Host>();
+            for (; nextEvent < events && eventTimes[nextEvent] == time; nextEvent++) {
+                apply(eventTypes[nextEvent], eventMachines[nextEvent], eventCpuCores[nextEvent], eventRam[nextEvent], newHosts);
+            }
+
+            if(!newHosts.isEmpty()) {
+                datacenterForLaterHosts.addHostList(newHosts);
+                batches++;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of CPU cores of the largest machine, which converts the normalized CPU capacity of the trace.
+     * @return
+     */
+    public int getMaxCpuCores() {
+        return maxCpuCores;
+    }
+
+    /**
+     * Sets the number of CPU cores of the largest machine, which converts the normalized CPU capacity of the trace.
+     * It must be set before the trace is {@link #process() processed}.
+     * @param maxCpuCores the number of cores to set
+     * @return
+     */
+    public GoogleMachineHostPool setMaxCpuCores(final int maxCpuCores) {
+        if(maxCpuCores <= 0)
+            throw new IllegalArgumentException("The maximum number of CPU cores must be greater than zero");
+        this.maxCpuCores = maxCpuCores;
+        return this;
+    }
+
+    /**
+     * Gets the RAM capacity (in Megabytes) of the largest machine, which converts the normalized RAM capacity of the trace.
+     * @return
+     */
+    public long getMaxRamCapacity() {
+        return maxRamCapacity;
+    }
+
+    /**
+     * Sets the RAM capacity (in Megabytes) of the largest machine, which converts the normalized RAM capacity of the trace.
+     * It must be set before the trace is {@link #process() processed}.
+     * @param maxRamCapacity the RAM capacity to set
+     * @return
+     */
+    public GoogleMachineHostPool setMaxRamCapacity(final long maxRamCapacity) {
+        if(maxRamCapacity <= 0)
+            throw new IllegalArgumentException("The maximum RAM capacity must be greater than zero");
+        this.maxRamCapacity = maxRamCapacity;
+        return this;
+    }
+
+    /**
+     * Gets the Datacenter where the Hosts of machines added after timestamp zero are placed.
+     * @return
+     */
+    public Datacenter getDatacenterForLaterHosts() {
+        return datacenterForLaterHosts;
+    }
+
+    /**
+     * Sets the Datacenter where the Hosts of machines added after timestamp zero are placed.
+     * Recovered Hosts stay in the Datacenter they were first added to.
+     * @param datacenter the Datacenter to set
+     * @return
+     */
+    public GoogleMachineHostPool setDatacenterForLaterHosts(final Datacenter datacenter) {
+        this.datacenterForLaterHosts = datacenter;
+        return this;
+    }
+
+    /**
+     * Gets the number of events after timestamp zero still to be replayed.
+     * @return
+     */
+    public int getPendingEvents() {
+        return events - nextEvent;
+    }
+
+    /**
+     * Gets the number of Hosts created, one for each machine ever added.
+     * @return
+     */
+    public long getCreatedHosts() {
+        return createdHosts;
+    }
+
+    /**
+     * Gets the number of times a failed Host was recovered by an ADD event, instead of a new Host being created.
+     * @return
+     */
+    public long getRecoveredHosts() {
+        return recoveredHosts;
+    }
+
+    /**
+     * Gets the number of batches of new Hosts added to the {@link #getDatacenterForLaterHosts() Datacenter for later Hosts}.
+     * @return
+     */
+    public long getBatches() {
+        return batches;
+    }
+}
@@ -33,6 +33,7 @@ import org.cloudsimplus.core.CloudSimPlus;
 import org.cloudsimplus.core.CloudSimTag;
 import org.cloudsimplus.datacenters.Datacenter;
 import org.cloudsimplus.datacenters.DatacenterSimple;
+import org.cloudsimplus.examples.traces.google.GoogleTaskUsageTrace.Usage;
 import org.cloudsimplus.hosts.Host;
 import org.cloudsimplus.hosts.HostSimple;
 import org.cloudsimplus.resources.Pe;
@@ -52,6 +53,9 @@ import org.cloudsimplus.utilizationmodels.UtilizationModelFull;
 import org.cloudsimplus.vms.Vm;
 import org.cloudsimplus.vms.VmSimple;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -77,6 +81,20 @@ import static org.cloudsimplus.util.MathUtil.positive;
  * </p>
  *
  * <p>
+ * Full traces are split into hundreds of gzipped shards for each table.
+ * The shards listed in {@link #TASK_EVENTS_SHARDS} and {@link #TASK_USAGE_SHARDS}
+ * are parsed in parallel by a {@link GoogleTraceShardMerger}, which merges
+ * their records in timestamp order for the readers.
+ * </p>
+ *
+ * <p>
+ * If {@link #USE_TASK_USAGE_MODELS} is enabled, the "task usage" trace is read first
+ * into a {@link GoogleTaskUsageTrace}, which gives each Cloudlet CPU and RAM utilization models
+ * that interpolate the usage samples of its task, instead of applying each usage record
+ * to the Cloudlets as the {@link GoogleTaskUsageTraceReader} does.
+ * </p>
+ *
+ * <p>
  * Check important details at {@link TraceReaderAbstract}. To better understand
  * the structure of trace files, check the google-cluster-data-samples.xlsx
  * spreadsheet inside the docs dir.
@@ -94,6 +112,25 @@ public class GoogleTaskEventsExample1 {
     private static final String TASK_EVENTS_FILE = "workload/google-traces/task-events-sample-1.csv";
     private static final String TASK_USAGE_FILE = "workload/google-traces/task-usage-sample-1.csv";
 
+    /**
+     * The shards of the "task events" table, such as the ones listed by
+     * {@link GoogleTraceShardMerger#listShards(Path, String)} for a full trace.
+     */
+    private static final List<String> TASK_EVENTS_SHARDS = List.of(TASK_EVENTS_FILE);
+
+    /**
+     * The shards of the "task usage" table.
+     * @see #TASK_EVENTS_SHARDS
+     */
+    private static final List<String> TASK_USAGE_SHARDS = List.of(TASK_USAGE_FILE);
+
+    /**
+     * Indicates if the Cloudlets CPU and RAM utilization must follow the "task usage" trace
+     * through {@link GoogleTaskUsageTrace} utilization models, instead of being updated
+     * by the {@link GoogleTaskUsageTraceReader}.
+     */
+    private static final boolean USE_TASK_USAGE_MODELS = false;
+
     private static final int HOSTS = 10;
     private static final int VMS = 8;
     private static final int HOST_PES = 8;
@@ -127,6 +164,7 @@ public class GoogleTaskEventsExample1 {
     private Datacenter datacenter;
     private Collection<Cloudlet> cloudlets;
     private GoogleTaskEventsTraceReader taskEventsReader;
+    private GoogleTaskUsageTrace taskUsageTrace;
 
     public static void main(String[] args) {
         new GoogleTaskEventsExample1();
@@ -140,9 +178,15 @@ public class GoogleTaskEventsExample1 {
         simulation = new CloudSimPlus();
         datacenter = createDatacenter();
 
+        if(USE_TASK_USAGE_MODELS) {
+            readTaskUsageModels();
+        }
+
         createCloudletsAndBrokersFromTraceFile();
         brokers.forEach(broker -> broker.submitVmList(createVms()));
-        readTaskUsageTraceFile();
+        if(!USE_TASK_USAGE_MODELS) {
+            readTaskUsageTraceFile();
+        }
 
         System.out.println("Brokers:");
         brokers.stream().sorted().forEach(b -> System.out.printf("\t%d - %s%n", b.getId(), b.getName()));
@@ -183,13 +227,17 @@ public class GoogleTaskEventsExample1 {
      * @see GoogleTaskEventsTraceReader#getBrokerManager()
      */
     private void createCloudletsAndBrokersFromTraceFile() {
-        taskEventsReader =
-            GoogleTaskEventsTraceReader
-                .getInstance(simulation, TASK_EVENTS_FILE, this::createCloudlet)
-                .setMaxCloudletsToCreate(MAX_CLOUDLETS);
+        try (var taskEvents = new GoogleTraceShardMerger(TASK_EVENTS_SHARDS).open()) {
+            taskEventsReader =
+                new GoogleTaskEventsTraceReader(simulation, TASK_EVENTS_FILE, taskEvents, this::createCloudlet)
+                    .setMaxCloudletsToCreate(MAX_CLOUDLETS);
+
+            // By default, created Cloudlets are automatically submitted to their respective brokers.
+            cloudlets = taskEventsReader.process();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
-        // By default, created Cloudlets are automatically submitted to their respective brokers.
-        cloudlets = taskEventsReader.process();
         brokers = taskEventsReader.getBrokerManager().getBrokers();
         System.out.printf(
             "%d Cloudlets and %d Brokers created from the %s trace file.%n",
@@ -220,12 +268,30 @@ public class GoogleTaskEventsExample1 {
 
         final double sizeInMB    = event.getResourceRequestForLocalDiskSpace() * VM_SIZE_MB + 1;
         final long   sizeInBytes = (long) Math.ceil(megaBytesToBytes(sizeInMB));
-        return new CloudletSimple(CLOUDLET_LENGTH, pesNumber)
+        final var cloudlet = new CloudletSimple(CLOUDLET_LENGTH, pesNumber)
             .setFileSize(sizeInBytes)
             .setOutputSize(sizeInBytes)
             .setUtilizationModelCpu(new UtilizationModelFull())
             .setUtilizationModelBw(new UtilizationModelDynamic(0.25))
             .setUtilizationModelRam(utilizationRam);
+
+        if(taskUsageTrace != null && taskUsageTrace.hasTask(event.getJobId(), event.getTaskIndex())) {
+            cloudlet
+                .setUtilizationModelCpu(taskUsageTrace.getUtilizationModel(event.getJobId(), event.getTaskIndex(), Usage.CPU))
+                .setUtilizationModelRam(taskUsageTrace.getUtilizationModel(event.getJobId(), event.getTaskIndex(), Usage.RAM));
+        }
+
+        return cloudlet;
+    }
+
+    /**
+     * Reads the "task usage" trace into a {@link GoogleTaskUsageTrace},
+     * whose utilization models are given to the Cloudlets when they are created.
+     */
+    private void readTaskUsageModels() {
+        taskUsageTrace = GoogleTaskUsageTrace.read(new GoogleTraceShardMerger(TASK_USAGE_SHARDS));
+
+        System.out.printf("Usage of %d tasks read from the %s trace file.%n", taskUsageTrace.size(), TASK_USAGE_FILE);
     }
 
     /**
@@ -239,8 +305,13 @@ public class GoogleTaskEventsExample1 {
      * </p>
      */
     private void readTaskUsageTraceFile() {
-        final var reader = GoogleTaskUsageTraceReader.getInstance(taskEventsReader, TASK_USAGE_FILE);
-        final var cloudletsCollection = reader.process();
+        final Collection<Cloudlet> cloudletsCollection;
+        try (var taskUsage = new GoogleTraceShardMerger(TASK_USAGE_SHARDS).open()) {
+            cloudletsCollection = new GoogleTaskUsageTraceReader(taskEventsReader, TASK_USAGE_FILE, taskUsage).process();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
         System.out.printf("%d Cloudlets processed from the %s trace file.%n", cloudletsCollection.size(), TASK_USAGE_FILE);
         System.out.println();
     }
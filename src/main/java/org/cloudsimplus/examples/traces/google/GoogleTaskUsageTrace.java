@@ -0,0 +1,333 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces.google;
+
+import org.cloudsimplus.traces.google.GoogleTaskUsageTraceReader;
+import org.cloudsimplus.utilizationmodels.UtilizationModel;
+import org.cloudsimplus.utilizationmodels.UtilizationModelAbstract;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The resource usage samples of each task in a <a href="https://github.com/google/cluster-data">Google Cluster Data</a>
+ * "task usage" trace, which provides {@link UtilizationModel}s that follow the trace.
+ *
+ * <p>The {@link GoogleTaskUsageTraceReader} applies each trace record to its Cloudlet through callbacks,
+ * which is a processing step for every record. Here, the samples of each task are kept instead
+ * in primitive arrays sorted by time, and each {@link #getUtilizationModel(long, int, Usage) utilization model}
+ * answers a query by a binary search and a linear interpolation between the samples around the queried time.
+ * Since the simulation asks the utilization at increasing times, each model caches the position
+ * of the last query, so that most queries are answered without searching.</p>
+ *
+ * <p>Each sample is placed at the middle of its measurement period (in seconds).
+ * Before the first and after the last sample, the usage of the closest sample is returned.
+ * Usage values are normalized by the largest machine of the trace, as in the trace,
+ * and capped at 100%. The trace has no network usage, so only CPU and RAM models are provided.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public final class GoogleTaskUsageTrace {
+    private static final double MICROSECONDS = 1_000_000;
+    private static final int INITIAL_SAMPLES = 8;
+
+    /**
+     * The resources whose usage is recorded in the trace, with the index of their field.
+     */
+    public enum Usage {
+        /** The mean CPU usage rate. */
+        CPU(5),
+
+        /** The canonical memory usage. */
+        RAM(6);
+
+        private final int field;
+
+        Usage(final int field) {
+            this.field = field;
+        }
+    }
+
+    private record TaskId(long jobId, int taskIndex) {}
+
+    /**
+     * A usage sample of a task, parsed from a line of the trace.
+     * @param time the time (in seconds) at the middle of the measurement period
+     * @param usages the usage of each resource, indexed by {@link Usage#ordinal()}
+     */
+    private record Sample(TaskId taskId, double time, float[] usages) {
+        static Sample parse(final String line) {
+            final String[] fields = line.strip().split(",", -1);
+            final var taskId = new TaskId(Long.parseLong(fields[2]), Integer.parseInt(fields[3]));
+            final double time = (Long.parseLong(fields[0]) + Long.parseLong(fields[1])) / 2.0 / MICROSECONDS;
+            final var usages = new float[Usage.values().length];
+            for (final var usage : Usage.values()) {
+                final var value = fields[usage.field];
+                usages[usage.ordinal()] = value.isEmpty() ? 0 : Float.parseFloat(value);
+            }
+
+            return new Sample(taskId, time, usages);
+        }
+    }
+
+    /**
+     * The samples of a task: the time (in seconds) of each sample, sorted,
+     * and the usage of each resource at those times, indexed by {@link Usage#ordinal()}.
+     */
+    private record Samples(double[] times, float[][] usages) {}
+
+    private final Map<TaskId, Samples> samplesByTask;
+
+    private GoogleTaskUsageTrace(final Map<TaskId, Samples> samplesByTask) {
+        this.samplesByTask = samplesByTask;
+    }
+
+    /**
+     * Reads a "task usage" trace (or the merged shards of one).
+     *
+     * @param file the name of the trace, used in error messages
+     * @param in the stream to read the trace from, which is not closed
+     * @return the usage samples of the tasks in the trace
+     * @throws UncheckedIOException when the trace cannot be read
+     * @throws IllegalArgumentException when a line of the trace is malformed
+     * @see #read(GoogleTraceShardMerger)
+     */
+    public static GoogleTaskUsageTrace read(final String file, final InputStream in) {
+        final var builders = new HashMap<TaskId, SamplesBuilder>();
+        final var reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if(line.isEmpty() || line.startsWith("#"))
+                    continue;
+
+                final Sample sample;
+                try {
+                    sample = Sample.parse(line);
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException("%s:%d: malformed task usage line: %s".formatted(file, lineNumber, e.getMessage()), e);
+                }
+                add(builders, sample);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading task usage trace " + file, e);
+        }
+
+        return build(builders);
+    }
+
+    /**
+     * Reads the shards of a "task usage" trace, whose lines are parsed by the threads of the merger.
+     *
+     * @param shards the merger of the trace shards
+     * @return the usage samples of the tasks in the trace
+     * @throws UncheckedIOException when the trace cannot be read
+     * @throws IllegalArgumentException when a line of the trace is malformed
+     */
+    public static GoogleTaskUsageTrace read(final GoogleTraceShardMerger shards) {
+        final var builders = new HashMap<TaskId, SamplesBuilder>();
+        try (var samples = shards.open(Sample::parse)) {
+            samples.forEachRemaining(sample -> add(builders, sample));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading task usage trace " + shards.getName(), e);
+        }
+
+        return build(builders);
+    }
+
+    private static void add(final Map<TaskId, SamplesBuilder> builders, final Sample sample) {
+        builders.computeIfAbsent(sample.taskId(), id -> new SamplesBuilder()).add(sample.time(), sample.usages());
+    }
+
+    private static GoogleTaskUsageTrace build(final Map<TaskId, SamplesBuilder> builders) {
+        final var samplesByTask = new HashMap<TaskId, Samples>(builders.size() * 4 / 3 + 1);
+        builders.forEach((taskId, builder) -> samplesByTask.put(taskId, builder.build()));
+        return new GoogleTaskUsageTrace(samplesByTask);
+    }
+
+    /**
+     * Collects the samples of a task while the trace is read.
+     */
+    private static final class SamplesBuilder {
+        private double[] times = new double[INITIAL_SAMPLES];
+        private final float[][] usages = new float[Usage.values().length][INITIAL_SAMPLES];
+        private int size;
+        private boolean sorted = true;
+
+        void add(final double time, final float[] sampleUsages) {
+            if(size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                for (int i = 0; i < usages.length; i++) {
+                    usages[i] = Arrays.copyOf(usages[i], size * 2);
+                }
+            }
+
+            sorted &= size == 0 || times[size - 1] <= time;
+            times[size] = time;
+            for (int usage = 0; usage < usages.length; usage++) {
+                usages[usage][size] = sampleUsages[usage];
+            }
+            size++;
+        }
+
+        /**
+         * Creates the samples trimmed to their size, sorting them by time
+         * if the trace records of the task were not in time order.
+         */
+        Samples build() {
+            if(sorted) {
+                final var trimmedUsages = new float[usages.length][];
+                Arrays.setAll(trimmedUsages, usage -> Arrays.copyOf(usages[usage], size));
+                return new Samples(Arrays.copyOf(times, size), trimmedUsages);
+            }
+
+            final var order = IntStream.range(0, size).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, Comparator.comparingDouble(i -> times[i]));
+
+            final var sortedTimes = new double[size];
+            final var sortedUsages = new float[usages.length][size];
+            for (int i = 0; i < size; i++) {
+                sortedTimes[i] = times[order[i]];
+                for (int usage = 0; usage < usages.length; usage++) {
+                    sortedUsages[usage][i] = usages[usage][order[i]];
+                }
+            }
+
+            return new Samples(sortedTimes, sortedUsages);
+        }
+    }
+
+    /**
+     * Gets the number of tasks in the trace.
+     * @return
+     */
+    public int size() {
+        return samplesByTask.size();
+    }
+
+    /**
+     * Checks if the trace has usage samples for a task.
+     * @param jobId the id of the job the task belongs to
+     * @param taskIndex the index of the task inside the job
+     * @return
+     */
+    public boolean hasTask(final long jobId, final int taskIndex) {
+        return samplesByTask.containsKey(new TaskId(jobId, taskIndex));
+    }
+
+    /**
+     * Creates a utilization model that follows the usage of a resource by a task along the trace.
+     * Each call creates a new model, so that each Cloudlet has its own query cursor,
+     * but all models of a task share its samples.
+     *
+     * @param jobId the id of the job the task belongs to
+     * @param taskIndex the index of the task inside the job
+     * @param usage the resource whose usage the model follows
+     * @return the utilization model
+     * @throws IllegalArgumentException when the trace has no samples for the task
+     * @see #hasTask(long, int)
+     */
+    public UtilizationModel getUtilizationModel(final long jobId, final int taskIndex, final Usage usage) {
+        final var samples = samplesByTask.get(new TaskId(jobId, taskIndex));
+        if(samples == null)
+            throw new IllegalArgumentException("There is no task usage for task %d of job %d".formatted(taskIndex, jobId));
+
+        return new TaskUsageUtilizationModel(samples.times(), samples.usages()[usage.ordinal()]);
+    }
+
+    /**
+     * A utilization model that interpolates the usage samples of a task.
+     */
+    private static final class TaskUsageUtilizationModel extends UtilizationModelAbstract {
+        private final double[] times;
+        private final float[] usages;
+
+        /** The index of the sample at or before the last queried time. */
+        private int cursor;
+
+        TaskUsageUtilizationModel(final double[] times, final float[] usages) {
+            super();
+            this.times = times;
+            this.usages = usages;
+        }
+
+        @Override
+        protected double getUtilizationInternal(final double time) {
+            final int last = times.length - 1;
+            if(time <= times[0])
+                return cap(usages[0]);
+            if(time >= times[last])
+                return cap(usages[last]);
+
+            final int i = findSample(time);
+            final double fraction = (time - times[i]) / (times[i + 1] - times[i]);
+            return cap(usages[i] + (usages[i + 1] - usages[i]) * fraction);
+        }
+
+        /**
+         * Finds the last sample at or before a time inside the samples interval,
+         * checking the cursor and the next sample before searching.
+         */
+        private int findSample(final double time) {
+            if(times[cursor] <= time) {
+                if(time < times[cursor + 1])
+                    return cursor;
+                if(cursor + 2 < times.length && time < times[cursor + 2])
+                    return ++cursor;
+            }
+
+            final int position = Arrays.binarySearch(times, time);
+            //When the time is not found, the insertion point is the first sample after it
+            cursor = position >= 0 ? lastSampleAt(position) : -position - 2;
+            return cursor;
+        }
+
+        /**
+         * Gets the last of the samples with the same time, so that the interpolation interval isn't empty.
+         */
+        private int lastSampleAt(int position) {
+            while (position + 1 < times.length - 1 && times[position + 1] == times[position]) {
+                position++;
+            }
+
+            return position;
+        }
+
+        private static double cap(final double usage) {
+            return Math.min(1, Math.max(0, usage));
+        }
+    }
+}
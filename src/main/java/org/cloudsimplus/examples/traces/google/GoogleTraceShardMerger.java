@@ -0,0 +1,621 @@
+/*
+ * CloudSim Plus: A modern, highly-extensible and easier-to-use Framework for
+ * Modeling and Simulation of Cloud Computing Infrastructures and Services.
+ * http://cloudsimplus.org
+ *
+ *     Copyright (C) 2015-2021 Universidade da Beira Interior (UBI, Portugal) and
+ *     the Instituto Federal de Educação Ciência e Tecnologia do Tocantins (IFTO, Brazil).
+ *
+ *     This file is part of CloudSim Plus.
+ *
+ *     CloudSim Plus is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     CloudSim Plus is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with CloudSim Plus. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cloudsimplus.examples.traces.google;
+
+import org.cloudsimplus.traces.google.GoogleMachineEventsTraceReader;
+import org.cloudsimplus.traces.google.GoogleTaskEventsTraceReader;
+import org.cloudsimplus.traces.google.GoogleTaskUsageTraceReader;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the shards of a Google Cluster Data trace (such as the 500 {@code part-?????-of-00500.csv.gz} files
+ * of each table) in parallel and merges their records in timestamp order.
+ * The merged records can be {@link #open(Function) parsed by the parsing threads} into objects,
+ * as {@link GoogleTaskUsageTrace} and {@link GoogleMachineHostPool} do,
+ * or {@link #open() read as a single stream} of lines by the {@link GoogleTaskEventsTraceReader},
+ * {@link GoogleTaskUsageTraceReader} or {@link GoogleMachineEventsTraceReader},
+ * so that their {@code TaskEvent}/{@code MachineEvent} callbacks receive the records of the whole trace.
+ * Such readers parse the lines again in the thread reading the stream, so only splitting the lines,
+ * parsing their timestamps and encoding them is done by the parsing threads.
+ *
+ * <p>Each shard is read (decompressed and split into lines) in chunks of {@link #getChunkLines() lines},
+ * one chunk after the other, and each chunk is then parsed by any thread of a pool,
+ * so that the chunks of the same shard are parsed in parallel.
+ * The tables of a Google trace are split into consecutive time ranges, so the merge
+ * takes all records of a shard before the records of the next one.
+ * Therefore, the shards are read ahead in the order of the time of their last read record,
+ * which reads the rest of the shard being merged and the beginning of the next ones,
+ * and at most {@value #CHUNKS_BY_THREAD} chunks by thread wait to be merged,
+ * so the memory taken doesn't depend on the trace size.
+ * Reading a shard is sequential, which bounds the speedup when the parsing is cheaper than the decompression.
+ * No task ever blocks, so any number of shards can be read by any number of threads.</p>
+ *
+ * <p>The chunks are merged with a k-way merge by the timestamp (the first field of every table),
+ * keeping the order of the shards for records with the same timestamp.
+ * Comment lines (starting with {@code #}) and empty lines are dropped.</p>
+ *
+ * @since CloudSim Plus 8.5.0
+ */
+public class GoogleTraceShardMerger {
+    /**
+     * The default number of lines in each chunk parsed at once.
+     */
+    public static final int DEF_CHUNK_LINES = 4096;
+
+    /**
+     * The maximum number of chunks read ahead of the merge for each parsing thread.
+     */
+    public static final int CHUNKS_BY_THREAD = 4;
+
+    /**
+     * The records of all shards in timestamp order, which must be closed to stop the parsing threads.
+     * @param <T> the type of the records
+     */
+    public interface MergedRecords<T> extends Iterator<T>, Closeable {
+    }
+
+    private final List<String> shards;
+    private final int threads;
+    private int chunkLines;
+
+    /**
+     * Creates a merger for the shards of a trace table, using one thread by available processor.
+     * @param shards the path or classpath resource of each shard, which may be gzipped
+     */
+    public GoogleTraceShardMerger(final List<String> shards) {
+        this(shards, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a merger for the shards of a trace table.
+     * @param shards the path or classpath resource of each shard, which may be gzipped
+     * @param threads the number of threads to read and parse the shards
+     */
+    public GoogleTraceShardMerger(final List<String> shards, final int threads) {
+        if(shards.isEmpty())
+            throw new IllegalArgumentException("At least one shard must be given");
+        if(threads <= 0)
+            throw new IllegalArgumentException("The number of threads must be greater than zero");
+
+        this.shards = List.copyOf(shards);
+        this.threads = threads;
+        this.chunkLines = DEF_CHUNK_LINES;
+    }
+
+    /**
+     * Lists the shards of a trace table in a directory, in the alphabetical order of their names.
+     * @param dir the directory of the trace table
+     * @param glob the pattern of the shard file names, such as {@code "part-*.csv.gz"}
+     * @return the path of each shard
+     * @throws IOException when the directory cannot be read
+     */
+    public static List<String> listShards(final Path dir, final String glob) throws IOException {
+        final var shards = new ArrayList<String>();
+        try (var stream = Files.newDirectoryStream(dir, glob)) {
+            stream.forEach(path -> shards.add(path.toString()));
+        }
+
+        shards.sort(null);
+        return shards;
+    }
+
+    /**
+     * Gets the name of the first shard, which identifies the trace.
+     * @return
+     */
+    public String getName() {
+        return shards.get(0);
+    }
+
+    /**
+     * Starts parsing the shards and gets a stream with all their records in timestamp order.
+     * The stream must be closed to stop the parsing threads.
+     * @return the stream with the merged records, one by line
+     * @throws IOException when some shard cannot be opened
+     */
+    public InputStream open() throws IOException {
+        return new MergedInputStream(new Merge<>(line -> (line + '\n').getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Starts parsing the shards and gets all their records in timestamp order.
+     * The records must be closed to stop the parsing threads.
+     * Since the records are read by {@link Iterator} methods,
+     * a shard that cannot be read makes them throw an {@link UncheckedIOException}.
+     *
+     * @param parser the function that parses a line into a record, called by the parsing threads,
+     *               which throws a {@link RuntimeException} when the line is malformed
+     * @param <T> the type of the records
+     * @return the merged records, which throw an {@link IllegalArgumentException} on a malformed line
+     * @throws IOException when some shard cannot be opened
+     */
+    public <T> MergedRecords<T> open(final Function<String, T> parser) throws IOException {
+        return new Merge<>(parser);
+    }
+
+    /**
+     * Gets the number of lines in each chunk parsed at once.
+     * @return
+     */
+    public int getChunkLines() {
+        return chunkLines;
+    }
+
+    /**
+     * Sets the number of lines in each chunk parsed at once.
+     * @param chunkLines the number of lines to set
+     * @return
+     */
+    public GoogleTraceShardMerger setChunkLines(final int chunkLines) {
+        if(chunkLines <= 0)
+            throw new IllegalArgumentException("The number of lines in a chunk must be greater than zero");
+        this.chunkLines = chunkLines;
+        return this;
+    }
+
+    private static InputStream openShard(final String file) throws IOException {
+        final var path = Path.of(file);
+        final InputStream in = Files.exists(path) ?
+                                   Files.newInputStream(path) :
+                                   GoogleTraceShardMerger.class.getClassLoader().getResourceAsStream(file);
+        if(in == null)
+            throw new FileNotFoundException(file);
+        return file.endsWith(".gz") ? new GZIPInputStream(in) : in;
+    }
+
+    private static boolean isRecord(final String line) {
+        return !line.isEmpty() && !line.startsWith("#");
+    }
+
+    private static long parseTimestamp(final String line) {
+        final int comma = line.indexOf(',');
+        return Long.parseLong(comma < 0 ? line : line.substring(0, comma));
+    }
+
+    /**
+     * The records parsed from the lines of a chunk, with their timestamps.
+     * The last chunk of a shard may have no records and, if the shard could not be read or parsed, the error.
+     */
+    private record Chunk(long[] timestamps, Object[] records, int size, boolean last, Exception error) {
+        static Chunk ofError(final Exception error) {
+            return new Chunk(null, null, 0, true, error);
+        }
+    }
+
+    /**
+     * The merge of the records of all shards, parsed by a function.
+     * @param <T> the type of the records
+     */
+    private final class Merge<T> implements MergedRecords<T> {
+        private final Function<String, T> parser;
+        private final ExecutorService executor;
+        private final List<Shard> shardList;
+        private final PriorityQueue<Shard> heads;
+        private final int maxPendingChunks;
+        private int pendingChunks;
+        private boolean closed;
+        private boolean started;
+
+        Merge(final Function<String, T> parser) throws IOException {
+            this.parser = parser;
+            this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+                final var thread = new Thread(runnable, "GoogleTraceShardMerger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.shardList = new ArrayList<>(shards.size());
+            this.heads = new PriorityQueue<>(
+                (a, b) -> a.timestamp() != b.timestamp() ? Long.compare(a.timestamp(), b.timestamp()) : Integer.compare(a.index, b.index));
+            this.maxPendingChunks = threads * CHUNKS_BY_THREAD;
+            try {
+                for (int i = 0; i < shards.size(); i++) {
+                    shardList.add(new Shard(i, shards.get(i)));
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+
+            scheduleReads();
+        }
+
+        /**
+         * Schedules the reading of chunks while there is room for them,
+         * choosing the shards whose last read record comes first.
+         * Before the first chunk of every shard is read, this reads the shards in their order.
+         * Then, it reads ahead the shard being merged and the ones whose time range follows it.
+         */
+        private synchronized void scheduleReads() {
+            while (!closed && pendingChunks < maxPendingChunks) {
+                Shard next = null;
+                for (final var shard : shardList) {
+                    if(shard.isReadable() && (next == null || shard.readTimestamp < next.readTimestamp))
+                        next = shard;
+                }
+
+                if(next == null)
+                    return;
+                scheduleRead(next);
+            }
+        }
+
+        /**
+         * Schedules the reading of the next chunk of a shard, even if there is no room for it,
+         * when the merge needs it. If a chunk is being read, the next one is scheduled when it's done,
+         * since the merge may take that chunk before the reading finishes.
+         */
+        private synchronized void scheduleDemandedRead(final Shard shard) {
+            if(closed || !shard.chunks.isEmpty())
+                return;
+
+            if(shard.isReadable())
+                scheduleRead(shard);
+            else shard.demanded = true;
+        }
+
+        /**
+         * Lets the next chunk of a shard be read after one was read.
+         * @param last indicates if the chunk read was the last one of the shard
+         */
+        private synchronized void readFinished(final Shard shard, final boolean last) {
+            shard.reading = false;
+            shard.finished |= last;
+            if(shard.demanded && shard.chunks.isEmpty() && shard.isReadable())
+                scheduleRead(shard);
+
+            shard.demanded = false;
+            scheduleReads();
+        }
+
+        private void scheduleRead(final Shard shard) {
+            shard.reading = true;
+            pendingChunks++;
+            try {
+                executor.execute(shard::read);
+            } catch (RejectedExecutionException e) {
+                //The merge was closed
+                shard.reading = false;
+            }
+        }
+
+        private synchronized void chunkTaken() {
+            pendingChunks--;
+            scheduleReads();
+        }
+
+        /**
+         * Gets the next record in timestamp order.
+         * @return the record or null if all shards have ended
+         */
+        private T poll() throws IOException {
+            start();
+            final var shard = heads.poll();
+            if(shard == null)
+                return null;
+
+            final T record = shard.record();
+            if(shard.advance())
+                heads.add(shard);
+            return record;
+        }
+
+        private void start() throws IOException {
+            if(started)
+                return;
+
+            started = true;
+            for (final var shard : shardList) {
+                if(shard.advance())
+                    heads.add(shard);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                start();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+
+            try {
+                return poll();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            synchronized (this) {
+                closed = true;
+            }
+
+            executor.shutdownNow();
+            IOException error = null;
+            for (final var shard : shardList) {
+                try {
+                    shard.close();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+
+            if(error != null)
+                throw error;
+        }
+
+        /**
+         * A shard being read, with the chunks being parsed or waiting to be merged, in the shard order.
+         */
+        private final class Shard implements Closeable {
+            private final int index;
+            private final String file;
+            private final BufferedReader reader;
+            private final BlockingQueue<FutureTask<Chunk>> chunks;
+
+            /** Indicates if a chunk is being read, so that the chunks of a shard are read one at a time. */
+            private boolean reading;
+
+            /** Indicates if the merge is waiting for the chunk being read. */
+            private boolean demanded;
+            private volatile boolean finished;
+
+            /** The timestamp of the last record read, which orders the reading of the shards. */
+            private volatile long readTimestamp;
+            private long readLines;
+            private Chunk current;
+            private int position;
+
+            Shard(final int index, final String file) throws IOException {
+                this.index = index;
+                this.file = file;
+                this.reader = new BufferedReader(new InputStreamReader(openShard(file), StandardCharsets.UTF_8));
+                this.chunks = new LinkedBlockingQueue<>();
+                this.readTimestamp = Long.MIN_VALUE;
+            }
+
+            boolean isReadable() {
+                return !reading && !finished;
+            }
+
+            /**
+             * Reads the next chunk of lines and schedules its parsing.
+             * The next chunk is only scheduled after this one is read, so the reader is never shared.
+             */
+            private void read() {
+                final var lines = new String[chunkLines];
+                final long firstLine = readLines + 1;
+                int size = 0;
+                FutureTask<Chunk> chunk;
+                try {
+                    String line;
+                    while (size < chunkLines && (line = reader.readLine()) != null) {
+                        lines[size++] = line;
+                    }
+
+                    readLines += size;
+                    updateReadTimestamp(lines, size);
+                    final int lineCount = size;
+                    chunk = new FutureTask<>(() -> parse(lines, lineCount, firstLine, lineCount < chunkLines));
+                } catch (IOException e) {
+                    chunk = new FutureTask<>(() -> Chunk.ofError(e));
+                }
+
+                chunks.add(chunk);
+                try {
+                    executor.execute(chunk);
+                } catch (RejectedExecutionException e) {
+                    //The merge was closed
+                    return;
+                }
+
+                readFinished(this, size < chunkLines);
+            }
+
+            private void updateReadTimestamp(final String[] lines, final int size) {
+                for (int i = size - 1; i >= 0; i--) {
+                    if(isRecord(lines[i])) {
+                        try {
+                            readTimestamp = parseTimestamp(lines[i]);
+                        } catch (NumberFormatException e) {
+                            //The error is reported when the chunk is parsed
+                        }
+                        return;
+                    }
+                }
+            }
+
+            private Chunk parse(final String[] lines, final int size, final long firstLine, final boolean last) {
+                final var timestamps = new long[size];
+                final var records = new Object[size];
+                int count = 0;
+                for (int i = 0; i < size; i++) {
+                    final String line = lines[i];
+                    if(!isRecord(line))
+                        continue;
+
+                    try {
+                        timestamps[count] = parseTimestamp(line);
+                        records[count++] = parser.apply(line);
+                    } catch (RuntimeException e) {
+                        return Chunk.ofError(new IllegalArgumentException(
+                            "%s:%d: malformed line: %s".formatted(file, firstLine + i, e.getMessage()), e));
+                    }
+                }
+
+                return new Chunk(timestamps, records, count, last, null);
+            }
+
+            /**
+             * Moves to the next record, waiting for its chunk to be read and parsed if needed.
+             * @return true if there is a record, false if the shard has ended
+             */
+            boolean advance() throws IOException {
+                while (current == null || ++position >= current.size()) {
+                    if(current != null && current.last())
+                        return false;
+
+                    current = takeChunk();
+                    position = -1;
+                }
+
+                return true;
+            }
+
+            private Chunk takeChunk() throws IOException {
+                scheduleDemandedRead(this);
+                final Chunk chunk;
+                try {
+                    final var task = chunks.take();
+                    chunkTaken();
+                    chunk = task.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while reading " + file, e);
+                } catch (ExecutionException e) {
+                    throw new IOException("Error parsing " + file, e.getCause());
+                }
+
+                if(chunk.error() instanceof IOException e)
+                    throw e;
+                if(chunk.error() instanceof RuntimeException e)
+                    throw e;
+                return chunk;
+            }
+
+            long timestamp() {
+                return current.timestamps()[position];
+            }
+
+            @SuppressWarnings("unchecked")
+            T record() {
+                return (T) current.records()[position];
+            }
+
+            @Override
+            public void close() throws IOException {
+                finished = true;
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * The records of all shards in timestamp order, one by line.
+     */
+    private static final class MergedInputStream extends InputStream {
+        private final Merge<byte[]> merge;
+        private byte[] line;
+        private int position;
+
+        MergedInputStream(final Merge<byte[]> merge) {
+            this.merge = merge;
+            this.line = new byte[0];
+        }
+
+        /**
+         * Gets the next line in timestamp order.
+         * @return true if there is a line, false if all shards have ended
+         */
+        private boolean nextLine() throws IOException {
+            final byte[] next;
+            try {
+                next = merge.poll();
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+
+            if(next == null)
+                return false;
+
+            line = next;
+            position = 0;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if(position == line.length && !nextLine())
+                return -1;
+            return line[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+            if(length == 0)
+                return 0;
+
+            int read = 0;
+            while (read < length) {
+                if(position == line.length && !nextLine())
+                    break;
+
+                final int count = Math.min(length - read, line.length - position);
+                System.arraycopy(line, position, buffer, offset + read, count);
+                position += count;
+                read += count;
+            }
+
+            return read == 0 ? -1 : read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            merge.close();
+        }
+    }
+}